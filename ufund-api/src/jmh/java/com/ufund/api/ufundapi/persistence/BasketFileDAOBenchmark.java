@@ -0,0 +1,117 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Measures basket reads and mutations of {@link BasketFileDAO}
+ * <br>
+ * Every mutation commits the users file, so for the larger sizes these
+ * benchmarks mostly measure that write. An adoption takes its pet out of the
+ * catalog for good, so every adoption gets a freshly listed pet
+ *
+ * @author Group E
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BasketFileDAOBenchmark {
+    private static final int PROBES = 1024;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    Path dir;
+    PetFileDAO petFileDAO;
+    UserFileDAO userFileDAO;
+    BasketFileDAO basketFileDAO;
+    String[] usernames;
+    Pet[] pets;
+    int probe;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Pet[] catalog = BenchmarkData.pets(size);
+        dir = Files.createTempDirectory("basket-benchmark");
+        String petsFile = BenchmarkData.write(dir, "pets.json", catalog, objectMapper);
+        String petListFile = BenchmarkData.write(dir, "petList.json", catalog, objectMapper);
+        String usersFile = BenchmarkData.write(dir, "users.json", BenchmarkData.users(size, size), objectMapper);
+        petFileDAO = new PetFileDAO(petsFile, petListFile, dir.resolve("pets.journal").toString(),
+                                    PetFileDAOBenchmark.CHECKPOINT, objectMapper);
+        userFileDAO = new UserFileDAO(usersFile, objectMapper);
+        basketFileDAO = new BasketFileDAO(userFileDAO, petFileDAO);
+
+        Random random = new Random(1);
+        usernames = new String[PROBES];
+        pets = new Pet[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            usernames[i] = BenchmarkData.username(random.nextInt(size));
+            pets[i] = catalog[random.nextInt(size)];
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        basketFileDAO.close();
+        userFileDAO.close();
+        petFileDAO.close();
+        BenchmarkData.delete(dir);
+    }
+
+    /**
+     * A pet listed right before each adoption, outside of the measurement
+     */
+    @State(Scope.Thread)
+    public static class Listing {
+        Pet pet;
+
+        @Setup(Level.Invocation)
+        public void list(BasketFileDAOBenchmark benchmark) throws IOException {
+            pet = benchmark.petFileDAO.createPet(new Pet(0, "Kagu", "Bolt"));
+        }
+    }
+
+    @Benchmark
+    public Pet[] getBasket() throws IOException {
+        return basketFileDAO.getPet(usernames[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public boolean addAndRemove() throws IOException {
+        int i = probe++ & (PROBES - 1);
+        basketFileDAO.createPet(usernames[i], pets[i]);
+        return basketFileDAO.deletePet(usernames[i], pets[i].getId());
+    }
+
+    @Benchmark
+    public boolean addAndAdopt(Listing listing) throws IOException {
+        int i = probe++ & (PROBES - 1);
+        basketFileDAO.createPet(usernames[i], listing.pet);
+        return basketFileDAO.adoptPet(usernames[i], listing.pet.getId());
+    }
+}
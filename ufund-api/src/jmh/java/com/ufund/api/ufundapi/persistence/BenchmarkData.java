@@ -0,0 +1,111 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.User;
+
+/**
+ * Generates the data files the persistence benchmarks run against
+ * <br>
+ * The data is derived from a fixed seed so every run and every fork sees
+ * the same catalog and users
+ *
+ * @author Group E
+ */
+final class BenchmarkData {
+    static final String[] TYPES = {
+        "Greater sage-grouse", "Lesser sage-grouse", "Kagu", "Shoebill", "Quokka", "Axolotl",
+        "Pangolin", "Fennec fox", "Red panda", "Capuchin", "Cassowary", "Tapir"
+    };
+    private static final String[] SYLLABLES = {
+        "ba", "bo", "ce", "da", "fi", "ga", "ki", "lo", "ma", "no", "pi", "ra", "su", "ta", "vo", "zu"
+    };
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * Generates a catalog with ids 1 to size
+     *
+     * @param size The number of pets
+     *
+     * @return The pets in id order
+     */
+    static Pet[] pets(int size) {
+        Random random = new Random(42);
+        Pet[] pets = new Pet[size];
+        for (int i = 0; i < size; i++)
+            pets[i] = new Pet(i + 1, TYPES[random.nextInt(TYPES.length)], name(random));
+        return pets;
+    }
+
+    /**
+     * Generates users with a few pets in their baskets and adopted lists
+     * <br>
+     * Adopted pets left the catalog, so their ids lie past its end
+     *
+     * @param size The number of users, an admin is added on top
+     * @param catalogSize The number of pets the baskets pick from
+     *
+     * @return The users
+     */
+    static User[] users(int size, int catalogSize) {
+        Random random = new Random(7);
+        User[] users = new User[size + 1];
+        for (int i = 0; i < size; i++) {
+            int[] basket = random.ints(4, 1, catalogSize + 1).toArray();
+            int[] adopted = random.ints(2, catalogSize + 1, 2 * catalogSize + 1).toArray();
+            users[i] = new User(username(i), "password", basket, adopted, new String[]{"Welcome"});
+        }
+        users[size] = new User("admin", "admin", new int[]{}, new int[]{}, new String[]{});
+        return users;
+    }
+
+    static String username(int index) {
+        return "user" + index;
+    }
+
+    /**
+     * Generates a pronounceable name of two to four syllables
+     */
+    static String name(Random random) {
+        StringBuilder name = new StringBuilder();
+        int syllables = 2 + random.nextInt(3);
+        for (int i = 0; i < syllables; i++)
+            name.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    /**
+     * Writes a value as JSON into a file of the given directory
+     *
+     * @return The path of the written file
+     */
+    static String write(Path dir, String filename, Object value, ObjectMapper objectMapper) throws IOException {
+        File file = dir.resolve(filename).toFile();
+        objectMapper.writeValue(file, value);
+        return file.getPath();
+    }
+
+    /**
+     * Deletes a directory created for a benchmark trial
+     */
+    static void delete(Path dir) throws IOException {
+        if (dir == null)
+            return;
+        try (Stream<Path> paths = Files.walk(dir)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator)
+                Files.deleteIfExists(path);
+        }
+    }
+}
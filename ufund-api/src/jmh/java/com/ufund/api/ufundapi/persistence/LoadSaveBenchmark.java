@@ -0,0 +1,113 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.User;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures how long it takes to load and to fully save the pet and user files
+ * <br>
+ * Each invocation is timed on its own since a single load of the larger
+ * sizes takes seconds. Loads run whole-array, streaming and parallel JSON
+ * and binary records, run with {@code -prof gc} to compare the allocation
+ * of the paths
+ *
+ * @author Group E
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class LoadSaveBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"array", "streaming", "parallel", "binary"})
+    String mode;
+
+    Path dir;
+    ObjectMapper objectMapper;
+    String petsFile;
+    String petListFile;
+    String usersFile;
+    PetFileDAO petFileDAO;
+    UserFileDAO userFileDAO;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        objectMapper = new ObjectMapper();
+        dir = Files.createTempDirectory("load-benchmark");
+        petsFile = BenchmarkData.write(dir, "pets.json", BenchmarkData.pets(size), objectMapper);
+        petListFile = BenchmarkData.write(dir, "petList.json", BenchmarkData.pets(size), objectMapper);
+        usersFile = BenchmarkData.write(dir, "users.json", BenchmarkData.users(size, size), objectMapper);
+        if ("binary".equals(mode)) {
+            petsFile = toBinary(petsFile, Pet.class, PetCodec.INSTANCE, new Pet[0]);
+            petListFile = toBinary(petListFile, Pet.class, PetCodec.INSTANCE, new Pet[0]);
+            usersFile = toBinary(usersFile, User.class, UserCodec.INSTANCE, new User[0]);
+        }
+        petFileDAO = loadPets();
+        userFileDAO = loadUsers();
+    }
+
+    private <T> String toBinary(String jsonFile, Class<T> type, RecordCodec<T> codec, T[] empty) throws IOException {
+        File binaryFile = new File(jsonFile.replace(".json", ".bin"));
+        StorageConverter.convert(objectMapper, "to-binary", new File(jsonFile), binaryFile, type, codec, empty);
+        return binaryFile.getPath();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        BenchmarkData.delete(dir);
+    }
+
+    @Benchmark
+    public PetFileDAO loadPets() throws IOException {
+        return new PetFileDAO(petsFile, petListFile, "", 0, "", 0, !"array".equals(mode), loadThreads(), format(),
+                              "", false, objectMapper);
+    }
+
+    @Benchmark
+    public UserFileDAO loadUsers() throws IOException {
+        return new UserFileDAO(usersFile, 0, 256, !"array".equals(mode), loadThreads(), format(), objectMapper);
+    }
+
+    private int loadThreads() {
+        return "parallel".equals(mode) ? 0 : 1;
+    }
+
+    private String format() {
+        return "binary".equals(mode) ? "binary" : "json";
+    }
+
+    @Benchmark
+    public void savePets() throws IOException {
+        petFileDAO.checkpoint();
+    }
+
+    @Benchmark
+    public boolean saveUsers() throws IOException {
+        return userFileDAO.commit();
+    }
+}
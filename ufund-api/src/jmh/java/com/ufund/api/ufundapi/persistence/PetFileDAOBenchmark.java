@@ -0,0 +1,114 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Measures the catalog reads and mutations of {@link PetFileDAO}
+ * <br>
+ * Mutations go through the journal, so their cost includes the checkpoints
+ * taken every {@value #CHECKPOINT} records, or through the record file as a
+ * single slot write and a force. The mapped store reads the pets from a memory mapping
+ * of the record file
+ *
+ * @author Group E
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PetFileDAOBenchmark {
+    static final int CHECKPOINT = 10000;
+    private static final int PROBES = 1024;    // Power of two so a mask picks the probe
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"journal", "records", "mapped"})
+    String store;
+
+    Path dir;
+    PetFileDAO petFileDAO;
+    String[] names;     // Name prefixes of one to three characters
+    String[] types;     // Type prefixes from a single letter up to a full type
+    int[] ids;
+    int probe;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        Pet[] pets = BenchmarkData.pets(size);
+        dir = Files.createTempDirectory("pet-benchmark");
+        String petsFile = BenchmarkData.write(dir, "pets.json", pets, objectMapper);
+        String petListFile = BenchmarkData.write(dir, "petList.json", pets, objectMapper);
+        String recordsFile = "journal".equals(store) ? "" : dir.resolve("pets.records").toString();
+        petFileDAO = new PetFileDAO(petsFile, petListFile, dir.resolve("pets.journal").toString(), CHECKPOINT,
+                                    "", 0, false, 1, "json", recordsFile, "mapped".equals(store), objectMapper);
+
+        Random random = new Random(1);
+        names = new String[PROBES];
+        types = new String[PROBES];
+        ids = new int[PROBES];
+        for (int i = 0; i < PROBES; i++) {
+            String name = pets[random.nextInt(size)].getName();
+            names[i] = name.substring(0, 1 + random.nextInt(Math.min(3, name.length())));
+            String type = BenchmarkData.TYPES[random.nextInt(BenchmarkData.TYPES.length)];
+            types[i] = type.substring(0, 1 + random.nextInt(type.length()));
+            ids[i] = 1 + random.nextInt(size);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        petFileDAO.close();
+        BenchmarkData.delete(dir);
+    }
+
+    private int next() {
+        return probe++ & (PROBES - 1);
+    }
+
+    @Benchmark
+    public Pet[] findByName() {
+        return petFileDAO.findPets(names[next()]);
+    }
+
+    @Benchmark
+    public Pet[] findByType() {
+        return petFileDAO.findPetsByType(types[next()]);
+    }
+
+    @Benchmark
+    public Pet getPet() {
+        return petFileDAO.getCurrentPet(ids[next()]);
+    }
+
+    @Benchmark
+    public Pet updatePet() throws IOException {
+        Pet pet = petFileDAO.getPet(ids[next()]);
+        return petFileDAO.updatePet(new Pet(pet.getId(), pet.getAnimaltype(), pet.getName()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.ufund.api.ufundapi.model.User;
+
+/**
+ * Measures the user lookups of {@link UserFileDAO}, including the check for
+ * outside changes to the users file that every lookup makes. The disk store
+ * keeps the users in an indexed file behind a cache of {@value #CACHE} users
+ *
+ * @author Group E
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserFileDAOBenchmark {
+    private static final int PROBES = 1024;
+    private static final int CACHE = 10000;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    int size;
+
+    @Param({"memory", "disk"})
+    String store;
+
+    Path dir;
+    UserFileDAO userFileDAO;
+    String[] usernames;
+    int probe;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        dir = Files.createTempDirectory("user-benchmark");
+        String usersFile = BenchmarkData.write(dir, "users.json", BenchmarkData.users(size, size), objectMapper);
+        String storeFile = "disk".equals(store) ? dir.resolve("users.store").toString() : "";
+        userFileDAO = new UserFileDAO(usersFile, 0, 256, true, 1, "json", storeFile, CACHE, objectMapper);
+
+        Random random = new Random(1);
+        usernames = new String[PROBES];
+        for (int i = 0; i < PROBES; i++)
+            usernames[i] = BenchmarkData.username(random.nextInt(size));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        userFileDAO.close();
+        BenchmarkData.delete(dir);
+    }
+
+    @Benchmark
+    public User getUser() throws IOException {
+        return userFileDAO.getUser(usernames[probe++ & (PROBES - 1)]);
+    }
+
+    @Benchmark
+    public User checkUser() {
+        return userFileDAO.checkUser(usernames[probe++ & (PROBES - 1)], "password");
+    }
+}
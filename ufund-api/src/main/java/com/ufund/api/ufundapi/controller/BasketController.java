@@ -8,6 +8,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
@@ -31,6 +32,7 @@ import com.ufund.api.ufundapi.model.Pet;
 @RequestMapping("baskets")
 public class BasketController {
     private static final Logger LOG = Logger.getLogger(BasketController.class.getName());
+    private static final int MAX_PAGE = 1000;  // Most pets a page may hold
     private BasketDAO basketDao;
 
     /**
@@ -65,6 +67,37 @@ public class BasketController {
         }
     }
 
+    /**
+     * Gets a page of the {@linkplain Pet pets} the user with the provided username has adopted
+     * <br>
+     * Pages are in id order. The next page is requested with the id of the last
+     * {@link Pet pet} of this one as after, a page shorter than limit is the last one
+     * 
+     * @param username - The {@link User user} that we want the adopted pets from
+     * @param limit The maximum number of {@link Pet pets} on the page, at most {@value #MAX_PAGE}
+     * @param after The id the page starts behind, the first page when missing
+     * 
+     * @return ResponseEntity with array of {@link Pet pet} objects (may be empty) and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if limit is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping(value = "/adopted/{username}", params = "limit")
+    public ResponseEntity<Pet[]> getAdoptedPet(@PathVariable String username, @RequestParam int limit,
+                                               @RequestParam(required = false) Integer after) {
+        LOG.info("GET /adopted/" + username + "?limit=" + limit + "&after=" + after);
+        if (limit < 1)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            Pet[] pet = basketDao.getAdoptedPet(username, after == null ? Integer.MIN_VALUE : after,
+                                                Math.min(limit, MAX_PAGE));
+            return new ResponseEntity<Pet[]>(pet,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Gets a {@linkplain Pet pet} with the provided username
      * 
@@ -87,19 +120,50 @@ public class BasketController {
     }
 
     /**
-     * Creates a {@linkplain Pet pet} with the provided pet object
+     * Gets a page of the {@linkplain Pet pets} in the basket of the user with the provided username
+     * <br>
+     * Pages are in id order. The next page is requested with the id of the last
+     * {@link Pet pet} of this one as after, a page shorter than limit is the last one
+     * 
+     * @param username - The {@link User user} that we want the pets from that's currently in their basket
+     * @param limit The maximum number of {@link Pet pets} on the page, at most {@value #MAX_PAGE}
+     * @param after The id the page starts behind, the first page when missing
+     * 
+     * @return ResponseEntity with array of {@link Pet pet} objects (may be empty) and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if limit is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping(value = "/username/{username}", params = "limit")
+    public ResponseEntity<Pet[]> getPet(@PathVariable String username, @RequestParam int limit,
+                                        @RequestParam(required = false) Integer after) {
+        LOG.info("GET /username/" + username + "?limit=" + limit + "&after=" + after);
+        if (limit < 1)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try {
+            Pet[] pet = basketDao.getPet(username, after == null ? Integer.MIN_VALUE : after, Math.min(limit, MAX_PAGE));
+            return new ResponseEntity<Pet[]>(pet,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Creates a {@linkplain Pet pet} with the provided pet object in the basket of the user
      * 
+     * @param username - The {@link User user} whose basket the pet is added to
      * @param pet - The {@link Pet pet} to create
      * 
      * @return ResponseEntity with created {@link Pet pet} object and HTTP status of CREATED<br>
      * ResponseEntity with HTTP status of CONFLICT if {@link Pet pet} object already exists<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PostMapping("")
-    public ResponseEntity<Pet> createPet(@RequestBody Pet pet) {
-        LOG.info("POST /pets " + pet);
+    @PostMapping("/{username}")
+    public ResponseEntity<Pet> createPet(@PathVariable String username, @RequestBody Pet pet) {
+        LOG.info("POST /baskets/" + username + " " + pet);
         try{
-            Pet newPet = basketDao.createPet(pet);
+            Pet newPet = basketDao.createPet(username, pet);
             if(newPet != null){
                 return new ResponseEntity<Pet>(newPet,HttpStatus.CREATED);
             }
@@ -114,19 +178,20 @@ public class BasketController {
     }
 
     /**
-     * Creates a {@linkplain Pet pet} with the provided pet object that will be added to the adopted basket
+     * Moves the {@linkplain Pet pet} with the provided id from the basket of the user to their adopted basket
      * 
-     * @param pet - The {@link Pet pet} to create for adopting
+     * @param username - The {@link User user} adopting the pet
+     * @param id - The id of the {@link Pet pet} to adopt
      * 
      * @return ResponseEntity with created {@link Pet pet} object and HTTP status of CREATED<br>
      * ResponseEntity with HTTP status of CONFLICT if {@link Pet pet} object already exists<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @PostMapping("/adopt")
-    public ResponseEntity<Pet> adoptPet(@RequestBody int id) {
-        LOG.info("POST ADOPT /pets ");
+    @PostMapping("/{username}/adopt")
+    public ResponseEntity<Pet> adoptPet(@PathVariable String username, @RequestBody int id) {
+        LOG.info("POST /baskets/" + username + "/adopt " + id);
         try{
-            boolean newPet = basketDao.adoptPet(id);
+            boolean newPet = basketDao.adoptPet(username, id);
             if(newPet == true){
                 return new ResponseEntity<>(HttpStatus.OK);
             }
@@ -141,19 +206,20 @@ public class BasketController {
     }
 
     /**
-     * Deletes a {@linkplain Pet pet} with the given id
+     * Deletes a {@linkplain Pet pet} with the given id from the basket of the user
      * 
+     * @param username The {@link User user} whose basket the pet is removed from
      * @param id The id of the {@link Pet pet} to deleted
      * 
      * @return ResponseEntity HTTP status of OK if deleted<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @DeleteMapping("/{id}")
-    public ResponseEntity<Pet> deletePet(@PathVariable int id) {
-        LOG.info("DELETE BASKET /pets/" + id);
+    @DeleteMapping("/{username}/{id}")
+    public ResponseEntity<Pet> deletePet(@PathVariable String username, @PathVariable int id) {
+        LOG.info("DELETE /baskets/" + username + "/" + id);
         try{
-            boolean petDeleted = basketDao.deletePet(id);
+            boolean petDeleted = basketDao.deletePet(username, id);
             if(petDeleted == true) {
                 return new ResponseEntity<>(HttpStatus.OK);
             }
@@ -168,19 +234,20 @@ public class BasketController {
     }
 
     /**
-     * Responds to the GET request for a {@linkplain Pet pet} for the given id
+     * Responds to the GET request for a {@linkplain Pet pet} for the given id in the basket of the user
      * 
+     * @param username The {@link User user} whose basket is searched
      * @param id The id used to locate the {@link Pet pet}
      * 
      * @return ResponseEntity with {@link Pet pet} object and HTTP status of OK if found<br>
      * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @GetMapping("/{id}")
-    public ResponseEntity<Pet> getPet(@PathVariable int id) {
-        LOG.info("GET /pets/" + id);
+    @GetMapping("/{username}/{id}")
+    public ResponseEntity<Pet> getPet(@PathVariable String username, @PathVariable int id) {
+        LOG.info("GET /baskets/" + username + "/" + id);
         try {
-            Pet pet = basketDao.getPet(id);
+            Pet pet = basketDao.getPet(username, id);
             if (pet != null)
                 return new ResponseEntity<Pet>(pet,HttpStatus.OK);
             else
@@ -191,25 +258,4 @@ public class BasketController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
-
-
-    /**
-     * Responds to the GET request for all {@linkplain Pet pets}
-     * 
-     * @return ResponseEntity with array of {@link Pet pet} objects (may be empty) and
-     * HTTP status of OK<br>
-     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
-     */
-    @GetMapping("")
-    public ResponseEntity<Pet[]> getPets() {
-        LOG.info("GET /pets");
-        try{
-            Pet[] pets = basketDao.getPets();
-            return new ResponseEntity<Pet[]>(pets,HttpStatus.OK);
-        }
-        catch(IOException e) {
-            LOG.log(Level.SEVERE,e.getLocalizedMessage());
-            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
-        }
-    }
 }
@@ -0,0 +1,138 @@
+package com.ufund.api.ufundapi.controller;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.zip.GZIPOutputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * The body of the catalog response of one catalog version, serialized once
+ * <br>
+ * Holds the JSON bytes, their gzip compressed copy and an entity tag for
+ * each, so every request for an unchanged catalog is answered by writing a
+ * ready buffer, or with no body at all when the client already has it. The
+ * two bodies differ byte for byte, so the gzip one is tagged apart with a
+ * {@code -gz} suffix.
+ *
+ * @author Group E
+ */
+final class CatalogResponse {
+    private final long version;
+    private final String etag;
+    private final String gzipEtag;
+    private final byte[] json;
+    private final byte[] gzip;
+
+    /**
+     * Serializes the catalog of a version
+     *
+     * @param version The catalog version the {@link Pet pets} belong to
+     * @param epoch Tells apart the versions of different runs of the application,
+     * which start from the clock but can repeat those of an earlier run that
+     * changed the catalog faster than the clock or ran with a clock set ahead
+     * @param pets The {@link Pet pets} of the catalog
+     * @param objectMapper Converts the {@link Pet pets} to JSON
+     *
+     * @throws IOException when the {@link Pet pets} cannot be serialized
+     */
+    CatalogResponse(long version, String epoch, Pet[] pets, ObjectMapper objectMapper) throws IOException {
+        this.version = version;
+        this.etag = "\"" + epoch + "-" + version + "\"";
+        this.gzipEtag = "\"" + epoch + "-" + version + "-gz\"";
+        this.json = objectMapper.writeValueAsBytes(pets);
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(json);
+        }
+        this.gzip = compressed.toByteArray();
+    }
+
+    /**
+     * Retrieves the catalog version the body was serialized from
+     *
+     * @return The version
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Retrieves the entity tag of one body of the catalog version
+     *
+     * @param gzipped true for the tag of the gzip compressed body
+     *
+     * @return The quoted tag
+     */
+    String etag(boolean gzipped) {
+        return gzipped ? gzipEtag : etag;
+    }
+
+    /**
+     * Retrieves the body
+     *
+     * @param gzipped true for the gzip compressed body
+     *
+     * @return The shared bytes, must not be modified
+     */
+    byte[] body(boolean gzipped) {
+        return gzipped ? gzip : json;
+    }
+
+    /**
+     * Checks whether an If-None-Match header names one body of this version
+     *
+     * @param ifNoneMatch The header value, a list of entity tags or {@code *}, may be null
+     * @param gzipped true to check for the gzip compressed body
+     *
+     * @return true if the client already holds that body
+     */
+    boolean matches(String ifNoneMatch, boolean gzipped) {
+        String etag = etag(gzipped);
+        if (ifNoneMatch == null)
+            return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/"))
+                tag = tag.substring(2);  // weak comparison, the body is the same either way
+            if (tag.equals("*") || tag.equals(etag))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether an Accept-Encoding header allows gzip
+     *
+     * @param acceptEncoding The header value, may be null
+     *
+     * @return true unless gzip is missing or refused with a quality of zero
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null)
+            return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip"))
+                continue;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") && isZero(parameter.substring(2)))
+                    return false;
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean isZero(String quality) {
+        try {
+            return Double.parseDouble(quality) == 0;
+        }
+        catch (NumberFormatException e) {
+            return false;   // a malformed quality does not refuse the coding
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.ufund.api.ufundapi.controller;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.ufund.api.ufundapi.model.User;
+import com.ufund.api.ufundapi.persistence.UserDAO;
+
+/**
+ * Pushes the notifications of each {@linkplain User user} to the event streams the user has open
+ * <br>
+ * A stream is an asynchronous response that stays open, so an idle stream
+ * holds no request thread, only its emitter and a slot in the array of its
+ * user. Notifications are sent to the streams of their user alone. A stream
+ * that fails to take an event is dropped, and a heartbeat comment sent to
+ * every stream at a fixed rate finds the clients that went away without
+ * closing the connection and keeps proxies from closing idle ones.
+ * <br>
+ * A new stream holds its notifications back until its inbox is sent. From
+ * then on it skips the ones numbered up to the sequence of the inbox, which
+ * the inbox already holds, so no notification is sent twice or lost.
+ *
+ * @author Group E
+ */
+final class NotificationHub implements UserDAO.NotificationListener, Closeable {
+    private static final Stream[] NONE = {};
+
+    private final Map<String,Stream[]> streams = new ConcurrentHashMap<>();
+                                            // Open streams of each username, replaced on every change
+    private final long timeout;             // Milliseconds a stream stays open, 0 for no limit
+    private final ScheduledExecutorService heartbeat;   // Sends the heartbeats, null without them
+
+    /**
+     * Creates a hub
+     *
+     * @param timeout Milliseconds a stream stays open before the client has to reconnect, 0 for no limit
+     * @param heartbeatMillis Milliseconds between two heartbeats, 0 to send none
+     */
+    NotificationHub(long timeout, long heartbeatMillis) {
+        this.timeout = Math.max(0, timeout);
+        if (heartbeatMillis > 0) {
+            heartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "notification-heartbeat");
+                thread.setDaemon(true);
+                return thread;
+            });
+            heartbeat.scheduleAtFixedRate(this::heartbeat, heartbeatMillis, heartbeatMillis, TimeUnit.MILLISECONDS);
+        }
+        else {
+            heartbeat = null;
+        }
+    }
+
+    /**
+     * Opens a stream for a user
+     *
+     * @param username The username of the {@link User user}
+     *
+     * @return The emitter of the stream, already registered
+     */
+    SseEmitter subscribe(String username) {
+        SseEmitter emitter = new SseEmitter(timeout);
+        add(username, emitter);
+        return emitter;
+    }
+
+    /**
+     * Registers the stream of a user and drops it again once it is closed
+     * <br>
+     * Notifications are held back until {@link #sendInbox(String, SseEmitter, UserDAO.Inbox) sendInbox}
+     *
+     * @param username The username of the {@link User user}
+     * @param emitter The emitter of the stream
+     */
+    void add(String username, SseEmitter emitter) {
+        Stream stream = new Stream(emitter);
+        streams.merge(username, new Stream[]{stream}, (current, added) -> {
+            Stream[] next = Arrays.copyOf(current, current.length + 1);
+            next[current.length] = stream;
+            return next;
+        });
+        emitter.onCompletion(() -> remove(username, emitter));
+        emitter.onTimeout(() -> remove(username, emitter));
+        emitter.onError(e -> remove(username, emitter));
+    }
+
+    /**
+     * Drops the stream of a user
+     *
+     * @param username The username of the {@link User user}
+     * @param emitter The emitter of the stream
+     */
+    void remove(String username, SseEmitter emitter) {
+        streams.computeIfPresent(username, (key, current) -> {
+            int at = indexOf(current, emitter);
+            if (at < 0)
+                return current;
+            if (current.length == 1)
+                return null;
+            Stream[] next = new Stream[current.length - 1];
+            System.arraycopy(current, 0, next, 0, at);
+            System.arraycopy(current, at + 1, next, at, next.length - at);
+            return next;
+        });
+    }
+
+    /**
+     * Sends the whole inbox of a user to one of the streams, as its first event
+     * <br>
+     * The notifications held back meanwhile follow, unless the inbox already holds them
+     *
+     * @param username The username of the {@link User user}
+     * @param emitter The emitter of the stream
+     * @param inbox The notifications of the {@link User user} and their sequence
+     *
+     * @return true if the events were sent, false if the stream was dropped
+     */
+    boolean sendInbox(String username, SseEmitter emitter, UserDAO.Inbox inbox) {
+        Stream[] current = streams.getOrDefault(username, NONE);
+        int at = indexOf(current, emitter);
+        if (at < 0)
+            return send(username, emitter, inboxEvent(inbox));
+        Stream stream = current[at];
+        synchronized(stream) {
+            if (!send(username, emitter, inboxEvent(inbox)))
+                return false;
+            stream.delivered = inbox.getSequence();
+            List<Held> held = stream.held;
+            stream.held = null;
+            for (Held notification : held) {
+                if (notification.sequence > stream.delivered
+                    && !send(username, emitter, notificationEvent(notification.message)))
+                    return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Sends a new notification to every stream of its user that does not hold it yet
+     * <br>
+     * {@inheritDoc}
+     */
+    @Override
+    public void notified(String username, String message, long sequence) {
+        Stream[] current = streams.getOrDefault(username, NONE);
+        for (Stream stream : current) {
+            synchronized(stream) {
+                if (stream.held != null)
+                    stream.held.add(new Held(message, sequence));  // sent or skipped with the inbox
+                else if (sequence > stream.delivered)
+                    send(username, stream.emitter, notificationEvent(message));
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of open streams
+     *
+     * @return The streams of every user
+     */
+    int connections() {
+        int connections = 0;
+        for (Stream[] current : streams.values())
+            connections += current.length;
+        return connections;
+    }
+
+    /**
+     * Sends a comment to every stream, dropping the ones whose client went away
+     */
+    void heartbeat() {
+        for (Map.Entry<String,Stream[]> entry : streams.entrySet()) {
+            for (Stream stream : entry.getValue())
+                send(entry.getKey(), stream.emitter, SseEmitter.event().comment(""));
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder inboxEvent(UserDAO.Inbox inbox) {
+        return SseEmitter.event().name("inbox").data(inbox.getNotifications());
+    }
+
+    private static SseEmitter.SseEventBuilder notificationEvent(String message) {
+        return SseEmitter.event().name("notification").data(message);
+    }
+
+    private static int indexOf(Stream[] current, SseEmitter emitter) {
+        for (int i = 0; i < current.length; i++) {
+            if (current[i].emitter == emitter)
+                return i;
+        }
+        return -1;
+    }
+
+    private boolean send(String username, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+            return true;
+        }
+        catch (IOException | IllegalStateException e) {
+            // The client is gone or the stream already completed, the container closes the response
+            remove(username, emitter);
+            return false;
+        }
+    }
+
+    /**
+     * Stops the heartbeats and closes every stream
+     */
+    @Override
+    public void close() {
+        if (heartbeat != null)
+            heartbeat.shutdownNow();
+        for (Stream[] current : streams.values()) {
+            for (Stream stream : current)
+                stream.emitter.complete();
+        }
+        streams.clear();
+    }
+
+    /**
+     * An open stream and how far its client got, guarded by its own lock
+     */
+    private static final class Stream {
+        final SseEmitter emitter;
+        List<Held> held = new ArrayList<>();    // Notifications waiting for the inbox, null once it was sent
+        long delivered;                         // Sequence of the inbox, the notifications up to it are skipped
+
+        Stream(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+    }
+
+    /**
+     * A notification that arrived before the inbox of its stream was sent
+     */
+    private static final class Held {
+        final String message;
+        final long sequence;
+
+        Held(String message, long sequence) {
+            this.message = message;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -1,6 +1,9 @@
 package com.ufund.api.ufundapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,16 +11,21 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.logging.Level; 
 import java.util.logging.Logger;
  
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.ufund.api.ufundapi.persistence.PetDAO;
 import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.PetChanges;
 
 /**
  * Handles the REST API requests for the Pet resource
@@ -32,17 +40,34 @@ import com.ufund.api.ufundapi.model.Pet;
 @RequestMapping("pets")
 public class PetController {
     private static final Logger LOG = Logger.getLogger(PetController.class.getName());
+    private static final int MAX_PAGE = 1000;  // Most pets a page may hold
     private PetDAO petDao;
+    private ObjectMapper objectMapper;          // Serializes the catalog response
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);    // Sets the entity tags of this
+                                                                                    // run apart from earlier runs
+    private volatile CatalogResponse catalog;   // Serialized catalog of the last version requested
 
     /**
      * Creates a REST API controller to reponds to requests
      * 
      * @param petDao The {@link petDAO Pet Data Access Object} to perform CRUD operations
-     * <br>
-     * This dependency is injected by the Spring Framework
      */
     public PetController(PetDAO petDao) {
+        this(petDao, new ObjectMapper());
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param petDao The {@link petDAO Pet Data Access Object} to perform CRUD operations
+     * @param objectMapper Serializes the catalog served by {@link #getCatalog(String, String) getCatalog}
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public PetController(PetDAO petDao, ObjectMapper objectMapper) {
         this.petDao = petDao;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -71,13 +96,80 @@ public class PetController {
     }
 
     /**
-     * Responds to the GET request for all {@linkplain Pet pets}
+     * Responds to the GET request for all {@linkplain Pet pets} with the serialized catalog
+     * <br>
+     * The catalog is serialized once per catalog version, plain and gzip
+     * compressed, and each body is tagged with the version and its coding. A
+     * client that sends the tag of the body it would get back gets an empty
+     * NOT_MODIFIED response
+     * 
+     * @param ifNoneMatch The entity tags the client holds, may be null
+     * @param acceptEncoding The content codings the client accepts, may be null
+     * 
+     * @return ResponseEntity with the JSON array of {@link Pet pet} objects (may be empty),
+     * its entity tag and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of NOT_MODIFIED if the client holds the current version<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping(value = "", params = "!limit")
+    public ResponseEntity<byte[]> getCatalog(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+                                             @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        LOG.info("GET /pets");
+        try{
+            CatalogResponse response = catalogResponse();
+            boolean gzipped = CatalogResponse.acceptsGzip(acceptEncoding);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setETag(response.etag(gzipped));
+            headers.setCacheControl("no-cache");    // clients keep the catalog but check the tag first
+            headers.setVary(Collections.singletonList(HttpHeaders.ACCEPT_ENCODING));
+            if (response.matches(ifNoneMatch, gzipped))
+                return new ResponseEntity<>(headers,HttpStatus.NOT_MODIFIED);
+
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            if (gzipped)
+                headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+            return new ResponseEntity<byte[]>(response.body(gzipped),headers,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Retrieves the serialized catalog of the current version, serializing it if the version changed
+     * <br>
+     * Only the version is read to find the catalog unchanged. A new one is
+     * serialized from the version and the pets of the same catalog, so a
+     * response is always tagged with the version of its content
+     */
+    private CatalogResponse catalogResponse() throws IOException {
+        long version = petDao.getVersion();
+        CatalogResponse response = catalog;
+        if (response != null && response.version() == version)
+            return response;
+        synchronized(this) {
+            response = catalog;
+            if (response != null && response.version() == version)
+                return response;   // serialized by a concurrent request
+            PetChanges current = petDao.getCatalog();
+            response = new CatalogResponse(current.getVersion(), epoch, current.getPets(), objectMapper);
+            if (catalog == null || catalog.version() < response.version())
+                catalog = response;
+            return response;
+        }
+    }
+
+    /**
+     * Retrieves all {@linkplain Pet pets}
+     * <br>
+     * The GET request for all pets is answered by {@link #getCatalog(String, String) getCatalog},
+     * which serves the same pets serialized ahead of time
      * 
      * @return ResponseEntity with array of {@link Pet pet} objects (may be empty) and
      * HTTP status of OK<br>
      * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
      */
-    @GetMapping("")
     public ResponseEntity<Pet[]> getPets() {
         LOG.info("GET /pets");
         try{
@@ -90,6 +182,67 @@ public class PetController {
         }
     }
 
+    /**
+     * Responds to the GET request for a page of {@linkplain Pet pets}
+     * <br>
+     * Pages are in id order. The next page is requested with the id of the last
+     * {@link Pet pet} of this one as after, a page shorter than limit is the last one
+     * 
+     * @param limit The maximum number of {@link Pet pets} on the page, at most {@value #MAX_PAGE}
+     * @param after The id the page starts behind, the first page when missing
+     * 
+     * @return ResponseEntity with array of {@link Pet pet} objects (may be empty) and
+     * HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if limit is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Get the 50 pets following the pet with id 120
+     * GET http://localhost:8080/pets?limit=50&after=120
+     */
+    @GetMapping(value = "", params = "limit")
+    public ResponseEntity<Pet[]> getPets(@RequestParam int limit, @RequestParam(required = false) Integer after) {
+        LOG.info("GET /pets?limit=" + limit + "&after=" + after);
+        if (limit < 1)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try{
+            Pet[] pets = petDao.getPets(after == null ? Integer.MIN_VALUE : after, Math.min(limit, MAX_PAGE));
+            return new ResponseEntity<Pet[]>(pets,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Responds to the GET request for the changes of the catalog since a version
+     * <br>
+     * A client keeps the {@link Pet pets} and the version of its last response
+     * and sends that version as since, so it only receives what changed in
+     * between. Without a version, or with one too old for the change log,
+     * the response is a full resync holding every available pet
+     * 
+     * @param since The catalog version the client holds, a full resync when missing
+     * 
+     * @return ResponseEntity with the {@link PetChanges changes} and HTTP status of OK<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Get the pets changed since the version the client holds
+     * GET http://localhost:8080/pets/changes?since=1760000000000042
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<PetChanges> getChanges(@RequestParam(required = false) Long since) {
+        LOG.info("GET /pets/changes?since=" + since);
+        try{
+            PetChanges changes = petDao.getChanges(since == null ? -1 : since);
+            return new ResponseEntity<PetChanges>(changes,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Responds to the GET request for all {@linkplain Pet pets} whose name contains
      * the text in name
@@ -165,6 +318,27 @@ public class PetController {
         }
     }
 
+    /**
+     * Creates a batch of {@linkplain Pet pets} with one id allocation and one save
+     * 
+     * @param pets - The {@link Pet pets} to create
+     * 
+     * @return ResponseEntity with the created {@link Pet pets} and HTTP status of CREATED<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<Pet[]> createPets(@RequestBody Pet[] pets) {
+        LOG.info("POST /pets/batch " + pets.length);
+        try{
+            Pet[] newPets = petDao.createPets(pets);
+            return new ResponseEntity<Pet[]>(newPets,HttpStatus.CREATED);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
     /**
      * Updates the {@linkplain Pet pet} with the provided {@linkplain Pet pet} object, if it exists
      * 
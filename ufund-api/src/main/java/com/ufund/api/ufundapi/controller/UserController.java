@@ -1,6 +1,9 @@
 package com.ufund.api.ufundapi.controller;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -8,11 +11,15 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.io.IOException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
  
 
 import com.ufund.api.ufundapi.persistence.UserDAO;
@@ -32,17 +39,45 @@ import com.ufund.api.ufundapi.model.User;
 @RequestMapping("users")
 public class UserController {
     private static final Logger LOG = Logger.getLogger(UserController.class.getName());
+    private static final int MAX_PAGE = 1000;  // Most users a page may hold
     private UserDAO userDao;
+    private NotificationHub hub;    // Open notification streams of every user
 
     /**
      * Creates a REST API controller to reponds to requests
+     * <br>
+     * Notification streams stay open until the client closes them and get no heartbeats
      * 
      * @param userDao The {@link userDAO User Data Access Object} to perform CRUD operations
-     * <br>
-     * This dependency is injected by the Spring Framework
      */
     public UserController(UserDAO userDao) {
+        this(userDao, 0, 0);
+    }
+
+    /**
+     * Creates a REST API controller to reponds to requests
+     * 
+     * @param userDao The {@link userDAO User Data Access Object} to perform CRUD operations
+     * @param streamTimeout Milliseconds a notification stream stays open before
+     * the client reconnects, 0 for no limit
+     * @param heartbeatMillis Milliseconds between two heartbeats on the notification streams, 0 for none
+     * <br>
+     * These dependencies are injected by the Spring Framework
+     */
+    @Autowired
+    public UserController(UserDAO userDao, @Value("${notifications.stream.timeout:1800000}") long streamTimeout,
+                          @Value("${notifications.heartbeat:25000}") long heartbeatMillis) {
         this.userDao = userDao;
+        this.hub = new NotificationHub(streamTimeout, heartbeatMillis);
+        userDao.addNotificationListener(hub);
+    }
+
+    /**
+     * Closes every notification stream on shutdown
+     */
+    @PreDestroy
+    public void close() {
+        hub.close();
     }
 
     /**
@@ -70,6 +105,54 @@ public class UserController {
         }
     }
 
+    /**
+     * Responds to the GET request for the notification stream of a {@linkplain User user}
+     * <br>
+     * The response is a stream of server-sent events that stays open. Its first
+     * event, {@code inbox}, holds every notification of the user, each later
+     * {@code notification} event one new notification once it is written. A
+     * client that lost the stream reconnects and gets the whole inbox again
+     * 
+     * @param username The username used to locate the {@link User user}
+     * 
+     * @return ResponseEntity with the event stream and HTTP status of OK if found<br>
+     * ResponseEntity with HTTP status of NOT_FOUND if not found<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     * <p>
+     * Example: Follow the notifications of admin
+     * GET http://localhost:8080/users/notifications/admin/stream
+     */
+    @GetMapping(value = "/notifications/{username}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUserNotifications(@PathVariable String username) {
+        LOG.info("GET /users/notifications/" + username + "/stream");
+        // Registered before the inbox is read, so no notification is lost. The ones
+        // arriving meanwhile are held back and those the inbox holds are skipped
+        SseEmitter emitter = hub.subscribe(username);
+        try {
+            UserDAO.Inbox inbox = userDao.getInbox(username);
+            if (inbox == null) {
+                hub.remove(username, emitter);
+                return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+            }
+            hub.sendInbox(username, emitter, inbox);
+            return new ResponseEntity<SseEmitter>(emitter,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            hub.remove(username, emitter);
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    /**
+     * Retrieves the number of open notification streams
+     * 
+     * @return The streams of every user
+     */
+    int notificationStreams() {
+        return hub.connections();
+    }
+
     /**
      * Responds to the GET request for the notifications of a {@linkplain User user}
      * 
@@ -140,6 +223,36 @@ public class UserController {
             return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
         }
     }
+
+    /**
+     * Responds to the GET request for a page of {@linkplain User users}
+     * <br>
+     * Pages are in username order. The next page is requested with the username
+     * of the last {@link User user} of this one as after, a page shorter than
+     * limit is the last one
+     * 
+     * @param limit The maximum number of {@link User users} on the page, at most {@value #MAX_PAGE}
+     * @param after The username the page starts behind, the first page when missing
+     * 
+     * @return ResponseEntity with array of {@link User user} objects (may be empty) and
+     * HTTP status of OK<br>
+     * ResponseEntity with HTTP status of BAD_REQUEST if limit is not positive<br>
+     * ResponseEntity with HTTP status of INTERNAL_SERVER_ERROR otherwise
+     */
+    @GetMapping(value = "", params = "limit")
+    public ResponseEntity<User[]> getUsers(@RequestParam int limit, @RequestParam(required = false) String after) {
+        LOG.info("GET /users?limit=" + limit + "&after=" + after);
+        if (limit < 1)
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        try{
+            User[] users = userDao.getUsers(after, Math.min(limit, MAX_PAGE));
+            return new ResponseEntity<User[]>(users,HttpStatus.OK);
+        }
+        catch(IOException e) {
+            LOG.log(Level.SEVERE,e.getLocalizedMessage());
+            return new ResponseEntity<>(HttpStatus.INTERNAL_SERVER_ERROR);
+        }
+    }
     
 
     /**
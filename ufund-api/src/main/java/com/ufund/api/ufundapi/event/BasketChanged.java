@@ -0,0 +1,61 @@
+package com.ufund.api.ufundapi.event;
+
+/**
+ * Published once a change to the basket of a user is written
+ *
+ * @author Group E
+ */
+public final class BasketChanged {
+    /**
+     * How the basket changed
+     */
+    public enum Change {
+        ADDED,      // The user put the pet in the basket
+        REMOVED,    // The user took the pet out of the basket
+        ADOPTED,    // The user adopted the pet from the basket
+        DROPPED     // The pet left the catalog and with it the basket
+    }
+
+    private final String username;
+    private final int petId;
+    private final Change change;
+
+    /**
+     * Creates the event of a basket change
+     *
+     * @param username The username of the basket owner
+     * @param petId The id of the pet that came or went
+     * @param change How the basket changed
+     */
+    public BasketChanged(String username, int petId, Change change) {
+        this.username = username;
+        this.petId = petId;
+        this.change = change;
+    }
+
+    /**
+     * Retrieves the username of the basket owner
+     * @return The username
+     */
+    public String getUsername() {return username;}
+
+    /**
+     * Retrieves the id of the pet that came or went
+     * @return The pet id
+     */
+    public int getPetId() {return petId;}
+
+    /**
+     * Retrieves how the basket changed
+     * @return The change
+     */
+    public Change getChange() {return change;}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "BasketChanged [username=" + username + ", petId=" + petId + ", change=" + change + "]";
+    }
+}
@@ -0,0 +1,187 @@
+package com.ufund.api.ufundapi.event;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hands events to their handlers on worker threads
+ * <br>
+ * Publishing puts the event in a bounded {@link EventRing ring} and returns,
+ * so the work of the handlers stays off the publisher's path. The workers
+ * take the events in publishing order and call the handlers subscribed to
+ * the class of each event, in subscription order. Events of different
+ * workers may be handled at the same time. When the ring is full the
+ * publisher handles its event itself, which slows it down to the pace of the
+ * workers instead of losing the event. Without workers, every event is
+ * handled by the publisher.
+ * <br>
+ * A handler that fails is logged and does not affect the other handlers.
+ *
+ * {@literal @}Component Spring annotation instantiates a single instance of this
+ * class and injects the instance into other classes as needed
+ *
+ * @author Group E
+ */
+@Component
+public class EventBus {
+    private static final Logger LOG = Logger.getLogger(EventBus.class.getName());
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);  // Longest sleep of an idle worker
+    private static final long CLOSE_MILLIS = 5000;  // Time given to the workers to finish on close
+
+    /**
+     * Handles the events of one class
+     *
+     * @param <E> The class of event
+     */
+    public interface Handler<E> {
+        /**
+         * Called once for every event published
+         *
+         * @param event The event
+         *
+         * @throws IOException when the handler cannot persist its own changes
+         */
+        void handle(E event) throws IOException;
+    }
+
+    private final Map<Class<?>,List<Handler<Object>>> handlers = new ConcurrentHashMap<>();
+    private final EventRing ring;       // Events not yet taken by a worker, null without workers
+    private final Thread[] workers;
+    private final AtomicInteger parked = new AtomicInteger();   // Workers sleeping or about to
+    private volatile boolean closed;
+
+    /**
+     * Creates a bus without workers, every event is handled by its publisher
+     */
+    public EventBus() {
+        this(0, 1);
+    }
+
+    /**
+     * Creates a bus
+     *
+     * @param workers The number of worker threads, 0 to handle every event on its publisher
+     * @param capacity The number of events waiting for a worker before publishers handle them themselves
+     */
+    @Autowired
+    public EventBus(@Value("${events.workers:2}") int workers, @Value("${events.capacity:4096}") int capacity) {
+        this.ring = workers > 0 ? new EventRing(capacity) : null;
+        this.workers = new Thread[Math.max(0, workers)];
+        for (int i = 0; i < this.workers.length; i++) {
+            this.workers[i] = new Thread(this::work, "event-worker-" + i);
+            this.workers[i].setDaemon(true);
+            this.workers[i].start();
+        }
+    }
+
+    /**
+     * Subscribes a handler to the events of a class
+     *
+     * @param <E> The class of event
+     * @param type The class of event, events of subclasses are not handed over
+     * @param handler The handler
+     */
+    @SuppressWarnings("unchecked")
+    public <E> void subscribe(Class<E> type, Handler<? super E> handler) {
+        handlers.computeIfAbsent(type, key -> new CopyOnWriteArrayList<>()).add((Handler<Object>) handler);
+    }
+
+    /**
+     * Publishes an event to the handlers subscribed to its class
+     * <br>
+     * Returns as soon as a worker can take the event, an event nobody is
+     * subscribed to is dropped right away
+     *
+     * @param event The event, not null
+     */
+    public void publish(Object event) {
+        if (!handlers.containsKey(event.getClass()))
+            return;
+        if (ring == null || closed || !ring.offer(event)) {
+            dispatch(event);    // no worker to take it, or the ring is full
+            return;
+        }
+        if (parked.get() > 0) {
+            for (Thread worker : workers)
+                LockSupport.unpark(worker);
+        }
+        if (closed)
+            drain();    // the workers may have finished before the event went in
+    }
+
+    /**
+     * Stops the workers once they have handled the events already published
+     * <br>
+     * Events published afterwards are handled by their publisher
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        for (Thread worker : workers)
+            LockSupport.unpark(worker);
+        long deadline = System.currentTimeMillis() + CLOSE_MILLIS;
+        try {
+            for (Thread worker : workers)
+                worker.join(Math.max(1, deadline - System.currentTimeMillis()));
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (ring != null)
+            drain();
+    }
+
+    private void work() {
+        while (true) {
+            Object event = ring.poll();
+            if (event != null) {
+                dispatch(event);
+                continue;
+            }
+            if (closed)
+                return;
+            // Counted before the last look at the ring, so a publisher either
+            // sees this worker parked or the worker sees the event
+            parked.incrementAndGet();
+            event = ring.poll();
+            if (event == null && !closed)
+                LockSupport.parkNanos(this, PARK_NANOS);
+            parked.decrementAndGet();
+            if (event != null)
+                dispatch(event);
+        }
+    }
+
+    private void drain() {
+        for (Object event; (event = ring.poll()) != null; )
+            dispatch(event);
+    }
+
+    private void dispatch(Object event) {
+        List<Handler<Object>> subscribed = handlers.get(event.getClass());
+        if (subscribed == null)
+            return;
+        for (Handler<Object> handler : subscribed) {
+            try {
+                handler.handle(event);
+            }
+            catch (IOException | RuntimeException e) {
+                LOG.log(Level.SEVERE, "Handling " + event + " failed", e);
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ufund.api.ufundapi.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded ring of events that any number of threads add to and take from without locks
+ * <br>
+ * Every slot carries a sequence number telling whether it is free for the
+ * producer at a given position or filled for the consumer at that position.
+ * Producers and consumers claim positions with a compare-and-set on their own
+ * counter and then only touch the slot they claimed, so they never wait for
+ * each other unless the ring is full or empty.
+ *
+ * @author Group E
+ */
+final class EventRing {
+    private final Object[] events;
+    private final AtomicLongArray sequences;    // Position each slot is ready for
+    private final int mask;                     // Capacity minus one, the capacity is a power of two
+    private final AtomicLong tail = new AtomicLong();   // Next position to add at
+    private final AtomicLong head = new AtomicLong();   // Next position to take from
+
+    /**
+     * Creates an empty ring
+     *
+     * @param capacity The number of events held at least, rounded up to a power of two of at least two
+     *
+     * @throws IllegalArgumentException when the capacity is not positive or too large
+     */
+    EventRing(int capacity) {
+        if (capacity < 1 || capacity > 1 << 30)
+            throw new IllegalArgumentException("Ring capacity must be between 1 and 2^30, was " + capacity);
+        // At least two slots, with one the sequence of a freed slot would read as filled
+        int size = Math.max(2, Integer.highestOneBit(capacity));
+        if (size < capacity)
+            size <<= 1;
+        events = new Object[size];
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++)
+            sequences.set(i, i);
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an event unless the ring is full
+     *
+     * @param event The event, not null
+     *
+     * @return true if the event was added, false if the ring is full
+     */
+    boolean offer(Object event) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long lag = sequences.get(slot) - position;
+            if (lag == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    events[slot] = event;
+                    sequences.set(slot, position + 1);  // publishes the event to consumers
+                    return true;
+                }
+                position = tail.get();
+            }
+            else if (lag < 0) {
+                return false;   // the slot still holds the event of the previous lap
+            }
+            else {
+                position = tail.get();  // another producer took this position
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest event
+     *
+     * @return The event, null if the ring is empty
+     */
+    Object poll() {
+        long position = head.get();
+        while (true) {
+            int slot = (int) (position & mask);
+            long lag = sequences.get(slot) - (position + 1);
+            if (lag == 0) {
+                if (head.compareAndSet(position, position + 1)) {
+                    Object event = events[slot];
+                    events[slot] = null;
+                    sequences.set(slot, position + mask + 1);   // frees the slot for the next lap
+                    return event;
+                }
+                position = head.get();
+            }
+            else if (lag < 0) {
+                return null;    // the producer of this position has not finished
+            }
+            else {
+                position = head.get();  // another consumer took this position
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of events the ring holds at most
+     *
+     * @return The capacity, a power of two
+     */
+    int capacity() {
+        return events.length;
+    }
+}
@@ -0,0 +1,58 @@
+package com.ufund.api.ufundapi.event;
+
+import java.util.Arrays;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Published once an adoption is written
+ * <br>
+ * By then the {@linkplain Pet pet} is in the adopter's adopted pets and out of
+ * every basket that held it
+ *
+ * @author Group E
+ */
+public final class PetAdopted {
+    private final String username;
+    private final Pet pet;
+    private final String[] droppedFrom;
+
+    /**
+     * Creates the event of an adoption
+     *
+     * @param username The username of the adopter
+     * @param pet The adopted {@link Pet pet}
+     * @param droppedFrom The usernames whose baskets lost the pet to the adoption
+     */
+    public PetAdopted(String username, Pet pet, String[] droppedFrom) {
+        this.username = username;
+        this.pet = pet;
+        this.droppedFrom = droppedFrom;
+    }
+
+    /**
+     * Retrieves the username of the adopter
+     * @return The username
+     */
+    public String getUsername() {return username;}
+
+    /**
+     * Retrieves the adopted pet
+     * @return The {@link Pet pet}
+     */
+    public Pet getPet() {return pet;}
+
+    /**
+     * Retrieves the usernames whose baskets lost the pet to the adoption
+     * @return The usernames, may be empty, must not be modified
+     */
+    public String[] getDroppedFrom() {return droppedFrom;}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "PetAdopted [username=" + username + ", pet=" + pet + ", droppedFrom=" + Arrays.toString(droppedFrom) + "]";
+    }
+}
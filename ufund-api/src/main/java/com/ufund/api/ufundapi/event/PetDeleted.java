@@ -0,0 +1,35 @@
+package com.ufund.api.ufundapi.event;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Published once a {@linkplain Pet pet} left the catalog, by adoption or by deletion
+ *
+ * @author Group E
+ */
+public final class PetDeleted {
+    private final Pet pet;
+
+    /**
+     * Creates the event of a removal from the catalog
+     *
+     * @param pet The {@link Pet pet} that is no longer available
+     */
+    public PetDeleted(Pet pet) {
+        this.pet = pet;
+    }
+
+    /**
+     * Retrieves the pet that left the catalog
+     * @return The {@link Pet pet}
+     */
+    public Pet getPet() {return pet;}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "PetDeleted [pet=" + pet + "]";
+    }
+}
@@ -0,0 +1,166 @@
+package com.ufund.api.ufundapi.model;
+
+import java.util.Arrays;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+
+/**
+ * Represents a set of pet ids
+ * <br>
+ * The ids are kept in a sorted primitive array, so membership is a binary
+ * search and adds and removes shift the tail of the array in place instead of
+ * copying the whole set. The array handed out by {@link #toArray()} is shared
+ * until the next change, which copies it first, so callers never see it move
+ * under them.
+ * <br>
+ * The set is written to and read from JSON as a plain array of numbers
+ *
+ * @author Group E
+ */
+public final class IntSet {
+    private static final int[] EMPTY = {};
+
+    private int[] elements;     // Sorted ids, only the first size are in use
+    private int size;           // Number of ids in the set
+    private boolean shared;     // True once elements was handed out by toArray
+
+    private IntSet(int[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    /**
+     * Creates a set of the given ids
+     * <br>
+     * An array that is already sorted without duplicates becomes the storage
+     * of the set, anything else is copied first
+     *
+     * @param ids The ids, may be null or unordered
+     *
+     * @return The set of ids
+     */
+    @JsonCreator
+    public static IntSet of(int... ids) {
+        if (ids == null || ids.length == 0)
+            return new IntSet(EMPTY, 0);
+        if (isStrictlySorted(ids)) {
+            IntSet set = new IntSet(ids, ids.length);
+            set.shared = true;
+            return set;
+        }
+        int[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size-1])
+                sorted[size++] = sorted[i];
+        }
+        return new IntSet(sorted, size);
+    }
+
+    private static boolean isStrictlySorted(int[] ids) {
+        for (int i = 1; i < ids.length; i++) {
+            if (ids[i-1] >= ids[i])
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether an id is in the set
+     *
+     * @param id The id to look for
+     *
+     * @return true if the id is in the set
+     */
+    public synchronized boolean contains(int id) {
+        return Arrays.binarySearch(elements, 0, size, id) >= 0;
+    }
+
+    /**
+     * Adds an id to the set
+     *
+     * @param id The id to add
+     *
+     * @return true if the id was added, false if it was already in the set
+     */
+    public synchronized boolean add(int id) {
+        int index = Arrays.binarySearch(elements, 0, size, id);
+        if (index >= 0)
+            return false;
+        index = -index - 1;
+        if (shared || size == elements.length) {
+            // Grow by half so a run of adds does not copy every time
+            int[] next = new int[Math.max(4, size + (size >> 1) + 1)];
+            System.arraycopy(elements, 0, next, 0, index);
+            System.arraycopy(elements, index, next, index + 1, size - index);
+            elements = next;
+            shared = false;
+        }
+        else {
+            System.arraycopy(elements, index, elements, index + 1, size - index);
+        }
+        elements[index] = id;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes an id from the set
+     *
+     * @param id The id to remove
+     *
+     * @return true if the id was removed, false if it was not in the set
+     */
+    public synchronized boolean remove(int id) {
+        int index = Arrays.binarySearch(elements, 0, size, id);
+        if (index < 0)
+            return false;
+        if (shared) {
+            int[] next = new int[elements.length];
+            System.arraycopy(elements, 0, next, 0, index);
+            System.arraycopy(elements, index + 1, next, index, size - index - 1);
+            elements = next;
+            shared = false;
+        }
+        else {
+            System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+        }
+        size--;
+        return true;
+    }
+
+    /**
+     * Retrieves the number of ids in the set
+     *
+     * @return The number of ids
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Retrieves the ids in ascending order
+     * <br>
+     * The returned array must not be modified, it is shared with the set
+     * until the set next changes
+     *
+     * @return The ids, may be empty
+     */
+    @JsonValue
+    public synchronized int[] toArray() {
+        if (size != elements.length)
+            elements = Arrays.copyOf(elements, size);
+        shared = true;
+        return elements;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(toArray());
+    }
+}
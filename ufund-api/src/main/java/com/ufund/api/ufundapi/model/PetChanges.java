@@ -0,0 +1,62 @@
+package com.ufund.api.ufundapi.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * Represents the changes of the pet catalog since a version a client holds
+ * <br>
+ * A delta lists the pets created or updated since that version and the ids of
+ * the pets that left the catalog. A full resync lists every pet of the catalog
+ * instead and the client drops whatever it held before.
+ *
+ * @author Group E
+ */
+public class PetChanges {
+
+    @JsonProperty("version") private long version;
+    @JsonProperty("full") private boolean full;
+    @JsonProperty("pets") private Pet[] pets;
+    @JsonProperty("removed") private int[] removed;
+
+    /**
+     * Create the changes that bring a client to the given version
+     * @param version The catalog version the client holds afterwards
+     * @param full True if pets is the whole catalog rather than a delta
+     * @param pets The pets created or updated, or every pet for a full resync
+     * @param removed The ids of the pets no longer in the catalog, empty for a full resync
+     *
+     * {@literal @}JsonProperty is used in serialization and deserialization
+     * of the JSON object to the Java object in mapping the fields.
+     */
+    public PetChanges(@JsonProperty("version") long version, @JsonProperty("full") boolean full,
+                      @JsonProperty("pets") Pet[] pets, @JsonProperty("removed") int[] removed) {
+        this.version = version;
+        this.full = full;
+        this.pets = pets;
+        this.removed = removed;
+    }
+
+    /**
+     * Retrieves the catalog version the changes lead to
+     * @return The version to send as since on the next request
+     */
+    public long getVersion() {return version;}
+
+    /**
+     * Tells whether the changes are a full resync
+     * @return True if the pets are the whole catalog
+     */
+    public boolean isFull() {return full;}
+
+    /**
+     * Retrieves the pets created or updated, or every pet for a full resync
+     * @return The pets, sorted by id
+     */
+    public Pet[] getPets() {return pets;}
+
+    /**
+     * Retrieves the ids of the pets that left the catalog
+     * @return The ids, sorted
+     */
+    public int[] getRemoved() {return removed;}
+}
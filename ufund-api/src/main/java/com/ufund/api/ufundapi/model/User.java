@@ -12,8 +12,8 @@ public class User {
 
     @JsonProperty("username") private String username;
     @JsonProperty("password") private String password;
-    @JsonProperty("basket_pets") private int[] basket_pets;
-    @JsonProperty("adopted_pets") private int[] adopted_pets;
+    @JsonProperty("basket_pets") private IntSet basket_pets;
+    @JsonProperty("adopted_pets") private IntSet adopted_pets;
     @JsonProperty("notifications") private String[] notifications;
 
     /**
@@ -30,8 +30,8 @@ public class User {
     public User(@JsonProperty("username") String username, @JsonProperty("password") String password, @JsonProperty("basket_pets") int[] basket_pets, @JsonProperty("adopted_pets") int[] adopted_pets, @JsonProperty("notifications") String[] notifications) {
         this.username = username;
         this.password = password;
-        this.basket_pets = basket_pets;
-        this.adopted_pets = adopted_pets;
+        this.basket_pets = IntSet.of(basket_pets);
+        this.adopted_pets = IntSet.of(adopted_pets);
         this.notifications = notifications;
     }
 
@@ -50,13 +50,48 @@ public class User {
      * Sets the basket_pets of the user 
      * @param basket The basket_pets of the user
      */
-    public void setBasket(int[] basket) {this.basket_pets = basket;}
+    public void setBasket(int[] basket) {this.basket_pets = IntSet.of(basket);}
 
     /**
      * Sets the adopted_pets of the user 
      * @param adopted The aadopted_pets of the user
      */
-    public void setAdopted(int[] adopted) {this.adopted_pets = adopted;}
+    public void setAdopted(int[] adopted) {this.adopted_pets = IntSet.of(adopted);}
+
+    /**
+     * Adds a pet to the basket of the user
+     * @param id The id of the pet
+     * @return true if the pet was added, false if it was already in the basket
+     */
+    public boolean addBasketPet(int id) {return basket_pets.add(id);}
+
+    /**
+     * Removes a pet from the basket of the user
+     * @param id The id of the pet
+     * @return true if the pet was removed, false if it was not in the basket
+     */
+    public boolean removeBasketPet(int id) {return basket_pets.remove(id);}
+
+    /**
+     * Checks whether a pet is in the basket of the user
+     * @param id The id of the pet
+     * @return true if the pet is in the basket
+     */
+    public boolean hasBasketPet(int id) {return basket_pets.contains(id);}
+
+    /**
+     * Adds a pet to the pets the user has adopted
+     * @param id The id of the pet
+     * @return true if the pet was added, false if it was already adopted by the user
+     */
+    public boolean addAdoptedPet(int id) {return adopted_pets.add(id);}
+
+    /**
+     * Removes a pet from the pets the user has adopted
+     * @param id The id of the pet
+     * @return true if the pet was removed, false if it was not adopted by the user
+     */
+    public boolean removeAdoptedPet(int id) {return adopted_pets.remove(id);}
 
     /**
      * Sets the notifications of the user 
@@ -78,15 +113,15 @@ public class User {
 
     /**
      * Retrives the pets in the user's basket 
-     * @return the pets in the user's basket
+     * @return the ids of the pets in the user's basket in ascending order, must not be modified
      */
-    public int[] getBasket_pets() {return basket_pets;}
+    public int[] getBasket_pets() {return basket_pets.toArray();}
 
     /**
      * Retrives the pets the user has adopted
-     * @return the pets the user has adopted
+     * @return the ids of the pets the user has adopted in ascending order, must not be modified
      */
-    public int[] getAdopted_pets() {return adopted_pets;}
+    public int[] getAdopted_pets() {return adopted_pets.toArray();}
 
     /**
      * Retrives the notifications the user has 
@@ -0,0 +1,120 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Replaces files as a whole, so a crash leaves either the old or the new content
+ * <br>
+ * The content is written to a temporary file next to the target, forced to
+ * the disk and then renamed over the target in one step. A reader never sees
+ * a half written file, and a rename that survives a crash always points at
+ * data that made it to the disk.
+ *
+ * @author Group E
+ */
+final class AtomicFile {
+    private AtomicFile() {
+    }
+
+    /**
+     * Writes the content of a file
+     */
+    interface Content {
+        /**
+         * Writes the content
+         *
+         * @param out Where the content goes, closing it has no effect
+         *
+         * @throws IOException when the content cannot be written
+         */
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Writes the content of a file straight to its channel
+     */
+    interface ChannelContent {
+        /**
+         * Writes the content
+         *
+         * @param out The channel of the temporary file, positioned at its start
+         *
+         * @throws IOException when the content cannot be written
+         */
+        void writeTo(FileChannel out) throws IOException;
+    }
+
+    /**
+     * Replaces a file with new content
+     *
+     * @param file The file to replace, created if missing
+     * @param content Writes the new content
+     *
+     * @throws IOException when the file cannot be written, the file is left as it was
+     */
+    static void write(File file, Content content) throws IOException {
+        writeChannel(file, channel -> {
+            BufferedOutputStream buffered = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+            content.writeTo(new Unclosable(buffered));
+            buffered.flush();
+        });
+    }
+
+    /**
+     * Replaces a file with content written to its channel
+     * <br>
+     * Lets the content use positional writes or transfers between channels
+     *
+     * @param file The file to replace, created if missing
+     * @param content Writes the new content
+     *
+     * @throws IOException when the file cannot be written, the file is left as it was
+     */
+    static void writeChannel(File file, ChannelContent content) throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        boolean written = false;
+        try {
+            try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                                                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                content.writeTo(out);
+                out.force(true);
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written = true;
+        }
+        finally {
+            if (!written)
+                Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Keeps writers that close their target, like Jackson, from closing the file before it is forced
+     */
+    private static final class Unclosable extends FilterOutputStream {
+        Unclosable(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            out.write(bytes, offset, length);
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+    }
+}
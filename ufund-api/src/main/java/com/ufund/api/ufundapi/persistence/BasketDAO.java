@@ -4,107 +4,118 @@ import java.io.IOException;
 import com.ufund.api.ufundapi.model.Pet;
 
 /**
- * Defines the interface for Pet object persistence
- * 
+ * Defines the interface for adoption basket persistence
+ * <br>
+ * Every operation names the user whose basket it works on, so the baskets
+ * of different users can be read and modified independently
+ *
  * @author Group E
  */
 public interface BasketDAO {
     /**
-     * Retrieves all {@linkplain Pet Pets}
-     * 
+     * Retrieves the {@linkplain Pet Pets} in the basket of the given user
+     *
+     * @param user The username of the basket owner
+     *
      * @return An array of {@link Pet Pet} objects, may be empty
-     * 
+     *
      * @throws IOException if an issue with underlying storage
      */
-    Pet[] getPets() throws IOException;
+    Pet[] getPet(String user) throws IOException;
 
     /**
-     * Retrieves all {@linkplain Pet Pets} from the adopted basket
-     * 
-     * @return An array of {@link Pet Pet} objects, may be empty
-     * 
+     * Retrieves a page of the {@linkplain Pet Pets} in the basket of the given user, in id order
+     *
+     * @param user The username of the basket owner
+     * @param after The id the page starts behind, {@link Integer#MIN_VALUE} for the first page
+     * @param limit The maximum number of {@link Pet Pets} on the page
+     *
+     * @return An array of {@link Pet Pet} objects, shorter than limit on the last page, may be empty
+     *
      * @throws IOException if an issue with underlying storage
      */
-    Pet[] getAdoptedPets() throws IOException;
+    Pet[] getPet(String user, int after, int limit) throws IOException;
 
-
-     /**
-     * Retrieves a {@linkplain Pet Pet} with the given username
-     * 
-     * @param username The username of the {@link Pet Pet} to get
-     * 
-     * @return a {@link Pet Pet} object with the matching username
-     * <br>
-     * null if no {@link Pet Pet} with a matching username is found
-     * 
+    /**
+     * Retrieves the {@linkplain Pet Pets} the given user has adopted
+     *
+     * @param user The username of the adopter
+     *
+     * @return An array of {@link Pet Pet} objects, may be empty
+     *
      * @throws IOException if an issue with underlying storage
      */
-    Pet[] getPet(String user) throws IOException;
+    Pet[] getAdoptedPet(String user) throws IOException;
 
     /**
-     * Retrieves a {@linkplain Pet Pet} with the given username from the adopted list
-     * 
-     * @param username The username of the {@link Pet Pet} to get
-     * 
-     * @return a {@link Pet Pet} object with the matching username
-     * <br>
-     * null if no {@link Pet Pet} with a matching username is found
-     * 
+     * Retrieves a page of the {@linkplain Pet Pets} the given user has adopted, in id order
+     *
+     * @param user The username of the adopter
+     * @param after The id the page starts behind, {@link Integer#MIN_VALUE} for the first page
+     * @param limit The maximum number of {@link Pet Pets} on the page
+     *
+     * @return An array of {@link Pet Pet} objects, shorter than limit on the last page, may be empty
+     *
      * @throws IOException if an issue with underlying storage
      */
-    Pet[] getAdoptedPet(String user) throws IOException;
+    Pet[] getAdoptedPet(String user, int after, int limit) throws IOException;
 
     /**
-     * Creates and saves a {@linkplain Pet Pet}
-     * 
-     * @param Pet {@linkplain Pet Pet} object to be created and saved
-     * <br>
-     * The id of the Pet object is ignored and a new uniqe id is assigned
+     * Adds a {@linkplain Pet Pet} to the basket of the given user
+     *
+     * @param user The username of the basket owner
+     * @param pet {@linkplain Pet Pet} object to be added
+     *
+     * @return the added {@link Pet Pet} if successful, null if it is already in the
+     * basket, is not available or the user does not exist
      *
-     * @return new {@link Pet Pet} if successful, false otherwise 
-     * 
      * @throws IOException if an issue with underlying storage
      */
-    Pet createPet(Pet Pet) throws IOException;
+    Pet createPet(String user, Pet pet) throws IOException;
 
     /**
-     * Deletes a {@linkplain Pet Pet} with the given id and add it to adoption basket
-     * 
+     * Moves a {@linkplain Pet Pet} with the given id from the basket of the given
+     * user to their adopted pets
+     * <br>
+     * The pet leaves the catalog and every other basket, and the admin is
+     * notified, all as part of the same commit
+     *
+     * @param user The username of the adopter
      * @param id The id of the {@link Pet Pet}
-     * 
-     * @return true if the {@link Pet Pet} was deleted
+     *
+     * @return true if the {@link Pet Pet} was adopted
      * <br>
-     * false if Pet with the given id does not exist
-     * 
+     * false if the Pet is not in the basket of the user or no longer available
+     *
      * @throws IOException if underlying storage cannot be accessed
      */
-    boolean adoptPet(int id) throws IOException;
+    boolean adoptPet(String user, int id) throws IOException;
 
     /**
-     * Deletes a {@linkplain Pet Pet} with the given id
-     * 
+     * Removes a {@linkplain Pet Pet} with the given id from the basket of the given user
+     *
+     * @param user The username of the basket owner
      * @param id The id of the {@link Pet Pet}
-     * 
-     * @return true if the {@link Pet Pet} was deleted
+     *
+     * @return true if the {@link Pet Pet} was removed
      * <br>
-     * false if Pet with the given id does not exist
-     * 
+     * false if the Pet is not in the basket of the user
+     *
      * @throws IOException if underlying storage cannot be accessed
      */
-    boolean deletePet(int id) throws IOException;
+    boolean deletePet(String user, int id) throws IOException;
 
     /**
-     * Retrieves a {@linkplain Pet Pet} with the given id
-     * 
+     * Retrieves a {@linkplain Pet Pet} with the given id from the basket of the given user
+     *
+     * @param user The username of the basket owner
      * @param id The id of the {@link Pet Pet} to get
-     * 
+     *
      * @return a {@link Pet Pet} object with the matching id
      * <br>
-     * null if no {@link Pet Pet} with a matching id is found
-     * 
+     * null if no {@link Pet Pet} with a matching id is in the basket
+     *
      * @throws IOException if an issue with underlying storage
      */
-    Pet getPet(int id) throws IOException;
-
-
+    Pet getPet(String user, int id) throws IOException;
 }
@@ -1,196 +1,476 @@
 package com.ufund.api.ufundapi.persistence;
 
-import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import javax.annotation.PreDestroy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.ufund.api.ufundapi.event.BasketChanged;
+import com.ufund.api.ufundapi.event.EventBus;
+import com.ufund.api.ufundapi.event.PetAdopted;
+import com.ufund.api.ufundapi.event.PetDeleted;
 import com.ufund.api.ufundapi.model.Pet;
 import com.ufund.api.ufundapi.model.User;
 
 /**
  * Implements the functionality for JSON file-based peristance for Pet
- * 
+ * <br>
+ * The baskets live on the {@linkplain User Users} of the user DAO. Every
+ * operation names the user it works on and only holds the lock stripe that
+ * username hashes to, so the baskets of different users are read and
+ * modified in parallel
+ * <br>
+ * A reverse index from pet id to the users holding that pet in their basket
+ * lets a removal from the catalog clean up every affected basket in one go,
+ * so basket reads never have to write
+ * <br>
+ * Optionally, putting a pet in a basket takes a time-limited hold on it that
+ * keeps other users from holding or adopting it until the hold runs out
+ * <br>
+ * Every written change is published on the {@linkplain EventBus event bus}.
+ * The cleanup of the baskets after a removal from the catalog is a handler
+ * of those events, so it runs after the request that caused it has returned.
+ * The notifications of an adoption are written together with the adoption,
+ * so a crash cannot keep the adoption and lose them
+ *
  * {@literal @}Component Spring annotation instantiates a single instance of this
  * class and injects the instance into other classes as needed
- * 
+ *
  * @author Group E
  */
 @Component
 public class BasketFileDAO implements BasketDAO {
-    Map<Integer,Pet> pets;   // Provides a local cache of the Pet objects
-                                // so that we don't need to read from the file
-                                // each time
-    Map<Integer,Pet> adopted;
-    private ObjectMapper objectMapper;  // Provides conversion between Pet
-                                        // objects and JSON text format written
-                                        // to the file
-    private String filename;    // Filename to read from and write to
-    private String filename2;
-    private String filename3;
-    private UserFileDAO userFiledao;
-    private PetFileDAO petFiledao;
-    private PetFileDAO petList;
-    private User current_user; // The currect user logged in
+    private static final int LOCK_STRIPES = 64;     // Power of two so a mask picks the stripe
+    private final Object[] locks;       // Guard the baskets of the users hashing to each stripe
+    private UserFileDAO userFiledao;    // Owns the users and their baskets
+    private PetFileDAO petFiledao;      // Owns the catalog the baskets refer to
+    final Map<Integer,Set<String>> holders = new ConcurrentHashMap<>();         // Usernames with each pet id
+                                                                                // in their basket
+    private final Set<Integer> adopting = ConcurrentHashMap.newKeySet();        // Pets with an adoption in flight
+    private final PetHolds holds;               // Leases on basket pets, null when holds are off
+    private ScheduledExecutorService expiry;    // Releases expired holds in the background
+    private final EventBus events;              // Carries the changes to their side effects
 
     /**
-     * Creates a Pet File Data Access Object
-     * 
-     * @param filename Filename to read from and write to
+     * Creates a Basket File Data Access Object with its own user and pet DAOs
+     *
+     * @param filename Filename of the users to read from and write to
+     * @param filename2 Filename of the available pets
+     * @param filename3 Filename of the complete list of pets
      * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
-     * 
+     *
      * @throws IOException when file cannot be accessed or read from
      */
-    public BasketFileDAO(@Value("${users.file}") String filename, @Value("${pets.file}") String filename2, @Value("${petList.file}") String filename3, ObjectMapper objectMapper) throws IOException {
-        this.filename = filename;
-        this.filename2 = filename2;
-        this.filename3 = filename3;
-        this.userFiledao = new UserFileDAO(filename, objectMapper);
-        this.petFiledao = new PetFileDAO(filename2, filename3, objectMapper);
-        this.petList = new PetFileDAO(filename3, filename3, objectMapper);
-        this.objectMapper = objectMapper;
-        load();
+    public BasketFileDAO(String filename, String filename2, String filename3, ObjectMapper objectMapper) throws IOException {
+        this(new UserFileDAO(filename, objectMapper), new PetFileDAO(filename2, filename3, objectMapper));
     }
 
     /**
-     * Generates an array of {@linkplain Pet Pet} from the tree map for any
-     * {@linkplain Pet Pet} that contains the text specified by containsText
+     * Creates a Basket File Data Access Object
      * <br>
-     * If containsText is null, the array contains all of the {@linkplain Pet Pet}
-     * in the tree map
+     * The baskets are read and written through the given DAOs so every data
+     * file is loaded only once and baskets read the catalog from its
+     * shared snapshot
+     *
+     * @param userFiledao The {@link UserFileDAO User Data Access Object} holding the baskets
+     * @param petFiledao The {@link PetFileDAO Pet Data Access Object} holding the catalog
      * 
-     * @return  The array of {@link Pet Pet}, may be empty
+     * @throws IOException when the baskets cleaned up on startup cannot be saved
      */
-    private Pet[] getPetsArray() { // if containsText == null, no filter
-        ArrayList<Pet> petArrayList = new ArrayList<>();
-
-        for (Pet pet : pets.values()) {
-            petArrayList.add(pet);
-        }
-
-        Pet[] petArray = new Pet[petArrayList.size()];
-        petArrayList.toArray(petArray);
-        return petArray;
+    public BasketFileDAO(UserFileDAO userFiledao, PetFileDAO petFiledao) throws IOException {
+        this(userFiledao, petFiledao, (PetHolds) null);
     }
 
     /**
-     * Generates an array of {@linkplain Pet Pet} from the tree map for any
-     * {@linkplain Pet Pet} that contains the text specified by containsText
-     * <br>
-     * If containsText is null, the array contains all of the {@linkplain Pet Pet}
-     * in the tree map
+     * Creates a Basket File Data Access Object whose events are handled by the thread publishing them
      * 
-     * @return  The array of {@link Pet Pet}, may be empty
+     * @param userFiledao The {@link UserFileDAO User Data Access Object} holding the baskets
+     * @param petFiledao The {@link PetFileDAO Pet Data Access Object} holding the catalog
+     * @param holdSeconds How long adding a pet to a basket holds it for that user, 0 to not hold pets
+     * 
+     * @throws IOException when the baskets cleaned up on startup cannot be saved
      */
-    private Pet[] getAdoptedPetsArray() { // if containsText == null, no filter
-        ArrayList<Pet> petArrayList = new ArrayList<>();
+    public BasketFileDAO(UserFileDAO userFiledao, PetFileDAO petFiledao, long holdSeconds) throws IOException {
+        this(userFiledao, petFiledao, holdSeconds, new EventBus());
+    }
 
-        for (Pet pet : adopted.values()) {
-            petArrayList.add(pet);
+    /**
+     * Creates a Basket File Data Access Object
+     * 
+     * @param userFiledao The {@link UserFileDAO User Data Access Object} holding the baskets
+     * @param petFiledao The {@link PetFileDAO Pet Data Access Object} holding the catalog
+     * @param holdSeconds How long adding a pet to a basket holds it for that user, 0 to not hold pets
+     * @param events The {@link EventBus event bus} the changes are published on
+     * 
+     * @throws IOException when the baskets cleaned up on startup cannot be saved
+     */
+    @Autowired
+    public BasketFileDAO(UserFileDAO userFiledao, PetFileDAO petFiledao,
+                         @Value("${baskets.hold.seconds:0}") long holdSeconds, EventBus events) throws IOException {
+        this(userFiledao, petFiledao,
+             holdSeconds > 0 ? new PetHolds(TimeUnit.SECONDS.toMillis(holdSeconds), System::currentTimeMillis) : null,
+             events);
+        if (holds != null) {
+            expiry = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "basket-hold-expiry");
+                thread.setDaemon(true);
+                return thread;
+            });
+            expiry.scheduleAtFixedRate(holds::expire, PetHolds.TICK_MILLIS, PetHolds.TICK_MILLIS, TimeUnit.MILLISECONDS);
         }
+    }
 
-        Pet[] petArray = new Pet[petArrayList.size()];
-        petArrayList.toArray(petArray);
-        return petArray;
+    /**
+     * Creates a Basket File Data Access Object with the given holds
+     * 
+     * @param userFiledao The {@link UserFileDAO User Data Access Object} holding the baskets
+     * @param petFiledao The {@link PetFileDAO Pet Data Access Object} holding the catalog
+     * @param holds The holds on basket pets, null to not hold pets
+     * 
+     * @throws IOException when the baskets cleaned up on startup cannot be saved
+     */
+    BasketFileDAO(UserFileDAO userFiledao, PetFileDAO petFiledao, PetHolds holds) throws IOException {
+        this(userFiledao, petFiledao, holds, new EventBus());
     }
 
     /**
-     * Saves the {@linkplain Pet Pet} from the map into the file as an array of JSON objects
+     * Creates a Basket File Data Access Object with the given holds and event bus
      * 
-     * @return true if the {@link Pet Pet} were written successfully
+     * @param userFiledao The {@link UserFileDAO User Data Access Object} holding the baskets
+     * @param petFiledao The {@link PetFileDAO Pet Data Access Object} holding the catalog
+     * @param holds The holds on basket pets, null to not hold pets
+     * @param events The {@link EventBus event bus} the changes are published on
      * 
-     * @throws IOException when file cannot be accessed or written to
+     * @throws IOException when the baskets cleaned up on startup cannot be saved
      */
-    private boolean save() throws IOException {
+    BasketFileDAO(UserFileDAO userFiledao, PetFileDAO petFiledao, PetHolds holds, EventBus events) throws IOException {
+        this.userFiledao = userFiledao;
+        this.petFiledao = petFiledao;
+        this.holds = holds;
+        this.events = events;
+        this.locks = new Object[LOCK_STRIPES];
+        for (int i = 0; i < LOCK_STRIPES; i++)
+            locks[i] = new Object();
+        events.subscribe(PetDeleted.class, deleted -> petRemoved(deleted.getPet()));
+        userFiledao.setRefreshListener(new UserFileDAO.RefreshListener() {
+            @Override
+            public void refreshed(User user, Runnable update) {
+                reindex(user, update);
+            }
 
-        User[] userArray = this.userFiledao.getUsersArray();
+            @Override
+            public void removed(User user) {
+                reindex(user, null);
+            }
+        });
+        index();
+        petFiledao.addRemovalListener(pet -> events.publish(new PetDeleted(pet)));
+        recoverAdoptions();
+    }
 
-        // Serializes the Java Objects to JSON objects into the file
-        // writeValue will thrown an IOException if there is an issue
-        // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),userArray);
-        return true;
+    /**
+     * Stops releasing expired holds on shutdown and lets the handlers finish
+     * <br>
+     * Closes the {@link EventBus event bus} before the DAOs it writes through
+     * go away: this DAO depends on them, so it is destroyed before either of them
+     */
+    @PreDestroy
+    public void close() {
+        if (expiry != null)
+            expiry.shutdownNow();
+        events.close();
     }
-    
 
     /**
-     * Loads {@linkplain Pet Pet} from the JSON file into the map
+     * Builds the reverse index from the baskets of all users
      * <br>
-     * Also sets next id to one more than the greatest id found in the file
+     * Pets that left the catalog while the application was down are removed
+     * from the baskets right away, with a single save
      * 
-     * @return true if the file was read successfully
+     * @throws IOException when file cannot be accessed or written to
+     */
+    private void index() throws IOException {
+        List<BasketChanged> dropped = new ArrayList<>();
+        CatalogSnapshot catalog = petFiledao.snapshot();
+        for (User user : userFiledao.allUsers()) {
+            synchronized(lockFor(user.getUsername())) {
+                for (int id : user.getBasket_pets()) {
+                    if (catalog.getAvailable(id) != null) {
+                        hold(id, user.getUsername());
+                    }
+                    else if (dropFromBasket(user, id)) {
+                        notifyDropped(user, catalog.get(id));
+                        dropped.add(new BasketChanged(user.getUsername(), id, BasketChanged.Change.DROPPED));
+                    }
+                }
+            }
+        }
+        if (dropped.isEmpty())
+            return;
+        save();
+        for (BasketChanged change : dropped)
+            events.publish(change);
+    }
+
+    /**
+     * Finishes adoptions that were written to the users file but whose pet is
+     * still in the catalog because the application stopped in between
+     * <br>
+     * The pets leave the catalog in one bulk removal and the baskets that held
+     * them are written with a single save
      * 
-     * @throws IOException when file cannot be accessed or read from
+     * @throws IOException when file cannot be accessed or written to
      */
-    private boolean load() throws IOException {
-        pets = new TreeMap<>();
-        adopted = new TreeMap<>();
-        if(current_user==null){
-            return false;
+    private void recoverAdoptions() throws IOException {
+        CatalogSnapshot catalog = petFiledao.snapshot();
+        IntStream.Builder adopted = IntStream.builder();
+        for (User user : userFiledao.allUsers()) {
+            for (int id : user.getAdopted_pets()) {
+                if (catalog.getAvailable(id) != null)
+                    adopted.add(id);
+            }
         }
-        // Deserializes the JSON objects from the file into an array of Pet
-        // readValue will throw an IOException if there's an issue with the file
-        // or reading from the file
-        User[] userArray = objectMapper.readValue(new File(filename),User[].class);
-        int[] petsArray = {};
-        int[] adoptedArray = {};
-        /*Get the basket and adopted basket of the current user */
-        for (User user: userArray) {
-            if (user.getUsername().equals(current_user.getUsername())){
-                petsArray = current_user.getBasket_pets();
-                adoptedArray = current_user.getAdopted_pets();
-                break;
+        int[] ids = adopted.build().toArray();
+        if (ids.length == 0)
+            return;
+
+        List<BasketChanged> dropped = new ArrayList<>();
+        for (Pet pet : petFiledao.deletePets(ids)) {
+            Set<String> usernames = holders.remove(pet.getId());
+            if (usernames == null)
+                continue;
+            for (String username : usernames) {
+                User user = userFiledao.getUser(username);
+                if (user == null)
+                    continue;
+                synchronized(lockFor(username)) {
+                    if (dropFromBasket(user, pet.getId())) {
+                        notifyDropped(user, pet);
+                        dropped.add(new BasketChanged(username, pet.getId(), BasketChanged.Change.DROPPED));
+                    }
+                }
             }
         }
-        /*Turn each integer of the basket into their respective pet*/
-        for (int current_int : petsArray) {
-            /*Check if the pet has been adopted already */
-            if(this.petFiledao.getCurrentPet(current_int) != null){
-                pets.put(current_int, petFiledao.getPet(current_int));
+        if (dropped.isEmpty())
+            return;
+        save();
+        for (BasketChanged change : dropped)
+            events.publish(change);
+    }
+
+    /**
+     * Applies a change of a {@linkplain User User} read from the users file and
+     * re-indexes the user's basket, under the lock of that basket
+     * <br>
+     * Pets that are no longer available stay in the basket until the next
+     * startup, basket reads leave them out meanwhile
+     * 
+     * @param user The cached {@link User User}
+     * @param update Copies the data read from the file into the user, null for a user no longer in the file
+     */
+    private void reindex(User user, Runnable update) {
+        String username = user.getUsername();
+        CatalogSnapshot catalog = petFiledao.snapshot();
+        synchronized(lockFor(username)) {
+            for (int id : user.getBasket_pets())
+                release(id, username);
+            if (update == null)
+                return;
+            update.run();
+            for (int id : user.getBasket_pets()) {
+                if (catalog.isAvailable(id))
+                    hold(id, username);
             }
-            else{
-                /*Modify the basket if a pet in there has been adopted */
-                int [] old_list = current_user.getBasket_pets();
-                int [] new_list = new int[old_list.length-1];
-                for(int i = 0, j = 0; i < old_list.length; i++){
-                    if(old_list[i] != current_int){
-                        new_list[j] = old_list[i];
-                        j++;
-                    }
+        }
+    }
+
+    /**
+     * Removes a {@linkplain Pet Pet} that is no longer available from every basket holding it
+     * <br>
+     * Handles the {@link PetDeleted} events. Each affected user is notified and
+     * all baskets are written with a single save
+     * 
+     * @param pet The {@link Pet Pet} that left the catalog
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    void petRemoved(Pet pet) throws IOException {
+        Set<String> usernames = holders.remove(pet.getId());
+        if (usernames == null)
+            return;
+
+        UnitOfWork work = new UnitOfWork(userFiledao, petFiledao);
+        List<User> dropped = dropFromBaskets(usernames, pet.getId(), work);
+        for (User user : dropped)
+            notifyDropped(user, pet);
+        work.commit();
+        for (User user : dropped)
+            events.publish(new BasketChanged(user.getUsername(), pet.getId(), BasketChanged.Change.DROPPED));
+    }
+
+    /**
+     * Takes a {@linkplain Pet Pet} out of the baskets of the given users
+     * 
+     * @return The {@link User Users} whose basket changed
+     */
+    private List<User> dropFromBaskets(Set<String> usernames, int id, UnitOfWork work) throws IOException {
+        List<User> dropped = new ArrayList<>(usernames.size());
+        for (String username : usernames) {
+            User user = userFiledao.getUser(username);
+            if (user == null)
+                continue;
+            synchronized(lockFor(username)) {
+                if (dropFromBasket(user, id)) {
+                    work.changed(user);
+                    work.onFailure(() -> {
+                        synchronized(lockFor(username)) {
+                            user.addBasketPet(id);
+                            hold(id, username);
+                        }
+                    });
+                    dropped.add(user);
                 }
-                current_user.setBasket(new_list);
-                /*Add a notification to the user about the adopted pet */
-                String[] currentNotifs = current_user.getNotifications();
-                String[] newNotifs = new String[currentNotifs.length+1];
-                for(int i = 0; i < currentNotifs.length; i++){
-                    newNotifs[i] = currentNotifs[i];
-                 }
-                newNotifs[currentNotifs.length] = petFiledao.getPet(current_int).getName() + " has been adopted";
-                current_user.setNotifications(newNotifs);
-                save();
             }
         }
+        return dropped;
+    }
+
+    /**
+     * Removes a pet that is no longer available from a basket
+     * <br>
+     * Must be called with the lock of the user held
+     * 
+     * @return true if the basket changed
+     */
+    private boolean dropFromBasket(User user, int id) {
+        if (!user.removeBasketPet(id))
+            return false;
+        userFiledao.changed(user);
+        return true;
+    }
+
+    /**
+     * Tells a user that a pet left their basket because it is no longer available
+     */
+    private void notifyDropped(User user, Pet pet) {
+        /*Add a notification to the user about the adopted pet */
+        if (pet != null)
+            userFiledao.appendNotification(user, pet.getName() + " has been adopted");
+    }
+
+    private void hold(int id, String username) {
+        holders.computeIfAbsent(id, key -> ConcurrentHashMap.newKeySet()).add(username);
+    }
+
+    private void release(int id, String username) {
+        holders.computeIfPresent(id, (key, usernames) -> {
+            usernames.remove(username);
+            return usernames.isEmpty() ? null : usernames;
+        });
+    }
+
+    /**
+     * Retrieves the lock guarding the basket of a user
+     *
+     * @param username The username of the basket owner
+     *
+     * @return The lock of the stripe the username hashes to
+     */
+    private Object lockFor(String username) {
+        int hash = username.hashCode();
+        hash ^= (hash >>> 16);  // spread the high bits over the mask
+        return locks[hash & (LOCK_STRIPES - 1)];
+    }
+
+    /**
+     * Generates an array of {@linkplain Pet Pet} in id order for the given ids
+     * <br>
+     * Ids that are not in the catalog, or no longer available when availableOnly
+     * is set, are skipped
+     *
+     * @return  The array of {@link Pet Pet}, may be empty
+     */
+    private Pet[] getPetsArray(CatalogSnapshot catalog, int[] ids, boolean availableOnly) {
+        ArrayList<Pet> petArrayList = new ArrayList<>();
+
+        for (int id : ids) {
+            Pet pet = availableOnly ? catalog.getAvailable(id) : catalog.get(id);
+            if (pet != null)
+                petArrayList.add(pet);
+        }
+
+        Pet[] petArray = new Pet[petArrayList.size()];
+        petArrayList.toArray(petArray);
+        Arrays.sort(petArray, CatalogSnapshot.BY_ID);
+        return petArray;
+    }
+
+    /**
+     * Generates a page of {@linkplain Pet Pet} in id order from the given ids in ascending order
+     * <br>
+     * Starts with a binary search for after, then reads ids until the page is full.
+     * Ids that are not in the catalog, or no longer available when availableOnly
+     * is set, are skipped
+     *
+     * @return  The array of {@link Pet Pet}, may be empty
+     */
+    private Pet[] getPetsPage(CatalogSnapshot catalog, int[] ids, int after, int limit, boolean availableOnly) {
+        int from = Arrays.binarySearch(ids, after);
+        from = from >= 0 ? from + 1 : -from - 1;
+        ArrayList<Pet> petArrayList = new ArrayList<>(Math.min(limit, ids.length - from));
 
-        for (int current_int: adoptedArray) {
-            adopted.put(current_int, petList.getPet(current_int));
+        for (int i = from; i < ids.length && petArrayList.size() < limit; i++) {
+            Pet pet = availableOnly ? catalog.getAvailable(ids[i]) : catalog.get(ids[i]);
+            if (pet != null)
+                petArrayList.add(pet);
         }
-        // Make the next id one greater than the maximum from the file
-        return true; 
+
+        Pet[] petArray = new Pet[petArrayList.size()];
+        petArrayList.toArray(petArray);
+        return petArray;
+    }
+
+    /**
+     * Saves the {@linkplain User User} baskets into the file as an array of JSON objects
+     *
+     * @return true if the {@link Pet Pet} were written successfully
+     *
+     * @throws IOException when file cannot be accessed or written to
+     */
+    private boolean save() throws IOException {
+        // The users file is owned by the user DAO, which coalesces
+        // concurrent writes into one
+        return this.userFiledao.commit();
     }
 
     /**
     ** {@inheritDoc}
      */
     @Override
-    public Pet[] getPets() {
-        synchronized(pets) {
-            return getPetsArray();
+    public Pet[] getPet(String username) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return new Pet[0];
+
+        // Adopted pets were already taken out of the basket when they left the
+        // catalog, skipping unavailable ones only covers that short window
+        synchronized(lockFor(username)) {
+            return getPetsArray(petFiledao.snapshot(), user.getBasket_pets(), true);
         }
     }
 
@@ -198,36 +478,41 @@ public class BasketFileDAO implements BasketDAO {
     ** {@inheritDoc}
      */
     @Override
-    public Pet[] getAdoptedPets() {
-        synchronized(pets) {
-            return getAdoptedPetsArray();
+    public Pet[] getPet(String username, int after, int limit) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return new Pet[0];
+
+        synchronized(lockFor(username)) {
+            return getPetsPage(petFiledao.snapshot(), user.getBasket_pets(), after, limit, true);
         }
     }
-    
+
     /**
     ** {@inheritDoc}
-     * @throws IOException
      */
     @Override
-    public Pet[] getPet(String user) throws IOException {
-        current_user = userFiledao.getUser(user);
-        this.petFiledao = new PetFileDAO(filename2, filename3, objectMapper);
-        load();
-        synchronized(pets) {
-            return this.getPets();
+    public Pet[] getAdoptedPet(String username) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return new Pet[0];
+
+        synchronized(lockFor(username)) {
+            return getPetsArray(petFiledao.snapshot(), user.getAdopted_pets(), false);
         }
     }
 
     /**
     ** {@inheritDoc}
-     * @throws IOException
      */
     @Override
-    public Pet[] getAdoptedPet(String user) throws IOException {
-        current_user = userFiledao.getUser(user);
-        load();
-        synchronized(pets) {
-            return this.getAdoptedPets();
+    public Pet[] getAdoptedPet(String username, int after, int limit) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return new Pet[0];
+
+        synchronized(lockFor(username)) {
+            return getPetsPage(petFiledao.snapshot(), user.getAdopted_pets(), after, limit, false);
         }
     }
 
@@ -235,113 +520,138 @@ public class BasketFileDAO implements BasketDAO {
     ** {@inheritDoc}
      */
     @Override
-    public Pet createPet(Pet pet) throws IOException {
-        synchronized(pets) {
-            Pet newPet = new Pet(pet.getId(),pet.getAnimaltype(), pet.getName());
-            /*Create a new basket so we can add another item in as int[] isn't mutable*/
-            int[] current_basket = current_user.getBasket_pets();
-            int[] temp_basket = new int[current_basket.length+1];
-            for(int i = 0; i < current_basket.length; i++){
-                if(current_basket[i] == pet.getId()){
-                    return null;
-                }
-                temp_basket[i] = current_basket[i];
+    public Pet createPet(String username, Pet pet) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return null;
+
+        // Only pets still available can go in a basket, anything else would
+        // stay in the file while every read of the basket skips it
+        if (petFiledao.snapshot().getAvailable(pet.getId()) == null)
+            return null;
+        Pet newPet = new Pet(pet.getId(),pet.getAnimaltype(), pet.getName());
+        if (holds != null && !holds.acquire(pet.getId(), username))
+            return null; // held by another user
+        synchronized(lockFor(username)) {
+            if (!user.addBasketPet(pet.getId()))
+                return null;
+            hold(pet.getId(), username);
+            // The catalog publishes a removal before it takes the holders of the
+            // pet, so a removal that missed this holder shows in the snapshot here
+            if (petFiledao.snapshot().getAvailable(pet.getId()) == null) {
+                user.removeBasketPet(pet.getId());
+                release(pet.getId(), username);
+                if (holds != null)
+                    holds.release(pet.getId(), username);
+                return null;
             }
-            temp_basket[current_basket.length] = pet.getId();
-            current_user.setBasket(temp_basket);
-            pets.put(newPet.getId(),newPet);
-            save(); // may throw an IOException
-            return newPet;
+            userFiledao.changed(user);
         }
+        save(); // may throw an IOException
+        events.publish(new BasketChanged(username, pet.getId(), BasketChanged.Change.ADDED));
+        return newPet;
     }
 
     /**
     ** {@inheritDoc}
      */
     @Override
-    public boolean deletePet(int id) throws IOException {
-        synchronized(pets) {
-            if (pets.containsKey(id)) {
-                /*Create a new basket so we can remove an item from the old one as int[] isn't mutable*/
-                int[] current_basket = current_user.getBasket_pets();
-                int[] new_basket = new int[current_basket.length-1];
-                for(int i=0,j=0;i<current_basket.length;i++){
-                    if(current_basket[i] != id){
-                        new_basket[j] = current_basket[i];
-                        j++;
-                    }
-                }
-                current_user.setBasket(new_basket);
-                pets.remove(id);
-                return save();
-            }
-            else
+    public boolean deletePet(String username, int id) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return false;
+
+        synchronized(lockFor(username)) {
+            if (!user.removeBasketPet(id))
                 return false;
+            release(id, username);
+            userFiledao.changed(user);
         }
+        if (holds != null)
+            holds.release(id, username);
+        boolean saved = save();
+        events.publish(new BasketChanged(username, id, BasketChanged.Change.REMOVED));
+        return saved;
     }
 
     /**
     ** {@inheritDoc}
      */
     @Override
-    public boolean adoptPet(int id) throws IOException {
-        synchronized(pets) {
-            synchronized(adopted){
-                if (pets.containsKey(id)) {
-                    /*Remove the pet from the basket*/
-                    int[] current_basket = current_user.getBasket_pets();
-                    int[] new_basket = new int[current_basket.length-1];
-                    Pet newPet = pets.get(id);
-                    for(int i=0,j=0;i<current_basket.length;i++){
-                        if(current_basket[i] != id){
-                            new_basket[j] = current_basket[i];
-                            j++;
-                        }
-                    }
-                    current_user.setBasket(new_basket);
-                    pets.remove(id);
-                    /*Add the pet to the adopted basket */
-                    int[] current_Adopted = current_user.getAdopted_pets();
-                    int[] temp_list = new int[current_Adopted.length+1];
-                    for(int i = 0; i < current_Adopted.length; i++){
-                        temp_list[i] = current_Adopted[i];
-                    }
-                    temp_list[current_Adopted.length] = newPet.getId();
-                    current_user.setAdopted(temp_list);
-                    adopted.put(newPet.getId(), newPet);
-                    save();
-                    /*Send notification to the admin */
-                    String name = current_user.getUsername();
-                    current_user = this.userFiledao.getUser("admin");
-                    String[] currentNotifs = current_user.getNotifications();
-                    String[] newNotifs = new String[currentNotifs.length+1];
-                    for(int i = 0; i < currentNotifs.length; i++){
-                        newNotifs[i] = currentNotifs[i];
-                    }
-                    newNotifs[currentNotifs.length] = name + " has adopted " + newPet.getName();
-                    current_user.setNotifications(newNotifs);
-                    save();
-                    current_user = this.userFiledao.getUser(name);
-                    return true;
-                }
-                else
+    public boolean adoptPet(String username, int id) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return false;
+
+        // Only one adoption of a pet may be in flight
+        if (!adopting.add(id))
+            return false;
+        try {
+            Pet newPet = petFiledao.snapshot().getAvailable(id);
+            if (newPet == null)
+                return false;
+            if (holds != null && holds.heldByOther(id, username))
+                return false;
+
+            UnitOfWork work = new UnitOfWork(userFiledao, petFiledao);
+            synchronized(lockFor(username)) {
+                /*Move the pet from the basket to the adopted basket */
+                if (!user.removeBasketPet(id))
                     return false;
+                release(id, username);
+                user.addAdoptedPet(id);
+                work.changed(user);
+                work.onFailure(() -> {
+                    synchronized(lockFor(username)) {
+                        user.removeAdoptedPet(id);
+                        user.addBasketPet(id);
+                        hold(id, username);
+                    }
+                });
+            }
+            /*Take the pet out of every other basket */
+            Set<String> others = holders.remove(id);
+            List<User> dropped = others == null ? List.of() : dropFromBaskets(others, id, work);
+            /*The notifications go out with the same write as the adoption */
+            for (User other : dropped)
+                notifyDropped(other, newPet);
+            User admin = userFiledao.getUser("admin");
+            if (admin != null) {
+                userFiledao.appendNotification(admin, username + " has adopted " + newPet.getName());
+                work.changed(admin);
             }
+            work.removeFromCatalog(id);
+            work.commit();
+            if (holds != null)
+                holds.release(id, username);
+            String[] droppedFrom = new String[dropped.size()];
+            for (int i = 0; i < droppedFrom.length; i++)
+                droppedFrom[i] = dropped.get(i).getUsername();
+            events.publish(new PetAdopted(username, newPet, droppedFrom));
+            events.publish(new BasketChanged(username, id, BasketChanged.Change.ADOPTED));
+            for (String other : droppedFrom)
+                events.publish(new BasketChanged(other, id, BasketChanged.Change.DROPPED));
+            return true;
+        }
+        finally {
+            adopting.remove(id);
         }
     }
 
-     /**
+    /**
     ** {@inheritDoc}
      */
     @Override
-    public Pet getPet(int id) {
-        synchronized(pets) {
-            if (pets.containsKey(id))
-                return pets.get(id);
+    public Pet getPet(String username, int id) throws IOException {
+        User user = userFiledao.getUser(username);
+        if (user == null)
+            return null;
+
+        synchronized(lockFor(username)) {
+            if (user.hasBasketPet(id))
+                return petFiledao.snapshot().getAvailable(id);
             else
                 return null;
         }
     }
-
-
 }
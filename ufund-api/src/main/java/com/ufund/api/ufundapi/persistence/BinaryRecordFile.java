@@ -0,0 +1,216 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes files of length-prefixed binary records
+ * <br>
+ * A file starts with a header of the magic number, the format version, the
+ * kind of record and the number of records. Every record follows as its
+ * length and the fields written by its {@link RecordCodec}. Integers are
+ * variable-length and strings are UTF-8, so the common small ids and short
+ * names take a byte or two. A newer version only ever appends fields to a
+ * record, so a reader accepts files of any version and the length prefix
+ * lets it skip the fields it does not know.
+ *
+ * @author Group E
+ */
+final class BinaryRecordFile {
+    static final int MAGIC = 0x55464e44;    // "UFND"
+    static final int VERSION = 1;           // Version written, files of newer versions can still be read
+
+    private BinaryRecordFile() {
+    }
+
+    /**
+     * Checks which storage format a configuration value selects
+     *
+     * @param format The configured format, {@code json} or {@code binary}
+     *
+     * @return true for the binary format, false for JSON
+     *
+     * @throws IllegalArgumentException when the format is unknown
+     */
+    static boolean isBinary(String format) {
+        if (format == null || format.isEmpty() || "json".equalsIgnoreCase(format))
+            return false;
+        if ("binary".equalsIgnoreCase(format))
+            return true;
+        throw new IllegalArgumentException("Unknown storage format " + format);
+    }
+
+    /**
+     * Writes records to a file, replacing it as a whole once every record is on the disk
+     *
+     * @param <T> The type of record
+     * @param file The file to write
+     * @param codec Encodes the records
+     * @param records The records in the order to write them
+     *
+     * @throws IOException when the file cannot be written
+     */
+    static <T> void write(File file, RecordCodec<T> codec, T[] records) throws IOException {
+        AtomicFile.write(file, stream -> {
+            DataOutputStream out = new DataOutputStream(stream);
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeByte(codec.kind());
+            out.writeInt(records.length);
+
+            ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+            DataOutputStream fields = new DataOutputStream(record);
+            for (T value : records) {
+                record.reset();
+                codec.encode(value, fields);
+                writeVarInt(out, record.size());
+                record.writeTo(out);
+            }
+            out.flush();
+        });
+    }
+
+    /**
+     * Reads every record of a file
+     *
+     * @param <T> The type of record
+     * @param file The file to read
+     * @param codec Decodes the records
+     * @param sink Receives each record in file order
+     *
+     * @return The number of records read
+     *
+     * @throws IOException when the file cannot be read or holds another kind of record
+     */
+    static <T> int read(File file, RecordCodec<T> codec, Consumer<? super T> sink) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(file + " is not a binary record file");
+            int version = in.readUnsignedShort();   // Newer versions only append fields, which decoding skips
+            int kind = in.readByte();
+            if (kind != codec.kind())
+                throw new IOException(file + " holds records of kind " + kind + ", expected " + codec.kind());
+            int count = in.readInt();
+
+            // One buffer and one stream over it serve every record
+            RecordInput record = new RecordInput();
+            DataInputStream fields = new DataInputStream(record);
+            for (int i = 0; i < count; i++) {
+                int length = readVarInt(in);
+                in.readFully(record.prepare(length), 0, length);
+                sink.accept(codec.decode(fields, version));
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Writes a non-negative int in 1 to 5 bytes, 7 bits at a time
+     */
+    static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0)
+                return value;
+        }
+        throw new IOException("Malformed variable-length int");
+    }
+
+    /**
+     * Writes any int zigzag encoded, so small negative values stay short as well
+     */
+    static void writeSignedVarInt(DataOutput out, int value) throws IOException {
+        writeVarInt(out, (value << 1) ^ (value >> 31));
+    }
+
+    static int readSignedVarInt(DataInput in) throws IOException {
+        int zigzag = readVarInt(in);
+        return (zigzag >>> 1) ^ -(zigzag & 1);
+    }
+
+    /**
+     * Writes a string as its UTF-8 length plus one, 0 for null, and its bytes
+     */
+    static void writeString(DataOutput out, String value) throws IOException {
+        if (value == null) {
+            writeVarInt(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length + 1);
+        out.write(bytes);
+    }
+
+    static String readString(DataInput in) throws IOException {
+        int length = readVarInt(in);
+        if (length == 0)
+            return null;
+        byte[] bytes = new byte[length - 1];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes ints as their count and the zigzag encoded difference to the
+     * previous one, which keeps sorted ids to a byte or two each
+     */
+    static void writeInts(DataOutput out, int[] values) throws IOException {
+        writeVarInt(out, values.length);
+        int previous = 0;
+        for (int value : values) {
+            writeSignedVarInt(out, value - previous);
+            previous = value;
+        }
+    }
+
+    static int[] readInts(DataInput in) throws IOException {
+        int[] values = new int[readVarInt(in)];
+        int previous = 0;
+        for (int i = 0; i < values.length; i++) {
+            previous += readSignedVarInt(in);
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    /**
+     * Byte stream over a reusable buffer holding one record
+     */
+    private static final class RecordInput extends ByteArrayInputStream {
+        RecordInput() {
+            super(new byte[256]);
+        }
+
+        byte[] prepare(int length) throws EOFException {
+            if (length < 0)
+                throw new EOFException("Malformed record length");
+            if (buf.length < length)
+                buf = new byte[Math.max(length, buf.length * 2)];
+            pos = 0;
+            count = length;
+            mark = 0;
+            return buf;
+        }
+    }
+}
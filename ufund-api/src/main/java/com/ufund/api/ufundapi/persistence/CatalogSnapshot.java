@@ -0,0 +1,283 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.Collection;
+import java.util.Comparator;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Immutable view of the pet catalog at one version
+ * <br>
+ * Both lists are kept as arrays sorted by id so that lookups are a binary
+ * search and readers never need a lock or any file I/O. The available pets are
+ * also indexed by name and by animal type for prefix searches. Writers never change
+ * a published snapshot, they derive the next version from it and publish
+ * that instead.
+ * <br>
+ * A snapshot can leave its indexes to the first search, so that loading a
+ * catalog does not have to look at any name or type up front. A snapshot of a
+ * mapped {@link PetRecordFile} keeps a bit per id instead of the arrays and
+ * decodes each pet from the mapping when it is asked for.
+ *
+ * @author Group E
+ */
+final class CatalogSnapshot {
+    static final Comparator<Pet> BY_ID = Comparator.comparingInt(Pet::getId);
+
+    private final long version;         // Incremented by every catalog mutation
+    private final PetSet available;     // Pets that can still be adopted
+    private final PetSet all;           // Every pet ever listed
+    private volatile PrefixIndex names; // Available pets by lower case name, null until first needed
+    private volatile TypeIndex types;   // Available pets by lower case animal type, null until first needed
+
+    /**
+     * Creates a snapshot of the given pets
+     *
+     * @param version The catalog version the pets belong to
+     * @param available The pets that can still be adopted
+     * @param all Every pet ever listed
+     */
+    CatalogSnapshot(long version, Collection<Pet> available, Collection<Pet> all) {
+        this(version, available, all, true);
+    }
+
+    /**
+     * Creates a snapshot of the given pets
+     *
+     * @param version The catalog version the pets belong to
+     * @param available The pets that can still be adopted
+     * @param all Every pet ever listed
+     * @param indexed true to build the indexes now, false to build them on the first search
+     */
+    CatalogSnapshot(long version, Collection<Pet> available, Collection<Pet> all, boolean indexed) {
+        this(version, new SortedPetSet(available), new SortedPetSet(all), null, null);
+        if (indexed) {
+            names();
+            types();
+        }
+    }
+
+    private CatalogSnapshot(long version, PetSet available, PetSet all, PrefixIndex names, TypeIndex types) {
+        this.version = version;
+        this.available = available;
+        this.all = all;
+        this.names = names;
+        this.types = types;
+    }
+
+    /**
+     * Creates a snapshot of the pets in a mapped record file
+     * <br>
+     * Nothing is decoded, the indexes are built on the first search
+     *
+     * @param version The catalog version the pets belong to
+     * @param records The {@link PetRecordFile record file}, {@linkplain PetRecordFile#map() mapped} already
+     *
+     * @return The snapshot
+     */
+    static CatalogSnapshot mapped(long version, PetRecordFile records) {
+        return new CatalogSnapshot(version, new MappedPetSet(records, records.available()),
+                                   new MappedPetSet(records, records.listed()), null, null);
+    }
+
+    /**
+     * Creates the next version with a {@linkplain Pet Pet} added or replaced
+     * <br>
+     * The pet is available and part of the complete list afterwards
+     *
+     * @param pet The {@link Pet Pet} to add or replace
+     *
+     * @return The next snapshot, this snapshot is left untouched
+     */
+    CatalogSnapshot withPut(Pet pet) {
+        PrefixIndex nextNames = names;
+        TypeIndex nextTypes = types;
+        if (nextNames != null || nextTypes != null) {
+            Pet previous = available.get(pet.getId());
+            if (nextNames != null)
+                nextNames = (previous == null ? nextNames : nextNames.without(previous)).with(pet);
+            if (nextTypes != null)
+                nextTypes = (previous == null ? nextTypes : nextTypes.without(previous)).with(pet);
+        }
+        return new CatalogSnapshot(version + 1, available.with(pet), all.with(pet), nextNames, nextTypes);
+    }
+
+    /**
+     * Creates the next version with a {@linkplain Pet Pet} no longer available
+     * <br>
+     * The pet stays in the complete list
+     *
+     * @param id The id of the {@link Pet Pet} to remove
+     *
+     * @return The next snapshot, this snapshot is left untouched
+     */
+    CatalogSnapshot withRemoved(int id) {
+        if (!available.contains(id))
+            return new CatalogSnapshot(version + 1, available, all, names, types);
+        PrefixIndex nextNames = names;
+        TypeIndex nextTypes = types;
+        if (nextNames != null || nextTypes != null) {
+            Pet previous = available.get(id);
+            if (nextNames != null)
+                nextNames = nextNames.without(previous);
+            if (nextTypes != null)
+                nextTypes = nextTypes.without(previous);
+        }
+        return new CatalogSnapshot(version + 1, available.without(id), all, nextNames, nextTypes);
+    }
+
+    /**
+     * Creates the next version with a batch of {@linkplain Pet Pets} added or replaced
+     * <br>
+     * The indexes are left to the next search, rebuilding them once is cheaper
+     * than updating them pet by pet
+     *
+     * @param pets The {@link Pet Pets} to add or replace
+     *
+     * @return The next snapshot, this snapshot is left untouched
+     */
+    CatalogSnapshot withPutAll(Pet[] pets) {
+        return new CatalogSnapshot(version + 1, available.withAll(pets), all.withAll(pets), null, null);
+    }
+
+    /**
+     * Creates the next version with a batch of {@linkplain Pet Pets} no longer available
+     * <br>
+     * The indexes are left to the next search
+     *
+     * @param ids The ids of the {@link Pet Pets} to remove
+     *
+     * @return The next snapshot, this snapshot is left untouched
+     */
+    CatalogSnapshot withRemovedAll(int[] ids) {
+        return new CatalogSnapshot(version + 1, available.withoutAll(ids), all, null, null);
+    }
+
+    /**
+     * Retrieves the catalog version of this snapshot
+     *
+     * @return The version
+     */
+    long version() {
+        return version;
+    }
+
+    /**
+     * Retrieves an available {@linkplain Pet Pet}
+     *
+     * @param id The id of the {@link Pet Pet}
+     *
+     * @return The {@link Pet Pet}, null if it is not available
+     */
+    Pet getAvailable(int id) {
+        return available.get(id);
+    }
+
+    /**
+     * Checks whether a {@linkplain Pet Pet} is available without reading it
+     *
+     * @param id The id of the {@link Pet Pet}
+     *
+     * @return true if the pet can still be adopted
+     */
+    boolean isAvailable(int id) {
+        return available.contains(id);
+    }
+
+    /**
+     * Retrieves a {@linkplain Pet Pet} from the complete list
+     *
+     * @param id The id of the {@link Pet Pet}
+     *
+     * @return The {@link Pet Pet}, null if it was never listed
+     */
+    Pet get(int id) {
+        return all.get(id);
+    }
+
+    /**
+     * Retrieves the available {@linkplain Pet Pets}
+     *
+     * @return A copy of the available {@link Pet Pets} in id order
+     */
+    Pet[] available() {
+        return available.toArray();
+    }
+
+    /**
+     * Retrieves a page of the available {@linkplain Pet Pets}
+     * <br>
+     * Costs a binary search plus the size of the page, no matter how big the catalog is
+     *
+     * @param after The id the page starts behind, the last id of the previous page
+     * @param limit The maximum number of {@link Pet Pets} on the page
+     *
+     * @return The available {@link Pet Pets} with an id greater than after, in id order, may be empty
+     */
+    Pet[] availablePage(int after, int limit) {
+        return available.page(after, limit);
+    }
+
+    /**
+     * Retrieves every {@linkplain Pet Pet} ever listed
+     *
+     * @return A copy of the complete list in id order
+     */
+    Pet[] all() {
+        return all.toArray();
+    }
+
+    /**
+     * Retrieves the available {@linkplain Pet Pets} whose name starts with the given text
+     * <br>
+     * Costs a binary search plus the number of matches, no matter how big the catalog is
+     *
+     * @param prefix The start of the name, case is ignored
+     *
+     * @return The matching {@link Pet Pets} in id order, may be empty
+     */
+    Pet[] findByName(String prefix) {
+        return names().startingWith(prefix);
+    }
+
+    /**
+     * Retrieves the available {@linkplain Pet Pets} whose animal type starts with the given text
+     * <br>
+     * Only the posting lists of the matching types are read
+     *
+     * @param prefix The start of the animal type, case is ignored
+     *
+     * @return The matching {@link Pet Pets} in id order, may be empty
+     */
+    Pet[] findByType(String prefix) {
+        return types().startingWith(prefix);
+    }
+
+    /**
+     * Checks whether a search index of this snapshot was built
+     *
+     * @return true once either index exists
+     */
+    boolean indexed() {
+        return names != null || types != null;
+    }
+
+    /**
+     * Retrieves the name index, building it on first use
+     * <br>
+     * Concurrent first searches may both build it, either result is the same
+     */
+    private PrefixIndex names() {
+        PrefixIndex index = names;
+        if (index == null)
+            names = index = new PrefixIndex(Pet::getName, available.toArray());
+        return index;
+    }
+
+    private TypeIndex types() {
+        TypeIndex index = types;
+        if (index == null)
+            types = index = new TypeIndex(available.toArray());
+        return index;
+    }
+}
@@ -0,0 +1,127 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces the writes of concurrent mutations into a single file write
+ * <br>
+ * A caller applies its mutation in memory and then calls {@link #commit()}.
+ * If no write is running, the caller becomes the leader and performs the
+ * write for everyone who committed before it started. Callers that arrive
+ * while a write is running join the next batch and are released as soon as
+ * the write that covers them has finished, so one file rewrite acknowledges
+ * any number of requests.
+ * <br>
+ * With a window greater than zero the leader additionally holds the batch
+ * open for up to that long, or until the batch size is reached, to let more
+ * mutations join.
+ *
+ * @author Group E
+ */
+class GroupCommitWriter {
+    /**
+     * Writes the current in-memory state to storage
+     */
+    interface Flush {
+        void write() throws IOException;
+    }
+
+    /**
+     * The group of commits covered by one write
+     */
+    private static class Batch {
+        int size;
+        boolean done;
+        IOException error;
+    }
+
+    private final Flush flush;
+    private final long windowNanos;     // How long a leader waits for more commits
+    private final int batchSize;        // Number of commits that ends the wait early
+    private Batch pending = new Batch();// The batch new commits join
+    private boolean writing;            // True while a leader owns the write
+
+    /**
+     * Creates a writer
+     *
+     * @param flush Performs the actual write
+     * @param windowMillis Time a leader waits for more commits, 0 to write right away
+     * @param batchSize Number of commits after which the leader stops waiting
+     */
+    GroupCommitWriter(Flush flush, long windowMillis, int batchSize) {
+        this.flush = flush;
+        this.windowNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, windowMillis));
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Waits until a write that started after this call has finished
+     *
+     * @throws IOException when the write covering this commit failed
+     */
+    void commit() throws IOException {
+        Batch batch;
+        synchronized (this) {
+            batch = pending;
+            batch.size++;
+            notifyAll(); // a waiting leader may now have a full batch
+
+            try {
+                while (writing && !batch.done)
+                    wait();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for group commit");
+            }
+            if (batch.done) {
+                if (batch.error != null)
+                    throw new IOException("Group commit failed", batch.error);
+                return;
+            }
+
+            // Nobody is writing, this caller leads the batch
+            writing = true;
+            awaitBatch(batch);
+            pending = new Batch();
+        }
+
+        IOException error = null;
+        try {
+            flush.write();
+        }
+        catch (IOException e) {
+            error = e;
+        }
+        finally {
+            synchronized (this) {
+                batch.done = true;
+                batch.error = error;
+                writing = false;
+                notifyAll();
+            }
+        }
+        if (error != null)
+            throw error;
+    }
+
+    /**
+     * Holds the batch open until the window closes or the batch is full
+     */
+    private void awaitBatch(Batch batch) {
+        long deadline = System.nanoTime() + windowNanos;
+        try {
+            while (batch.size < batchSize) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0)
+                    break;
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            }
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // write now with what we have
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out unique ids for new {@linkplain com.ufund.api.ufundapi.model.Pet Pets}
+ * <br>
+ * Ids come from an atomic counter, so allocating never takes a lock. When a
+ * reservation file is given, ids are reserved in blocks: before the counter
+ * passes the end of the current block, the end of the next block is written
+ * to the file. After a restart allocation continues behind the last
+ * reservation, so an id is never handed out twice even if the catalog files
+ * did not make it to disk. Unused ids of the last block are skipped.
+ *
+ * @author Group E
+ */
+final class IdAllocator {
+    private final AtomicInteger next;       // The next id to hand out
+    private final Path file;                // Reservation file, null to not reserve
+    private final int blockSize;            // Ids reserved with each write of the file
+    private volatile int reserved;          // Ids below this are reserved on disk
+
+    /**
+     * Creates an allocator
+     *
+     * @param filename The reservation file, empty to only count in memory
+     * @param blockSize Number of ids reserved with each write of the file
+     * @param floor The smallest id that may be handed out, one more than the greatest id in use
+     *
+     * @throws IOException when the reservation file cannot be read
+     */
+    IdAllocator(String filename, int blockSize, int floor) throws IOException {
+        this.blockSize = Math.max(1, blockSize);
+        this.file = filename == null || filename.isEmpty() ? null : Paths.get(filename);
+        int start = floor;
+        if (file != null && Files.exists(file)) {
+            String text = new String(Files.readAllBytes(file), StandardCharsets.UTF_8).trim();
+            if (!text.isEmpty())
+                start = Math.max(floor, Integer.parseInt(text));
+        }
+        this.next = new AtomicInteger(start);
+        this.reserved = file == null ? Integer.MAX_VALUE : start;
+    }
+
+    /**
+     * Allocates a single id
+     *
+     * @return The id
+     *
+     * @throws IOException when the next block cannot be reserved
+     */
+    int next() throws IOException {
+        return allocate(1);
+    }
+
+    /**
+     * Allocates a range of consecutive ids
+     *
+     * @param count The number of ids
+     *
+     * @return The first id of the range, the range ends before first + count
+     *
+     * @throws IOException when the ids cannot be reserved
+     */
+    int allocate(int count) throws IOException {
+        int first = next.getAndAdd(count);
+        int end = first + count;
+        if (end > reserved)
+            reserve(end);
+        return first;
+    }
+
+    /**
+     * Retrieves the id the next allocation starts at
+     *
+     * @return The next id
+     */
+    int peek() {
+        return next.get();
+    }
+
+    /**
+     * Writes a reservation that covers every id below end
+     * <br>
+     * Only taken once per block; concurrent callers wait for the write so that
+     * none of them uses an id before it is reserved
+     */
+    private synchronized void reserve(int end) throws IOException {
+        if (end <= reserved)
+            return;
+        int limit = Math.max(end, next.get()) + blockSize;
+        AtomicFile.write(file.toFile(), out -> out.write(Integer.toString(limit).getBytes(StandardCharsets.UTF_8)));
+        reserved = limit;
+    }
+}
@@ -0,0 +1,311 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+/**
+ * Streams the records of a JSON array file one at a time
+ * <br>
+ * The file is walked with a Jackson {@link JsonParser} and every element is
+ * bound and handed to the caller as soon as it is parsed, so the whole array
+ * never has to be held in memory next to the store it is loaded into. Large
+ * files report their progress to the log as they are read.
+ * <br>
+ * Given a {@link ForkJoinPool}, a large file is cut into chunks at record
+ * boundaries instead and the chunks are parsed on the pool. The records are
+ * still handed over on the calling thread and in file order. Only a few
+ * chunks more than the pool has threads are parsed ahead of the hand over,
+ * so the memory held by parsed chunks stays bounded however big the file is.
+ *
+ * @author Group E
+ */
+final class JsonArrayReader {
+    private static final Logger LOG = Logger.getLogger(JsonArrayReader.class.getName());
+    private static final long PROGRESS_MIN_BYTES = 16L << 20;   // Smaller files only log the summary
+    private static final int PROGRESS_STEPS = 10;               // Progress lines per large file
+    static final long CHUNK_BYTES = 8L << 20;                   // Bytes parsed by one task
+
+    private JsonArrayReader() {
+    }
+
+    /**
+     * Reads every element of the JSON array in a file
+     *
+     * @param <T> The type of the elements
+     * @param objectMapper Binds each element to a Java Object
+     * @param file The file holding a single JSON array
+     * @param type The class of the elements
+     * @param sink Receives each element in file order
+     *
+     * @return The number of elements read
+     *
+     * @throws IOException when the file cannot be read or is not a JSON array
+     */
+    static <T> int read(ObjectMapper objectMapper, File file, Class<T> type, Consumer<? super T> sink) throws IOException {
+        long length = file.length();
+        Progress progress = new Progress(file, length);
+        ObjectReader reader = objectMapper.readerFor(type);
+        int count;
+        try (JsonParser parser = objectMapper.getFactory().createParser(file)) {
+            count = JsonArrayReader.<T>readArray(reader, parser, file, element -> {
+                sink.accept(element);
+                progress.record(parser.getCurrentLocation().getByteOffset(), 1);
+            });
+        }
+        progress.done();
+        return count;
+    }
+
+    /**
+     * Reads every element of the JSON array in a file, parsing chunks of a
+     * large file in parallel
+     *
+     * @param <T> The type of the elements
+     * @param objectMapper Binds each element to a Java Object
+     * @param file The file holding a single JSON array
+     * @param type The class of the elements
+     * @param sink Receives each element in file order, always on the calling thread
+     * @param pool The pool the chunks are parsed on
+     *
+     * @return The number of elements read
+     *
+     * @throws IOException when the file cannot be read or is not a JSON array
+     */
+    static <T> int read(ObjectMapper objectMapper, File file, Class<T> type, Consumer<? super T> sink,
+                        ForkJoinPool pool) throws IOException {
+        return read(objectMapper, file, type, sink, pool, CHUNK_BYTES);
+    }
+
+    static <T> int read(ObjectMapper objectMapper, File file, Class<T> type, Consumer<? super T> sink,
+                        ForkJoinPool pool, long chunkBytes) throws IOException {
+        if (file.length() < 2 * chunkBytes)
+            return read(objectMapper, file, type, sink);   // not worth splitting
+
+        Progress progress = new Progress(file, file.length());
+        ObjectReader reader = objectMapper.readerFor(type);
+        long[] bounds = split(file, chunkBytes);
+        int chunks = bounds.length - 1;
+        int window = pool.getParallelism() + 1;    // Chunks parsed ahead of the merge, one per thread and one spare
+        Deque<ForkJoinTask<List<T>>> parsing = new ArrayDeque<>(window);
+
+        // Merge in file order, submitting the next chunk as each one is
+        // handed over and dropping it right after
+        int count = 0;
+        int submitted = 0;
+        for (int i = 0; i < chunks; i++) {
+            for (; submitted < chunks && submitted < i + window; submitted++)
+                parsing.add(submitChunk(pool, objectMapper, reader, file, bounds, submitted));
+            List<T> elements = join(parsing.poll());
+            for (T element : elements)
+                sink.accept(element);
+            count += elements.size();
+            progress.record(bounds[i + 1], elements.size());
+        }
+        progress.done();
+        return count;
+    }
+
+    /**
+     * Finds the positions that cut the array in a file into chunks of about the given size
+     * <br>
+     * The file is scanned once, tracking nesting and strings, so only the
+     * commas between two top-level elements are picked
+     *
+     * @param file The file holding a single JSON array
+     * @param chunkBytes The size a chunk should reach before it is cut
+     *
+     * @return The position of the opening bracket, of each separating comma
+     * that was picked, and of the closing bracket
+     *
+     * @throws IOException when the file cannot be read or is not a JSON array
+     */
+    static long[] split(File file, long chunkBytes) throws IOException {
+        List<Long> bounds = new ArrayList<>();
+        int depth = 0;
+        boolean inString = false;
+        boolean escaped = false;
+        long position = 0;
+        try (InputStream in = new FileInputStream(file)) {
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                for (int i = 0; i < read; i++, position++) {
+                    byte b = buffer[i];
+                    if (inString) {
+                        if (escaped)
+                            escaped = false;
+                        else if (b == '\\')
+                            escaped = true;
+                        else if (b == '"')
+                            inString = false;
+                        continue;
+                    }
+                    switch (b) {
+                        case '"':
+                            inString = true;
+                            break;
+                        case '[':
+                        case '{':
+                            if (depth++ == 0) {
+                                if (b != '[')
+                                    throw new IOException("Expected a JSON array in " + file);
+                                bounds.add(position);
+                            }
+                            break;
+                        case ']':
+                        case '}':
+                            if (--depth == 0) {
+                                bounds.add(position);
+                                return toArray(bounds);
+                            }
+                            break;
+                        case ',':
+                            if (depth == 1 && position - bounds.get(bounds.size() - 1) >= chunkBytes)
+                                bounds.add(position);
+                            break;
+                        default:
+                            break;
+                    }
+                }
+            }
+        }
+        throw new EOFException("Unexpected end of " + file);
+    }
+
+    /**
+     * Starts parsing one chunk of a file on the pool
+     */
+    private static <T> ForkJoinTask<List<T>> submitChunk(ForkJoinPool pool, ObjectMapper objectMapper, ObjectReader reader,
+                                                         File file, long[] bounds, int chunk) {
+        long from = bounds[chunk] + 1;  // skip the '[' or ',' in front of the chunk
+        long to = bounds[chunk + 1];
+        return pool.submit(() -> JsonArrayReader.<T>parseChunk(objectMapper, reader, file, from, to));
+    }
+
+    /**
+     * Parses the elements between two positions of a file
+     */
+    private static <T> List<T> parseChunk(ObjectMapper objectMapper, ObjectReader reader, File file,
+                                          long from, long to) throws IOException {
+        // Wrap the chunk in brackets so it reads as an array of its own
+        int length = Math.toIntExact(to - from);
+        byte[] data = new byte[length + 2];
+        data[0] = '[';
+        data[length + 1] = ']';
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.wrap(data, 1, length);
+            long position = from;
+            while (buffer.hasRemaining()) {
+                int read = channel.read(buffer, position);
+                if (read < 0)
+                    throw new EOFException("Unexpected end of " + file);
+                position += read;
+            }
+        }
+
+        List<T> elements = new ArrayList<>();
+        try (JsonParser parser = objectMapper.getFactory().createParser(data)) {
+            JsonArrayReader.<T>readArray(reader, parser, file, elements::add);
+        }
+        return elements;
+    }
+
+    /**
+     * Binds every element of the array the parser is positioned in front of
+     */
+    private static <T> int readArray(ObjectReader reader, JsonParser parser, File file,
+                                     Consumer<? super T> sink) throws IOException {
+        if (parser.nextToken() != JsonToken.START_ARRAY)
+            throw new JsonParseException(parser, "Expected a JSON array in " + file);
+
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null)
+                throw new JsonParseException(parser, "Unexpected end of " + file);
+            sink.accept(reader.readValue(parser));
+            ++count;
+        }
+        return count;
+    }
+
+    /**
+     * Waits for a task and rethrows what it failed with
+     */
+    static <T> T join(ForkJoinTask<T> task) throws IOException {
+        try {
+            return task.get();
+        }
+        catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while loading", e);
+        }
+    }
+
+    private static long[] toArray(List<Long> values) {
+        long[] array = new long[values.size()];
+        for (int i = 0; i < array.length; i++)
+            array[i] = values.get(i);
+        return array;
+    }
+
+    /**
+     * Logs how far the load of one file got
+     */
+    private static final class Progress {
+        private final File file;
+        private final long length;
+        private final long step;
+        private final long started = System.nanoTime();
+        private long nextReport;
+        private int count;
+
+        Progress(File file, long length) {
+            this.file = file;
+            this.length = length;
+            this.step = length >= PROGRESS_MIN_BYTES ? length / PROGRESS_STEPS : Long.MAX_VALUE;
+            this.nextReport = step;
+        }
+
+        void record(long offset, int records) {
+            count += records;
+            if (offset >= nextReport) {
+                LOG.info("Loading " + file.getName() + ": " + (offset * 100 / length) + "% (" + count + " records)");
+                nextReport = offset + step;
+            }
+        }
+
+        void done() {
+            LOG.info("Loaded " + count + " records from " + file.getName() + " in "
+                     + (System.nanoTime() - started) / 1_000_000 + " ms");
+        }
+    }
+}
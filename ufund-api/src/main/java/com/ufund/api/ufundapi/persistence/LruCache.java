@@ -0,0 +1,130 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded map that drops the least recently used entries
+ * <br>
+ * The entries are spread over segments by the hash of their key, each with
+ * its own lock and its own share of the capacity, so lookups of different
+ * keys rarely wait for each other. A small cache has a single segment and
+ * evicts in exact least recently used order.
+ *
+ * @param <K> The type of key
+ * @param <V> The type of value
+ *
+ * @author Group E
+ */
+final class LruCache<K,V> {
+    private static final int MAX_SEGMENTS = 16;         // Power of two so a mask picks the segment
+    private static final int MIN_SEGMENT_SIZE = 64;     // Entries a segment holds at least
+
+    private final Segment<K,V>[] segments;
+    private final int capacity;
+
+    /**
+     * Creates a cache
+     *
+     * @param capacity The number of entries kept
+     *
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})   // generic arrays are created raw
+    LruCache(int capacity) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Cache capacity must be positive, was " + capacity);
+        this.capacity = capacity;
+        int count = Math.min(MAX_SEGMENTS, Integer.highestOneBit(Math.max(1, capacity / MIN_SEGMENT_SIZE)));
+        segments = new Segment[count];
+        for (int i = 0; i < count; i++)
+            segments[i] = new Segment<>((capacity + count - 1) / count);
+    }
+
+    /**
+     * Retrieves a value and marks it as most recently used
+     *
+     * @param key The key of the value
+     *
+     * @return The value, null if it is not cached
+     */
+    V get(K key) {
+        Segment<K,V> segment = segmentFor(key);
+        synchronized(segment) {
+            return segment.get(key);
+        }
+    }
+
+    /**
+     * Adds or replaces a value, evicting the least recently used entry of its segment when full
+     *
+     * @param key The key of the value
+     * @param value The value
+     */
+    void put(K key, V value) {
+        Segment<K,V> segment = segmentFor(key);
+        synchronized(segment) {
+            segment.put(key, value);
+        }
+    }
+
+    /**
+     * Drops a value
+     *
+     * @param key The key of the value
+     */
+    void remove(K key) {
+        Segment<K,V> segment = segmentFor(key);
+        synchronized(segment) {
+            segment.remove(key);
+        }
+    }
+
+    /**
+     * Retrieves the number of cached entries
+     *
+     * @return The entries of all segments
+     */
+    int size() {
+        int size = 0;
+        for (Segment<K,V> segment : segments) {
+            synchronized(segment) {
+                size += segment.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Retrieves the number of entries the cache keeps
+     *
+     * @return The capacity given at creation
+     */
+    int capacity() {
+        return capacity;
+    }
+
+    private Segment<K,V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= (hash >>> 16);  // spread the high bits over the mask
+        return segments[hash & (segments.length - 1)];
+    }
+
+    /**
+     * One lock's share of the cache, kept in access order
+     */
+    private static final class Segment<K,V> extends LinkedHashMap<K,V> {
+        private static final long serialVersionUID = 1L;
+        private final int capacity;
+
+        Segment(int capacity) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<K,V> eldest) {
+            return size() > capacity;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * {@link PetSet} read from a memory-mapped {@link PetRecordFile}
+ * <br>
+ * The heap only holds a bit per id and the {@linkplain Pet Pets} written since
+ * the file was mapped. Every other pet is decoded from its mapped slot each time
+ * it is asked for, as it was when the file was mapped, so the page cache holds
+ * the catalog instead of the heap.
+ *
+ * @author Group E
+ */
+final class MappedPetSet implements PetSet {
+    private final PetRecordFile records;    // Decodes the pets as they were mapped
+    private final BitSet ids;               // Ids in the set, never changed once constructed
+    private final int size;                 // Number of set bits
+    private final SortedPetSet written;     // Pets put since mapping, they win over their slot
+
+    /**
+     * Creates a set of the mapped pets with the given ids
+     *
+     * @param records The mapped record file
+     * @param ids The ids of the {@link Pet Pets} in the set, owned by the set afterwards
+     */
+    MappedPetSet(PetRecordFile records, BitSet ids) {
+        this(records, ids, new SortedPetSet(Collections.emptyList()));
+    }
+
+    private MappedPetSet(PetRecordFile records, BitSet ids, SortedPetSet written) {
+        this.records = records;
+        this.ids = ids;
+        this.size = ids.cardinality();
+        this.written = written;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Pet get(int id) {
+        if (!contains(id))
+            return null;
+        Pet pet = written.get(id);
+        return pet != null ? pet : read(id);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public boolean contains(int id) {
+        return id >= 0 && ids.get(id);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Pet[] toArray() {
+        return collect(ids.nextSetBit(0), size);
+    }
+
+    /**
+    ** {@inheritDoc}
+     * <br>
+     * Costs the size of the page plus the ids skipped over, only the pets on the page are decoded
+     */
+    @Override
+    public Pet[] page(int after, int limit) {
+        if (after == Integer.MAX_VALUE)
+            return new Pet[0];
+        return collect(ids.nextSetBit(Math.max(0, after + 1)), limit);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public MappedPetSet with(Pet pet) {
+        return new MappedPetSet(records, withIds(pet.getId()), written.with(pet));
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public MappedPetSet without(int id) {
+        if (!contains(id))
+            return this;
+        BitSet next = (BitSet) ids.clone();
+        next.clear(id);
+        return new MappedPetSet(records, next, written.without(id));
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public MappedPetSet withAll(Pet[] pets) {
+        BitSet next = (BitSet) ids.clone();
+        for (Pet pet : pets)
+            next.set(pet.getId());
+        return new MappedPetSet(records, next, written.withAll(pets));
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public MappedPetSet withoutAll(int[] removed) {
+        BitSet next = (BitSet) ids.clone();
+        for (int id : removed) {
+            if (id >= 0)
+                next.clear(id);
+        }
+        return new MappedPetSet(records, next, written.withoutAll(removed));
+    }
+
+    /**
+     * Shares the ids when the pet is already in the set, an update only changes the written pets
+     */
+    private BitSet withIds(int id) {
+        if (contains(id))
+            return ids;
+        BitSet next = (BitSet) ids.clone();
+        next.set(id);
+        return next;
+    }
+
+    private Pet[] collect(int from, int limit) {
+        Pet[] pets = new Pet[Math.max(0, Math.min(limit, size))];
+        int n = 0;
+        for (int id = from; id >= 0 && n < pets.length; id = ids.nextSetBit(id + 1)) {
+            Pet pet = written.get(id);
+            pets[n++] = pet != null ? pet : read(id);
+        }
+        return n == pets.length ? pets : Arrays.copyOf(pets, n);
+    }
+
+    private Pet read(int id) {
+        try {
+            return records.read(id);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
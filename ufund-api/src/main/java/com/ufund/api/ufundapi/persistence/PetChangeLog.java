@@ -0,0 +1,123 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.Arrays;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Bounded log of the pet ids each catalog version changed
+ * <br>
+ * Every mutation records the version it publishes together with the ids of
+ * the {@linkplain Pet Pets} it created, updated or removed, so the pets that
+ * changed after a given version are found without comparing catalogs. The
+ * log keeps the latest changes in a ring of fixed size. Once a change is
+ * overwritten, or the catalog is replaced as a whole, versions before it can
+ * no longer be answered and their clients have to take the full catalog.
+ *
+ * @author Group E
+ */
+final class PetChangeLog {
+    private final long[] versions;  // Version published by each change, in ring order
+    private final int[][] ids;      // Pet ids changed by each change
+    private int next;               // Slot the next change goes to
+    private int count;              // Changes held
+    private long floor;             // Every change after this version is held
+
+    /**
+     * Creates an empty log
+     *
+     * @param capacity The number of changes kept
+     * @param version The catalog version the log starts from
+     *
+     * @throws IllegalArgumentException when the capacity is not positive
+     */
+    PetChangeLog(int capacity, long version) {
+        if (capacity < 1)
+            throw new IllegalArgumentException("Change log capacity must be positive, was " + capacity);
+        versions = new long[capacity];
+        ids = new int[capacity][];
+        floor = version;
+    }
+
+    /**
+     * Records the pets a version changed, overwriting the oldest change when full
+     * <br>
+     * Must be called before the version is published, so every published
+     * version can be answered from the log
+     *
+     * @param version The catalog version the change publishes
+     * @param changed The ids of the changed {@link Pet Pets}, not modified afterwards
+     */
+    synchronized void record(long version, int... changed) {
+        if (count == versions.length)
+            floor = versions[next];     // clients behind the overwritten change take the full catalog
+        else
+            count++;
+        versions[next] = version;
+        ids[next] = changed;
+        next = (next + 1) % versions.length;
+    }
+
+    /**
+     * Forgets every change, for a catalog that was replaced as a whole
+     *
+     * @param version The catalog version of the replacement
+     */
+    synchronized void reset(long version) {
+        Arrays.fill(ids, null);
+        count = 0;
+        floor = version;
+    }
+
+    /**
+     * Collects the pets changed after one version up to another
+     *
+     * @param since The catalog version the client holds
+     * @param upTo The catalog version the client is brought to
+     *
+     * @return The sorted ids of the changed {@link Pet Pets} without duplicates,
+     * null when the log no longer holds every change after since
+     */
+    synchronized int[] changedSince(long since, long upTo) {
+        if (since < floor || since > upTo)
+            return null;
+        int total = 0;
+        int slot = next;
+        for (int i = 0; i < count; i++) {
+            slot = (slot == 0 ? versions.length : slot) - 1;    // newest first
+            if (versions[slot] <= since)
+                break;
+            if (versions[slot] <= upTo)
+                total += ids[slot].length;
+        }
+
+        int[] changed = new int[total];
+        int at = 0;
+        slot = next;
+        for (int i = 0; i < count; i++) {
+            slot = (slot == 0 ? versions.length : slot) - 1;
+            if (versions[slot] <= since)
+                break;
+            if (versions[slot] <= upTo) {
+                System.arraycopy(ids[slot], 0, changed, at, ids[slot].length);
+                at += ids[slot].length;
+            }
+        }
+        Arrays.sort(changed);
+        int size = 0;
+        for (int i = 0; i < changed.length; i++) {
+            if (size == 0 || changed[size - 1] != changed[i])
+                changed[size++] = changed[i];
+        }
+        return size == changed.length ? changed : Arrays.copyOf(changed, size);
+    }
+
+    /**
+     * Retrieves the oldest version the log can answer
+     *
+     * @return The version every later change is held for
+     */
+    synchronized long floor() {
+        return floor;
+    }
+}
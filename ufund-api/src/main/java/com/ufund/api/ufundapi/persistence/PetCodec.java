@@ -0,0 +1,50 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Binary record layout of a {@linkplain Pet Pet}
+ * <br>
+ * Version 1: id, animal type, name
+ *
+ * @author Group E
+ */
+final class PetCodec implements RecordCodec<Pet> {
+    static final PetCodec INSTANCE = new PetCodec();
+
+    private PetCodec() {
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public byte kind() {
+        return 'P';
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void encode(Pet pet, DataOutput out) throws IOException {
+        BinaryRecordFile.writeSignedVarInt(out, pet.getId());
+        BinaryRecordFile.writeString(out, pet.getAnimaltype());
+        BinaryRecordFile.writeString(out, pet.getName());
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Pet decode(DataInput in, int version) throws IOException {
+        int id = BinaryRecordFile.readSignedVarInt(in);
+        String animaltype = BinaryRecordFile.readString(in);
+        String name = BinaryRecordFile.readString(in);
+        return new Pet(id, animaltype, name);
+    }
+}
@@ -2,6 +2,7 @@ package com.ufund.api.ufundapi.persistence;
 
 import java.io.IOException;
 import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.PetChanges;
 
 /**
  * Defines the interface for Pet object persistence
@@ -18,6 +19,60 @@ public interface PetDAO {
      */
     Pet[] getPets() throws IOException;
 
+    /**
+     * Retrieves a page of the {@linkplain Pet Pets} in id order
+     * <br>
+     * The next page starts after the id of the last {@link Pet Pet} of this one
+     * 
+     * @param after The id the page starts behind, {@link Integer#MIN_VALUE} for the first page
+     * @param limit The maximum number of {@link Pet Pets} on the page
+     * 
+     * @return An array of {@link Pet Pet} objects, shorter than limit on the last page, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Pet[] getPets(int after, int limit) throws IOException;
+
+    /**
+     * Retrieves the version of the catalog
+     * <br>
+     * The version goes up with every pet created, updated or deleted, so an
+     * unchanged version means an unchanged catalog
+     * 
+     * @return The current catalog version
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    long getVersion() throws IOException;
+
+    /**
+     * Retrieves every available {@linkplain Pet Pet} together with the catalog version they belong to
+     * <br>
+     * Unlike separate calls to {@link #getVersion()} and {@link #getPets()},
+     * the version and the pets are always read from the same catalog
+     * 
+     * @return The whole catalog as a full resync {@link PetChanges changes}
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    PetChanges getCatalog() throws IOException;
+
+    /**
+     * Retrieves the changes of the catalog since a version
+     * <br>
+     * Lists the {@linkplain Pet Pets} created or updated and the ids of the
+     * ones removed after the given version. When the changes since that
+     * version are no longer known, every available pet is returned instead
+     * as a full resync
+     * 
+     * @param since The catalog version the caller holds, negative for none
+     * 
+     * @return The {@link PetChanges changes} up to the current version
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    PetChanges getChanges(long since) throws IOException;
+
     /**
      * Finds all {@linkplain Pet Pets} whose name contains the given text
      * 
@@ -79,6 +134,19 @@ public interface PetDAO {
      */
     Pet createPet(Pet Pet) throws IOException;
 
+    /**
+     * Creates and saves a batch of {@linkplain Pet Pets} in one step
+     * <br>
+     * The new ids are allocated together and the catalog is written once for the whole batch
+     * 
+     * @param pets {@link Pet Pets} to be created, their ids are ignored
+     * 
+     * @return the new {@link Pet Pets} with their assigned ids, in the order given
+     * 
+     * @throws IOException if underlying storage cannot be accessed
+     */
+    Pet[] createPets(Pet[] pets) throws IOException;
+
     /**
      * Updates and saves a {@linkplain Pet Pet}
      * 
@@ -3,15 +3,26 @@ package com.ufund.api.ufundapi.persistence;
 import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.PetChanges;
 
 /**
  * Implements the functionality for JSON file-based peristance for Pet
@@ -30,34 +41,124 @@ public class PetFileDAO implements PetDAO {
     private ObjectMapper objectMapper;  // Provides conversion between Pet
                                         // objects and JSON text format written
                                         // to the file
-    private static int nextId;  // The next Id to assign to a new Pet
+    private IdAllocator ids;    // Assigns the ids of new Pets
+    private String idsFile;     // Reservation file of the id allocator, empty to not reserve
+    private int idBlock;        // Ids reserved at a time
+    private boolean streaming;  // Load the files record by record instead of as whole arrays
+    private int loadThreads;    // Threads parsing the files at startup, 0 for one per core
+    private boolean binary;     // Files hold binary records instead of JSON
     private String filename;    // Filename to read from and write to
     private String filename2;
+    private PetJournal journal;     // Log of mutations since the last checkpoint,
+                                    // null when every mutation rewrites the files
+    private int checkpointInterval; // Journal records between two checkpoints
+    private PetRecordFile records;  // Slot per pet updated in place, null when the files are the store
+    private GroupCommitWriter recordsCommit;    // Forces the written slots, concurrent mutations share a force
+    private boolean mapped;         // Serve the record file through a memory mapping, decoding pets on access,
+                                    // the maps stay empty then
+    private volatile CatalogSnapshot snapshot;  // Published catalog that all reads are served from,
+                                                // replaced as a whole by every mutation
+    private static final int BULK_REBUILD = 64;   // Batches above this rebuild the snapshot instead of
+                                                // applying one copy-on-write step per pet
+    private PetChangeLog changes;   // Pets changed by the latest versions, answers delta requests
+    private static final int CHANGE_LOG_SIZE = 4096;  // Versions a delta can reach back
+    private final List<RemovalListener> listeners = new CopyOnWriteArrayList<>();
 
     /**
-     * Creates a Pet File Data Access Object
+     * Gets told about every {@linkplain Pet Pet} that is no longer available
+     */
+    interface RemovalListener {
+        /**
+         * Called after the removal was published and persisted
+         * 
+         * @param pet The {@link Pet Pet} that was removed
+         * 
+         * @throws IOException when the listener cannot persist its own changes
+         */
+        void petRemoved(Pet pet) throws IOException;
+    }
+
+    /**
+     * Creates a Pet File Data Access Object that rewrites the files on every mutation
      * 
      * @param filename Filename to read from and write to
      * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public PetFileDAO(@Value("${pets.file}") String filename, @Value("${petList.file}") String filename2, ObjectMapper objectMapper) throws IOException {
-        this.filename = filename;
-        this.filename2 = filename2;
-        this.objectMapper = objectMapper;
-        load();  // load the Pet from the file
+    public PetFileDAO(String filename, String filename2, ObjectMapper objectMapper) throws IOException {
+        this(filename, filename2, "", 0, objectMapper);
     }
 
     /**
-     * Generates the next id for a new {@linkplain Pet Pet}
+     * Creates a Pet File Data Access Object that assigns ids in memory only
      * 
-     * @return The next id
+     * @param filename Filename to read from and write to
+     * @param filename2 Filename of the complete list of pets
+     * @param journalFile Filename of the mutation journal, empty to disable journaling
+     * @param checkpointInterval Number of journal records that triggers a checkpoint
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
      */
-    private synchronized static int nextId() {
-        int id = nextId;
-        ++nextId;
-        return id;
+    public PetFileDAO(String filename, String filename2, String journalFile, int checkpointInterval,
+                      ObjectMapper objectMapper) throws IOException {
+        this(filename, filename2, journalFile, checkpointInterval, "", 0, false, 1, "json", "", false, objectMapper);
+    }
+
+    /**
+     * Creates a Pet File Data Access Object
+     * <br>
+     * When a journal file is given, mutations are appended to the journal and the
+     * files are only rewritten every checkpointInterval mutations. When a record
+     * file is given, it replaces the files and the journal: every mutation is a
+     * single write of the pet's slot, forced to the device before the call
+     * returns, and concurrent mutations share a force. A new record file is
+     * filled from the files.
+     * A mapped record file is not decoded at startup, pets are read from the
+     * mapping when asked for and the search indexes are built on the first search.
+     * Only the pets written since startup are kept on the heap then
+     * 
+     * @param filename Filename to read from and write to
+     * @param filename2 Filename of the complete list of pets
+     * @param journalFile Filename of the mutation journal, empty to disable journaling
+     * @param checkpointInterval Number of journal records that triggers a checkpoint
+     * @param idsFile Filename the reserved id blocks are recorded in, empty to not reserve ids
+     * @param idBlock Number of ids reserved at a time
+     * @param streaming true to parse the files record by record while loading
+     * @param loadThreads Number of threads parsing the files while loading, 0 for one per core
+     * @param format Format of the files, {@code json} or {@code binary}
+     * @param recordsFile Filename of the fixed-width record file, empty to use the files
+     * @param mapped true to serve the record file through a memory mapping
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    @Autowired
+    public PetFileDAO(@Value("${pets.file}") String filename, @Value("${petList.file}") String filename2,
+                      @Value("${pets.journal.file:}") String journalFile, @Value("${pets.journal.checkpoint:1000}") int checkpointInterval,
+                      @Value("${pets.ids.file:}") String idsFile, @Value("${pets.ids.block:1000}") int idBlock,
+                      @Value("${storage.streaming:false}") boolean streaming, @Value("${storage.load.threads:1}") int loadThreads,
+                      @Value("${storage.format:json}") String format, @Value("${pets.records.file:}") String recordsFile,
+                      @Value("${pets.records.mapped:false}") boolean mapped, ObjectMapper objectMapper) throws IOException {
+        this.filename = filename;
+        this.filename2 = filename2;
+        this.objectMapper = objectMapper;
+        this.idsFile = idsFile;
+        this.idBlock = idBlock;
+        this.streaming = streaming;
+        this.loadThreads = loadThreads;
+        this.binary = BinaryRecordFile.isBinary(format);
+        if (recordsFile != null && !recordsFile.isEmpty()) {
+            this.records = new PetRecordFile(recordsFile);
+            this.recordsCommit = new GroupCommitWriter(records::force, 0, 1);
+            this.mapped = mapped;
+        }
+        else if (journalFile != null && !journalFile.isEmpty()) {
+            this.journal = new PetJournal(journalFile, objectMapper);
+            this.checkpointInterval = Math.max(1, checkpointInterval);
+        }
+        load();  // load the Pet from the file
     }
 
     /**
@@ -66,7 +167,15 @@ public class PetFileDAO implements PetDAO {
      * @return  The array of {@link Pet Pet}, may be empty
      */
     private Pet[] getPetsArray() {
-        return getPetsArray(null);
+        ArrayList<Pet> petArrayList = new ArrayList<>();
+
+        for (Pet pet : pets.values()) {
+            petArrayList.add(pet);
+        }
+
+        Pet[] petArray = new Pet[petArrayList.size()];
+        petArrayList.toArray(petArray);
+        return petArray;
     }
 
     private Pet[] getPetListArray(){
@@ -82,111 +191,374 @@ public class PetFileDAO implements PetDAO {
     }
 
     /**
-     * Generates an array of {@linkplain Pet Pet} from the tree map for any
-     * {@linkplain Pet Pet} that contains the text specified by containsText
-     * <br>
-     * If containsText is null, the array contains all of the {@linkplain Pet Pet}
-     * in the tree map
+     * Saves the {@linkplain Pet Pet} from the map into the file as an array of JSON objects,
+     * or as binary records
      * 
-     * @return  The array of {@link Pet Pet}, may be empty
+     * @return true if the {@link Pet Pet} were written successfully
+     * 
+     * @throws IOException when file cannot be accessed or written to
      */
-    private Pet[] getPetsArray(String containsText) { // if containsText == null, no filter
-        ArrayList<Pet> petArrayList = new ArrayList<>();
+    private boolean save() throws IOException {
+        Pet[] petArray = getPetsArray();
+        Pet[] petListArray = getPetListArray();
 
-        for (Pet pet : pets.values()) {
-            if (containsText == null || pet.getName().toLowerCase().startsWith(containsText.toLowerCase())) {
-                petArrayList.add(pet);
-            }
+        if (binary) {
+            BinaryRecordFile.write(new File(filename), PetCodec.INSTANCE, petArray);
+            BinaryRecordFile.write(new File(filename2), PetCodec.INSTANCE, petListArray);
+            return true;
         }
 
-        Pet[] petArray = new Pet[petArrayList.size()];
-        petArrayList.toArray(petArray);
-        return petArray;
+        // Serializes the Java Objects to JSON objects into the file
+        // writeValue will thrown an IOException if there is an issue
+        // with the file or reading from the file. Each file is replaced
+        // as a whole, so a crash during a checkpoint leaves the previous one
+        AtomicFile.write(new File(filename), out -> objectMapper.writeValue(out, petArray));
+        AtomicFile.write(new File(filename2), out -> objectMapper.writeValue(out, petListArray));
+        return true;
     }
 
     /**
-     * Generates an array of {@linkplain Pet Pet} from the tree map for any
-     * {@linkplain Pet Pet} that contains the type specified by containsText
+     * Retrieves the published snapshot of the current catalog
      * <br>
-     * If containsText is null, the array contains all of the {@linkplain Pet Pet}
-     * in the tree map
+     * Other DAOs can read the catalog from it without file I/O or any lock
      * 
-     * @return  The array of {@link Pet Pet}, may be empty
+     * @return The snapshot of the current catalog version
      */
-    private Pet[] getPetsArrayByType(String containsText) {
-        ArrayList<Pet> petArrayList = new ArrayList<>();
+    CatalogSnapshot snapshot() {
+        return snapshot;
+    }
 
-        for (Pet pet : pets.values()) {
-            if (pet.getAnimaltype().toLowerCase().startsWith(containsText.toLowerCase())) {
-                petArrayList.add(pet);
-            }
-        }
+    /**
+     * Registers a listener for {@linkplain Pet Pets} that are no longer available
+     * 
+     * @param listener The listener to call after each removal
+     */
+    void addRemovalListener(RemovalListener listener) {
+        listeners.add(listener);
+    }
 
-        Pet[] petArray = new Pet[petArrayList.size()];
-        petArrayList.toArray(petArray);
-        return petArray;
+    /**
+     * Publishes a snapshot of the whole catalog after the maps were replaced
+     * <br>
+     * The first version is taken from the clock, a thousand versions per
+     * millisecond, so versions handed out by an earlier run are behind the
+     * change log of this one and never mistaken for its versions
+     * 
+     * @param changed The ids of the {@link Pet Pets} that changed, null when the
+     * whole catalog was replaced
+     */
+    private void publishAll(int[] changed) {
+        long version = snapshot == null ? System.currentTimeMillis() * 1000 : snapshot.version() + 1;
+        // A mapped catalog is only published whole at startup, batches go through publish
+        CatalogSnapshot next = mapped ? CatalogSnapshot.mapped(version, records)
+                                      : new CatalogSnapshot(version, pets.values(), petList.values());
+        if (changes == null)
+            changes = new PetChangeLog(CHANGE_LOG_SIZE, version);
+        else if (changed == null)
+            changes.reset(version);
+        else
+            changes.record(version, changed);
+        snapshot = next;
     }
 
     /**
-     * Saves the {@linkplain Pet Pet} from the map into the file as an array of JSON objects
+     * Publishes the next snapshot after a single mutation, logging the change first
      * 
-     * @return true if the {@link Pet Pet} were written successfully
+     * @param next The snapshot of the next version
+     * @param id The id of the {@link Pet Pet} that changed
+     */
+    private void publish(CatalogSnapshot next, int id) {
+        changes.record(next.version(), id);
+        snapshot = next;
+    }
+
+    /**
+     * Publishes the next snapshot after a batch of mutations, logging the changes first
+     * 
+     * @param next The snapshot of the next version
+     * @param changed The ids of the {@link Pet Pets} that changed
+     */
+    private void publish(CatalogSnapshot next, int[] changed) {
+        changes.record(next.version(), changed);
+        snapshot = next;
+    }
+
+    /**
+     * Persists a single mutation
+     * <br>
+     * With a record file the mutation is written to the pet's slot, the caller
+     * {@linkplain #sync() forces} it once outside the catalog lock. Without a
+     * journal the whole catalog is saved, otherwise the mutation is appended
+     * to the journal and a checkpoint is taken once enough records have piled up
+     * 
+     * @param entry The mutation that was applied to the maps
+     * 
+     * @return true if the mutation was written successfully
      * 
      * @throws IOException when file cannot be accessed or written to
      */
-    private boolean save() throws IOException {
-        Pet[] petArray = getPetsArray();
-        Pet[] petListArray = getPetListArray();
+    private boolean persist(PetJournal.Entry entry) throws IOException {
+        if (records != null) {
+            if (entry.pet != null)
+                records.put(entry.pet);
+            else
+                records.remove(entry.id);
+            return true;
+        }
+        if (journal == null)
+            return save();
 
-        // Serializes the Java Objects to JSON objects into the file
-        // writeValue will thrown an IOException if there is an issue
-        // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),petArray);
-        objectMapper.writeValue(new File(filename2), petListArray);
+        journal.append(entry);
+        if (journal.size() >= checkpointInterval)
+            checkpoint();
         return true;
     }
 
     /**
-     * Loads {@linkplain Pet Pet} from the JSON file into the map
+     * Waits until the slots written so far reached the device
+     * <br>
+     * Called outside the catalog lock, so mutations that persisted meanwhile
+     * are covered by the same force. Nothing to do without a record file
+     * 
+     * @throws IOException when the record file cannot be flushed
+     */
+    private void sync() throws IOException {
+        if (recordsCommit != null)
+            recordsCommit.commit();
+    }
+
+    /**
+     * Writes the full catalog to the files and empties the journal, or flushes
+     * the record file
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    void checkpoint() throws IOException {
+        if (records != null) {
+            records.force();
+            return;
+        }
+        synchronized(pets) {
+            save();
+            if (journal != null)
+                journal.truncate();
+        }
+    }
+
+    /**
+     * Checkpoints any journaled mutations and releases the journal or the record file on shutdown
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (records != null) {
+            records.force();
+            records.close();
+            return;
+        }
+        if (journal == null)
+            return;
+        if (journal.size() > 0)
+            checkpoint();
+        journal.close();
+    }
+
+    /**
+     * Loads {@linkplain Pet Pet} from the JSON file, or from the record file, into the map
      * <br>
-     * Also sets next id to one more than the greatest id found in the file
+     * Also starts the id allocator behind the greatest id found in the files
      * 
      * @return true if the file was read successfully
      * 
      * @throws IOException when file cannot be accessed or read from
      */
     private boolean load() throws IOException {
-        pets = new TreeMap<>();
-        petList = new TreeMap<>();
-        nextId = 0;
-        // Deserializes the JSON objects from the file into an array of Pet
-        // readValue will throw an IOException if there's an issue with the file
-        // or reading from the file
-        Pet[] petsArray = objectMapper.readValue(new File(filename),Pet[].class);
-        Pet[] petListArray = objectMapper.readValue(new File(filename2),Pet[].class);
-        // Add each Pet to the tree map and keep track of the greatest id
-        for (Pet pet : petsArray) {
-            pets.put(pet.getId(),pet);
-            if (pet.getId() > nextId)
-                nextId = pet.getId();
+        TreeMap<Integer,Pet> pets = new TreeMap<>();
+        TreeMap<Integer,Pet> petList = new TreeMap<>();
+        boolean migrate = records != null && records.isEmpty();
+        if (records != null && !migrate) {
+            // Every slot holds its pet once, nothing to share
+            if (!mapped)
+                records.scan(pets, petList);
+        }
+        else {
+            readFiles(pets, petList);
         }
 
-        for (Pet pet: petListArray) {
-            petList.put(pet.getId(), pet);
+        // Replay the mutations made since the last checkpoint
+        if (journal != null)
+            journal.replay(pets, petList);
+        if (migrate) {
+            // First start with a record file, fill it from the files
+            for (Pet pet : petList.values())
+                records.put(pet, pets.containsKey(pet.getId()));
+            for (Pet pet : pets.values()) {
+                if (!petList.containsKey(pet.getId()))
+                    records.put(pet);
+            }
+            records.force();
+        }
+        if (mapped) {
+            // Served from the mapping, the snapshot reads the pets from there
+            records.map();
+            pets.clear();
+            petList.clear();
         }
-        // Make the next id one greater than the maximum from the file
-        ++nextId;
+        this.pets = pets;
+        this.petList = petList;
+
+        // Make the next id one greater than the maximum from the files
+        int maxId = 0;
+        if (mapped)
+            maxId = Math.max(maxId, records.maxId());
+        if (!pets.isEmpty())
+            maxId = pets.lastKey();
+        if (!petList.isEmpty())
+            maxId = Math.max(maxId, petList.lastKey());
+        ids = new IdAllocator(idsFile, idBlock, maxId + 1);
+        publishAll(null);
         return true;
     }
 
+    /**
+     * Reads both files into the given maps
+     * 
+     * @param pets Receives the available {@link Pet Pets}
+     * @param petList Receives every {@link Pet Pet}
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    private void readFiles(Map<Integer,Pet> pets, Map<Integer,Pet> petList) throws IOException {
+        if (loadThreads == 1) {
+            readPets(filename, pet -> pets.put(pet.getId(), pet), null);
+            readPets(filename2, pet -> petList.put(pet.getId(), pet), null);
+        }
+        else {
+            ForkJoinPool pool = new ForkJoinPool(loadThreads > 0 ? loadThreads : Runtime.getRuntime().availableProcessors());
+            try {
+                // Both files at once, each of them cut into chunks on the same pool
+                ForkJoinTask<?> list = pool.submit(() -> {
+                    readPets(filename2, pet -> petList.put(pet.getId(), pet), pool);
+                    return null;
+                });
+                readPets(filename, pet -> pets.put(pet.getId(), pet), pool);
+                JsonArrayReader.join(list);
+            }
+            finally {
+                pool.shutdown();
+            }
+        }
+        // Share the object of every pet listed in both files
+        for (Map.Entry<Integer,Pet> entry : petList.entrySet()) {
+            Pet available = pets.get(entry.getKey());
+            if (sameContent(available, entry.getValue()))
+                entry.setValue(available);
+        }
+    }
+
+    /**
+     * Reads the {@linkplain Pet Pets} of a JSON file in file order
+     * <br>
+     * Binary files are always read record by record. When streaming, each pet
+     * is handed over as soon as it is parsed instead
+     * of after the whole array was built. With a pool, chunks of a large file
+     * are parsed in parallel
+     * 
+     * @param file The file to read
+     * @param sink Receives each {@link Pet Pet}, on the calling thread
+     * @param pool The pool to parse on, null to parse on the calling thread
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    private void readPets(String file, Consumer<Pet> sink, ForkJoinPool pool) throws IOException {
+        if (binary) {
+            BinaryRecordFile.read(new File(file), PetCodec.INSTANCE, sink);
+            return;
+        }
+        if (pool != null) {
+            JsonArrayReader.read(objectMapper, new File(file), Pet.class, sink, pool);
+            return;
+        }
+        if (streaming) {
+            JsonArrayReader.read(objectMapper, new File(file), Pet.class, sink);
+            return;
+        }
+        // Deserializes the JSON objects from the file into an array of Pet
+        // readValue will throw an IOException if there's an issue with the file
+        // or reading from the file
+        for (Pet pet : objectMapper.readValue(new File(file),Pet[].class))
+            sink.accept(pet);
+    }
+
+    private static boolean sameContent(Pet a, Pet b) {
+        return a != null && a.getId() == b.getId()
+            && Objects.equals(a.getAnimaltype(), b.getAnimaltype())
+            && Objects.equals(a.getName(), b.getName());
+    }
+
     /**
     ** {@inheritDoc}
      */
     @Override
     public Pet[] getPets() {
-        synchronized(pets) {
-            return getPetsArray();
+        return snapshot.available();
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Pet[] getPets(int after, int limit) {
+        return snapshot.availablePage(after, limit);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public long getVersion() {
+        return snapshot.version();
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public PetChanges getCatalog() {
+        return fullResync(snapshot);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public PetChanges getChanges(long since) {
+        CatalogSnapshot current = snapshot;
+        int[] changed = since < 0 ? null : changes.changedSince(since, current.version());
+        if (changed == null)
+            return fullResync(current);
+
+        // A changed pet that is still available was created or updated, any other left the catalog
+        List<Pet> updated = new ArrayList<>(changed.length);
+        int[] removed = new int[changed.length];
+        int removedCount = 0;
+        for (int id : changed) {
+            Pet pet = current.getAvailable(id);
+            if (pet != null)
+                updated.add(pet);
+            else
+                removed[removedCount++] = id;
         }
+        return new PetChanges(current.version(), false, updated.toArray(new Pet[0]),
+                              Arrays.copyOf(removed, removedCount));
+    }
+
+    /**
+     * Lists every available {@linkplain Pet Pet} of a snapshot along with its version
+     */
+    private static PetChanges fullResync(CatalogSnapshot current) {
+        return new PetChanges(current.version(), true, current.available(), new int[0]);
     }
 
     /**
@@ -194,9 +566,7 @@ public class PetFileDAO implements PetDAO {
      */
     @Override
     public Pet[] findPets(String containsText) {
-        synchronized(pets) {
-            return getPetsArray(containsText);
-        }
+        return snapshot.findByName(containsText);
     }
 
     /**
@@ -204,9 +574,7 @@ public class PetFileDAO implements PetDAO {
      */
     @Override
     public Pet[] findPetsByType(String containsText) {
-        synchronized(pets) {
-            return getPetsArrayByType(containsText);
-        }
+        return snapshot.findByType(containsText);
     }
 
     /**
@@ -214,12 +582,7 @@ public class PetFileDAO implements PetDAO {
      */
     @Override
     public Pet getPet(int id) {
-        synchronized(pets) {
-            if (petList.containsKey(id))
-                return petList.get(id);
-            else
-                return null;
-        }
+        return snapshot.get(id);
     }
 
     /**
@@ -227,12 +590,7 @@ public class PetFileDAO implements PetDAO {
      */
     @Override
     public Pet getCurrentPet(int id) {
-        synchronized(pets) {
-            if (pets.containsKey(id))
-                return pets.get(id);
-            else
-                return null;
-        }
+        return snapshot.getAvailable(id);
     }
 
     /**
@@ -240,15 +598,72 @@ public class PetFileDAO implements PetDAO {
      */
     @Override
     public Pet createPet(Pet pet) throws IOException {
+        int id = ids.next();  // lock-free, outside the catalog lock
+        Pet newPet;
         synchronized(pets) {
             // We create a new Pet object because the id field is immutable
             // and we need to assign the next unique id
-            Pet newPet = new Pet(nextId(),pet.getAnimaltype(), pet.getName());
-            pets.put(newPet.getId(),newPet);
-            petList.put(newPet.getId(),newPet);
-            save(); // may throw an IOException
-            return newPet;
+            newPet = new Pet(id,pet.getAnimaltype(), pet.getName());
+            if (!mapped) {
+                pets.put(newPet.getId(),newPet);
+                petList.put(newPet.getId(),newPet);
+            }
+            publish(snapshot.withPut(newPet), newPet.getId());
+            persist(PetJournal.Entry.put(newPet)); // may throw an IOException
         }
+        sync();
+        return newPet;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Pet[] createPets(Pet[] pets) throws IOException {
+        Pet[] created = new Pet[pets.length];
+        if (pets.length == 0)
+            return created;
+        int first = ids.allocate(pets.length);  // one call for the whole batch
+        synchronized(this.pets) {
+            int[] changed = new int[created.length];
+            for (int i = 0; i < pets.length; i++) {
+                created[i] = new Pet(first + i, pets[i].getAnimaltype(), pets[i].getName());
+                changed[i] = created[i].getId();
+                if (!mapped) {
+                    this.pets.put(created[i].getId(), created[i]);
+                    petList.put(created[i].getId(), created[i]);
+                }
+            }
+            if (mapped) {
+                publish(snapshot.withPutAll(created), changed);
+            }
+            else if (pets.length > BULK_REBUILD) {
+                publishAll(changed);
+            }
+            else {
+                for (Pet pet : created)
+                    publish(snapshot.withPut(pet), pet.getId());
+            }
+
+            // Persist the batch once rather than once per pet
+            if (records != null) {
+                for (Pet pet : created)
+                    records.put(pet);   // forced once below
+            }
+            else if (journal == null) {
+                save();
+            }
+            else {
+                PetJournal.Entry[] entries = new PetJournal.Entry[created.length];
+                for (int i = 0; i < created.length; i++)
+                    entries[i] = PetJournal.Entry.put(created[i]);
+                journal.append(entries);    // one write and one force for the batch
+                if (journal.size() >= checkpointInterval)
+                    checkpoint();
+            }
+        }
+        sync();
+        return created;
     }
 
     /**
@@ -257,14 +672,18 @@ public class PetFileDAO implements PetDAO {
     @Override
     public Pet updatePet(Pet pet) throws IOException {
         synchronized(pets) {
-            if (pets.containsKey(pet.getId()) == false)
+            if (snapshot.isAvailable(pet.getId()) == false)
                 return null;  // Pet does not exist
 
-            pets.put(pet.getId(),pet);
-            petList.put(pet.getId(), pet);
-            save(); // may throw an IOException
-            return pet;
+            if (!mapped) {
+                pets.put(pet.getId(),pet);
+                petList.put(pet.getId(), pet);
+            }
+            publish(snapshot.withPut(pet), pet.getId());
+            persist(PetJournal.Entry.put(pet)); // may throw an IOException
         }
+        sync();
+        return pet;
     }
 
     /**
@@ -272,17 +691,84 @@ public class PetFileDAO implements PetDAO {
      */
     @Override
     public boolean deletePet(int id) throws IOException {
+        Pet removed;
+        boolean persisted;
         synchronized(pets) {
-            if (pets.containsKey(id)) {
+            removed = snapshot.getAvailable(id);
+            if (removed == null)
+                return false;
+            if (!mapped)
                 pets.remove(id);
-                return save();
+            publish(snapshot.withRemoved(id), id);
+            persisted = persist(PetJournal.Entry.delete(id));
+        }
+        sync();
+        // Outside the lock so listeners can read the catalog and do their own I/O
+        for (RemovalListener listener : listeners)
+            listener.petRemoved(removed);
+        return persisted;
+    }
+
+    /**
+     * Removes a batch of {@linkplain Pet Pets} from the available ones with one publish and one write
+     * <br>
+     * The {@link RemovalListener removal listeners} are not called, the caller
+     * takes care of whatever depends on the removed pets. A journal is not
+     * appended to, the catalog is checkpointed instead
+     * 
+     * @param ids The ids of the {@link Pet Pets} to remove
+     * 
+     * @return The {@link Pet Pets} that were available and are removed now
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    List<Pet> deletePets(int[] ids) throws IOException {
+        List<Pet> removed = new ArrayList<>(ids.length);
+        synchronized(pets) {
+            int[] sorted = ids.clone();
+            Arrays.sort(sorted);
+            for (int i = 0; i < sorted.length; i++) {
+                if (i > 0 && sorted[i] == sorted[i - 1])
+                    continue;
+                Pet pet = snapshot.getAvailable(sorted[i]);
+                if (pet == null)
+                    continue;
+                removed.add(pet);
+                if (!mapped)
+                    pets.remove(pet.getId());
+            }
+            if (removed.isEmpty())
+                return removed;
+            int[] changed = new int[removed.size()];
+            for (int i = 0; i < changed.length; i++)
+                changed[i] = removed.get(i).getId();
+            if (mapped) {
+                publish(snapshot.withRemovedAll(changed), changed);
+            }
+            else if (changed.length > BULK_REBUILD) {
+                publishAll(changed);
+            }
+            else {
+                for (int id : changed)
+                    publish(snapshot.withRemoved(id), id);
+            }
+
+            if (records != null) {
+                for (int id : changed)
+                    records.remove(id);     // forced once below
+            }
+            else {
+                checkpoint();   // rewrites the files once, or just saves them without a journal
             }
-            else
-                return false;
         }
+        sync();
+        return removed;
     }
 
     public void setPets(Map<Integer, Pet> pets){
-        this.pets=pets;
+        synchronized(this.pets) {
+            this.pets=pets;
+            publishAll(null);
+        }
     }
 }
@@ -0,0 +1,120 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-limited holds that reserve a pet for the user who put it in their basket
+ * <br>
+ * While a hold is active nobody else can hold or adopt the pet. Every hold is a
+ * lease that runs out on its own: the leases are tracked in a
+ * {@link TimingWheel}, so expiring them costs O(1) each and never involves
+ * looking at users or baskets.
+ *
+ * @author Group E
+ */
+final class PetHolds {
+    static final long TICK_MILLIS = 100;    // Resolution of the lease expiry
+    private static final int LEVELS = 4;    // 64^4 ticks of 100ms, more than half a year
+
+    /**
+     * The lease a user has on a pet
+     */
+    private static final class Hold {
+        final int id;
+        final String username;
+        TimingWheel.Timeout<Hold> timeout;
+
+        Hold(int id, String username) {
+            this.id = id;
+            this.username = username;
+        }
+    }
+
+    private final long leaseMillis;
+    private final LongSupplier clock;
+    private final Map<Integer,Hold> holds = new HashMap<>();  // Active hold of each pet id
+    private final TimingWheel<Hold> wheel;
+
+    /**
+     * Creates the holds
+     *
+     * @param leaseMillis How long a hold lasts
+     * @param clock Supplies the current time in milliseconds
+     */
+    PetHolds(long leaseMillis, LongSupplier clock) {
+        this.leaseMillis = leaseMillis;
+        this.clock = clock;
+        this.wheel = new TimingWheel<>(TICK_MILLIS, LEVELS, clock.getAsLong());
+    }
+
+    /**
+     * Takes or renews the hold of a user on a pet
+     *
+     * @param id The id of the pet
+     * @param username The user asking for the hold
+     *
+     * @return true if the user holds the pet now, false if another user does
+     */
+    synchronized boolean acquire(int id, String username) {
+        expire();
+        Hold hold = holds.get(id);
+        if (hold != null) {
+            if (!hold.username.equals(username))
+                return false;
+            wheel.cancel(hold.timeout);
+        }
+        else {
+            hold = new Hold(id, username);
+            holds.put(id, hold);
+        }
+        hold.timeout = wheel.schedule(hold, clock.getAsLong() + leaseMillis);
+        return true;
+    }
+
+    /**
+     * Checks whether a user other than the given one holds a pet
+     *
+     * @param id The id of the pet
+     * @param username The user asking
+     *
+     * @return true if someone else has an active hold on the pet
+     */
+    synchronized boolean heldByOther(int id, String username) {
+        expire();
+        Hold hold = holds.get(id);
+        return hold != null && !hold.username.equals(username);
+    }
+
+    /**
+     * Gives up the hold of a user on a pet
+     *
+     * @param id The id of the pet
+     * @param username The user giving up the hold
+     */
+    synchronized void release(int id, String username) {
+        Hold hold = holds.get(id);
+        if (hold != null && hold.username.equals(username)) {
+            holds.remove(id);
+            wheel.cancel(hold.timeout);
+        }
+    }
+
+    /**
+     * Releases every hold whose lease ran out
+     */
+    synchronized void expire() {
+        wheel.advance(clock.getAsLong(), hold -> holds.remove(hold.id, hold));
+    }
+
+    /**
+     * Retrieves the number of active holds
+     *
+     * @return The number of holds
+     */
+    synchronized int size() {
+        expire();
+        return holds.size();
+    }
+}
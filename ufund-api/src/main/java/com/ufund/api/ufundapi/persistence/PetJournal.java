@@ -0,0 +1,217 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Append-only log of {@linkplain Pet Pet} mutations
+ * <br>
+ * Each mutation is written as a single line of JSON to the end of the
+ * journal file so that a write costs the same no matter how big the
+ * catalog is. Every record is forced to the disk before the mutation is
+ * acknowledged. The full catalog files only get rewritten at checkpoints,
+ * after which the journal is truncated.
+ *
+ * @author Group E
+ */
+class PetJournal {
+    static final String PUT = "put";
+    static final String DELETE = "delete";
+
+    private final File file;            // Journal file to append to
+    private final ObjectMapper objectMapper;
+    private FileChannel channel;        // Opened lazily on the first append
+    private long validLength;           // Length of the journal up to the last complete record
+    private int records;                // Records written since the last checkpoint
+
+    /**
+     * A single journal record
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class Entry {
+        @JsonProperty("op") String op;
+        @JsonProperty("id") int id;
+        @JsonProperty("pet") Pet pet;
+
+        Entry(@JsonProperty("op") String op, @JsonProperty("id") int id, @JsonProperty("pet") Pet pet) {
+            this.op = op;
+            this.id = id;
+            this.pet = pet;
+        }
+
+        static Entry put(Pet pet) {
+            return new Entry(PUT, pet.getId(), pet);
+        }
+
+        static Entry delete(int id) {
+            return new Entry(DELETE, id, null);
+        }
+    }
+
+    /**
+     * Creates a journal backed by the given file
+     *
+     * @param filename The journal file, created on the first append if missing
+     * @param objectMapper Provides conversion between records and JSON text
+     */
+    PetJournal(String filename, ObjectMapper objectMapper) {
+        this.file = new File(filename);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Applies every complete record in the journal on top of the given maps
+     * <br>
+     * A record only counts once its terminating newline was read. A record
+     * that was only partly written when the process stopped, even one that
+     * only misses its newline, ends the replay; it is cut off before the
+     * next append
+     *
+     * @param pets The map of available {@link Pet Pets}
+     * @param petList The map of every {@link Pet Pet}
+     *
+     * @return The number of records applied
+     *
+     * @throws IOException when the journal cannot be read
+     */
+    int replay(Map<Integer,Pet> pets, Map<Integer,Pet> petList) throws IOException {
+        records = 0;
+        validLength = 0;
+        if (!file.exists())
+            return 0;
+
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file), 1 << 16)) {
+            ByteArrayOutputStream line = new ByteArrayOutputStream(256);
+            for (int b; (b = in.read()) != -1; ) {
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+                Entry entry;
+                try {
+                    entry = objectMapper.readValue(line.toByteArray(), Entry.class);
+                }
+                catch (IOException e) {
+                    break; // torn record from an interrupted append
+                }
+                apply(entry, pets, petList);
+                validLength += line.size() + 1;
+                ++records;
+                line.reset();
+            }
+            // Bytes after the last newline belong to a record whose append never finished
+        }
+        if (file.length() > validLength)
+            open();     // cuts the unfinished record off right away
+        return records;
+    }
+
+    /**
+     * Applies a single record to the given maps
+     */
+    static void apply(Entry entry, Map<Integer,Pet> pets, Map<Integer,Pet> petList) {
+        if (PUT.equals(entry.op)) {
+            pets.put(entry.pet.getId(), entry.pet);
+            petList.put(entry.pet.getId(), entry.pet);
+        }
+        else if (DELETE.equals(entry.op)) {
+            pets.remove(entry.id);
+        }
+    }
+
+    /**
+     * Appends a record to the end of the journal and forces it to the disk
+     *
+     * @param entry The record to append
+     *
+     * @throws IOException when the journal cannot be written to
+     */
+    synchronized void append(Entry entry) throws IOException {
+        append(new Entry[]{entry});
+    }
+
+    /**
+     * Appends a batch of records with a single write and forces them to the disk once
+     * <br>
+     * A crash during the write keeps a prefix of the batch at most, the batch
+     * was not acknowledged then
+     *
+     * @param entries The records to append, in order
+     *
+     * @throws IOException when the journal cannot be written to
+     */
+    synchronized void append(Entry[] entries) throws IOException {
+        byte[][] lines = new byte[entries.length][];
+        int length = 0;
+        for (int i = 0; i < entries.length; i++) {
+            lines[i] = objectMapper.writeValueAsBytes(entries[i]);
+            length += lines[i].length + 1;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        for (byte[] json : lines)
+            buffer.put(json).put((byte) '\n');
+        buffer.flip();
+        FileChannel out = open();
+        while (buffer.hasRemaining())
+            out.write(buffer);
+        out.force(false);   // the records survive a crash once the mutation is acknowledged
+        validLength += length;
+        records += entries.length;
+    }
+
+    /**
+     * Empties the journal once its records are part of a checkpoint
+     *
+     * @throws IOException when the journal cannot be written to
+     */
+    synchronized void truncate() throws IOException {
+        open().truncate(0);
+        validLength = 0;
+        records = 0;
+    }
+
+    /**
+     * Retrieves the number of records written since the last checkpoint
+     *
+     * @return The number of records
+     */
+    synchronized int size() {
+        return records;
+    }
+
+    /**
+     * Closes the journal file
+     *
+     * @throws IOException when the journal cannot be closed
+     */
+    synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private FileChannel open() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+            // Drop anything after the last complete record before appending
+            channel.truncate(validLength);
+            channel.position(validLength);
+        }
+        return channel;
+    }
+}
@@ -0,0 +1,534 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Random-access file of fixed-size pet records
+ * <br>
+ * Every pet owns the slot at {@code HEADER_SIZE + id * SLOT_SIZE}, so a pet is
+ * created or updated with one positional write of its slot and taken out of
+ * the catalog with a one byte write of its status, whatever the size of the
+ * catalog. A removed pet keeps its slot, marked with a tombstone, since the
+ * complete pet list still shows it. Strings too long for their slot go to an
+ * append-only overflow file next to it and the slot keeps their position.
+ * <br>
+ * Slot layout: status byte, id, then for the animal type and the name a short
+ * length (-1 for null, -2 for overflow) and {@value #FIELD_SIZE} bytes holding
+ * either the UTF-8 bytes or the overflow position and length.
+ * <br>
+ * The status of every slot is repeated in a status file, one byte per id, so
+ * opening the file reads a byte per pet instead of every slot. The status file
+ * is only trusted when the header says the file was closed cleanly, otherwise
+ * it is rebuilt from the slots.
+ * <br>
+ * Once {@linkplain #map() mapped}, the pets are read from the mapping as they
+ * were when it was made. A slot is copied to the heap before it is first
+ * rewritten, so a reader still holding a mapped pet never sees it change.
+ *
+ * @author Group E
+ */
+final class PetRecordFile implements Closeable {
+    static final int MAGIC = 0x55465052;    // "UFPR"
+    static final int VERSION = 2;           // 2 added the clean flag and the status file
+    static final int HEADER_SIZE = 64;
+    static final int CLEAN = 8;             // Header byte, 1 once closed with the status file in sync
+    static final int SLOT_SIZE = 64;
+    static final int FIELD_SIZE = 26;       // Inline bytes of a string field
+
+    static final byte EMPTY = 0;            // Slot that never held a pet
+    static final byte AVAILABLE = 1;        // Pet in the catalog
+    static final byte REMOVED = 2;          // Tombstone, the pet left the catalog
+
+    static final int STATUS = 0;            // Offsets within a slot
+    static final int ID = 1;
+    static final int ANIMALTYPE = 5;
+    static final int NAME = ANIMALTYPE + 2 + FIELD_SIZE;
+
+    static final long REGION_SIZE = 1L << 30;   // Bytes per mapping, a multiple of the slot size
+
+    static final short NULL_STRING = -1;
+    static final short OVERFLOW = -2;
+
+    private final FileChannel channel;
+    private final FileChannel overflow;
+    private final FileChannel statuses;                 // Status byte of every slot, by id
+    private long overflowEnd;                           // Where the next long string is appended
+    private final BitSet listed = new BitSet();         // Slots in use
+    private final BitSet removed = new BitSet();        // Tombstones of the slots in use
+    private final ByteBuffer slot = ByteBuffer.allocate(SLOT_SIZE);
+
+    private ByteBuffer[] regions;                       // Mappings of the slots, null until mapped
+    private BitSet mappedIds;                           // Slots in use when the file was mapped
+    private final Map<Integer,Pet> detached = new HashMap<>();  // Mapped pets copied before their slot was rewritten
+    private final ReentrantReadWriteLock mappingLock = new ReentrantReadWriteLock();  // Readers of the mapping
+                                                        // share it, the first rewrite of a mapped slot excludes them
+
+    /**
+     * Opens a record file, creating it and its overflow file if missing
+     *
+     * @param filename The record file, the overflow file is the same name plus {@code .overflow}
+     * and the status file the same name plus {@code .status}
+     *
+     * @throws IOException when the files cannot be opened or hold something else
+     */
+    PetRecordFile(String filename) throws IOException {
+        Path path = Paths.get(filename);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        overflow = FileChannel.open(overflowPath(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                    StandardOpenOption.WRITE);
+        statuses = FileChannel.open(statusPath(path), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                                    StandardOpenOption.WRITE);
+        overflowEnd = overflow.size();
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        boolean clean = false;
+        if (channel.size() > 0) {
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IOException(filename + " is not a pet record file");
+            int version = header.getShort();
+            if (version > VERSION || header.getShort() != SLOT_SIZE)
+                throw new IOException(filename + " has an unsupported record layout");
+            clean = version == VERSION && header.get(CLEAN) == 1;
+        }
+        if (clean && statuses.size() == slots())
+            readStatuses();
+        else
+            rebuildStatuses();
+
+        // Not clean until closed, a crash in between rebuilds the status file
+        header.clear();
+        header.putInt(MAGIC).putShort((short) VERSION).putShort((short) SLOT_SIZE).put((byte) 0).rewind();
+        writeFully(channel, header, 0);
+        channel.force(false);
+    }
+
+    static Path overflowPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".overflow");
+    }
+
+    static Path statusPath(Path path) {
+        return path.resolveSibling(path.getFileName() + ".status");
+    }
+
+    /**
+     * Number of whole slots in the file, a torn last slot does not count
+     */
+    private long slots() throws IOException {
+        return Math.max(0, (channel.size() - HEADER_SIZE) / SLOT_SIZE);
+    }
+
+    private void readStatuses() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long id = 0;
+        long size = statuses.size();
+        while (id < size) {
+            buffer.clear();
+            readFully(statuses, buffer.limit((int) Math.min(buffer.capacity(), size - id)), id);
+            buffer.flip();
+            for (int i = 0; i < buffer.limit(); i++, id++)
+                status((int) id, buffer.get(i));
+        }
+    }
+
+    /**
+     * Reads the status byte of every slot and writes them to the status file
+     */
+    private void rebuildStatuses() throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SLOT_SIZE * 1024);
+        ByteBuffer bytes = ByteBuffer.allocate(1024);
+        long slots = slots();
+        long id = 0;
+        statuses.truncate(0);
+        while (id < slots) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (slots - id) * SLOT_SIZE));
+            readFully(channel, buffer, position((int) id));
+            buffer.flip();
+            bytes.clear();
+            for (int offset = 0; offset < buffer.limit(); offset += SLOT_SIZE, id++) {
+                byte status = buffer.get(offset + STATUS);
+                status((int) id, status);
+                bytes.put(status);
+            }
+            bytes.flip();
+            writeFully(statuses, bytes, id - bytes.limit());
+        }
+    }
+
+    private void status(int id, byte status) {
+        if (status == EMPTY)
+            return;
+        listed.set(id);
+        if (status == REMOVED)
+            removed.set(id);
+    }
+
+    /**
+     * Checks whether the file holds no slots yet
+     *
+     * @return true for a file without any pet
+     *
+     * @throws IOException when the file cannot be accessed
+     */
+    synchronized boolean isEmpty() throws IOException {
+        return channel.size() <= HEADER_SIZE;
+    }
+
+    /**
+     * Reads every pet into the given maps
+     *
+     * @param pets Receives the {@link Pet Pets} in the catalog
+     * @param petList Receives every {@link Pet Pet}, removed ones included
+     *
+     * @return The number of pets read
+     *
+     * @throws IOException when the file cannot be read
+     */
+    synchronized int scan(Map<Integer,Pet> pets, Map<Integer,Pet> petList) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(SLOT_SIZE * 1024);
+        long position = HEADER_SIZE;
+        long size = channel.size();
+        int count = 0;
+        while (position < size) {
+            buffer.clear();
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                break;
+            buffer.flip();
+            for (int offset = 0; offset + SLOT_SIZE <= buffer.limit(); offset += SLOT_SIZE) {
+                byte status = buffer.get(offset + STATUS);
+                if (status == EMPTY)
+                    continue;
+                Pet pet = decode(buffer, offset);
+                petList.put(pet.getId(), pet);
+                if (status == AVAILABLE)
+                    pets.put(pet.getId(), pet);
+                else
+                    removed.set(pet.getId());
+                count++;
+            }
+            int slots = buffer.limit() / SLOT_SIZE;
+            if (slots == 0)
+                break;  // torn last slot
+            position += (long) slots * SLOT_SIZE;
+        }
+        return count;
+    }
+
+    /**
+     * Maps the slots in use for {@link #read(int) reading}
+     * <br>
+     * No slot is touched, the pets are decoded when they are read
+     *
+     * @return The number of pets mapped
+     *
+     * @throws IOException when the file cannot be mapped
+     */
+    synchronized int map() throws IOException {
+        long end = position(listed.length());
+        ByteBuffer[] mapped = new ByteBuffer[(int) ((end - HEADER_SIZE + REGION_SIZE - 1) / REGION_SIZE)];
+        for (int i = 0; i < mapped.length; i++) {
+            long start = HEADER_SIZE + i * REGION_SIZE;
+            MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(REGION_SIZE, end - start));
+            mapped[i] = region;
+        }
+        mappingLock.writeLock().lock();
+        try {
+            regions = mapped;
+            mappedIds = (BitSet) listed.clone();
+            detached.clear();
+        }
+        finally {
+            mappingLock.writeLock().unlock();
+        }
+        return mappedIds.cardinality();
+    }
+
+    /**
+     * Reads a pet from the mapping as it was when the file was mapped
+     * <br>
+     * Takes no lock but the shared side of the mapping lock, so readers run in parallel
+     *
+     * @param id The id of a {@link Pet Pet} whose slot was in use when the file was mapped
+     *
+     * @return The {@link Pet Pet}, null if its slot was not in use
+     *
+     * @throws IOException when a string cannot be read from the overflow file
+     */
+    Pet read(int id) throws IOException {
+        mappingLock.readLock().lock();
+        try {
+            if (mappedIds == null || id < 0 || !mappedIds.get(id))
+                return null;
+            Pet pet = detached.get(id);
+            if (pet != null)
+                return pet;
+            long offset = (long) id * SLOT_SIZE;
+            return decode(regions[(int) (offset / REGION_SIZE)], (int) (offset % REGION_SIZE));
+        }
+        finally {
+            mappingLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Retrieves the pets in the catalog
+     *
+     * @return A new set of the ids of the {@link Pet Pets} whose slot is not a tombstone
+     */
+    synchronized BitSet available() {
+        BitSet available = (BitSet) listed.clone();
+        available.andNot(removed);
+        return available;
+    }
+
+    /**
+     * Retrieves every pet, removed ones included
+     *
+     * @return A new set of the ids of the slots in use
+     */
+    synchronized BitSet listed() {
+        return (BitSet) listed.clone();
+    }
+
+    /**
+     * Retrieves the greatest id with a slot in use
+     *
+     * @return The id, -1 for a file without any pet
+     */
+    synchronized int maxId() {
+        return listed.length() - 1;
+    }
+
+    /**
+     * Writes a pet into its slot as part of the catalog
+     *
+     * @param pet The {@link Pet Pet} to write
+     *
+     * @throws IOException when the slot cannot be written
+     */
+    synchronized void put(Pet pet) throws IOException {
+        write(pet, AVAILABLE);
+    }
+
+    /**
+     * Writes a pet into its slot with the given status
+     *
+     * @param pet The {@link Pet Pet} to write
+     * @param available true for a pet in the catalog, false for a removed one
+     *
+     * @throws IOException when the slot cannot be written
+     */
+    synchronized void put(Pet pet, boolean available) throws IOException {
+        write(pet, available ? AVAILABLE : REMOVED);
+    }
+
+    /**
+     * Marks the slot of a pet with a tombstone
+     *
+     * @param id The id of the {@link Pet Pet} that left the catalog
+     *
+     * @throws IOException when the slot cannot be written
+     */
+    synchronized void remove(int id) throws IOException {
+        long position = position(id);
+        if (position >= channel.size())
+            return;
+        // Only the status changes, a mapped pet never reads it
+        writeFully(channel, ByteBuffer.wrap(new byte[]{REMOVED}), position + STATUS);
+        writeFully(statuses, ByteBuffer.wrap(new byte[]{REMOVED}), id);
+        removed.set(id);
+    }
+
+    /**
+     * Checks whether a pet left the catalog
+     *
+     * @param id The id of the {@link Pet Pet}
+     *
+     * @return true if the slot of the pet carries a tombstone
+     */
+    synchronized boolean isRemoved(int id) {
+        return removed.get(id);
+    }
+
+    /**
+     * Flushes the written slots to the device
+     * <br>
+     * The status file is only flushed on close, after a crash it is rebuilt from the slots
+     *
+     * @throws IOException when the files cannot be flushed
+     */
+    synchronized void force() throws IOException {
+        overflow.force(false);
+        channel.force(false);
+    }
+
+    /**
+     * Retrieves the size of the record file
+     *
+     * @return The size in bytes
+     *
+     * @throws IOException when the file cannot be accessed
+     */
+    synchronized long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!channel.isOpen())
+            return;
+        try {
+            // The status file is in sync once it reached the device, say so last
+            overflow.force(false);
+            statuses.force(false);
+            channel.force(false);
+            writeFully(channel, ByteBuffer.wrap(new byte[]{1}), CLEAN);
+            channel.force(false);
+        }
+        finally {
+            try {
+                channel.close();
+            }
+            finally {
+                try {
+                    overflow.close();
+                }
+                finally {
+                    statuses.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Retrieves the file position of the slot of a pet
+     */
+    static long position(int id) {
+        if (id < 0)
+            throw new IllegalArgumentException("Pet id " + id + " has no slot");
+        return HEADER_SIZE + (long) id * SLOT_SIZE;
+    }
+
+    private void write(Pet pet, byte status) throws IOException {
+        int id = pet.getId();
+        long position = position(id);
+        slot.clear();
+        slot.put(status);
+        slot.putInt(pet.getId());
+        putString(pet.getAnimaltype());
+        putString(pet.getName());
+        while (slot.hasRemaining())
+            slot.put((byte) 0);
+        slot.flip();
+        // Long strings went to the overflow file first, the slot never points past its end
+        if (mappedIds != null && mappedIds.get(id) && !detached.containsKey(id)) {
+            // First rewrite of a mapped slot, keep what the readers of the mapping see
+            mappingLock.writeLock().lock();
+            try {
+                detached.put(id, read(id));
+                writeFully(channel, slot, position);
+            }
+            finally {
+                mappingLock.writeLock().unlock();
+            }
+        }
+        else {
+            writeFully(channel, slot, position);
+        }
+        writeFully(statuses, ByteBuffer.wrap(new byte[]{status}), id);
+        listed.set(id);
+        if (status == REMOVED)
+            removed.set(id);
+        else
+            removed.clear(id);
+    }
+
+    private void putString(String value) throws IOException {
+        int start = slot.position();
+        if (value == null) {
+            slot.putShort(NULL_STRING);
+        }
+        else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            if (bytes.length <= FIELD_SIZE) {
+                slot.putShort((short) bytes.length);
+                slot.put(bytes);
+            }
+            else {
+                long at = overflowEnd;
+                writeFully(overflow, ByteBuffer.wrap(bytes), at);
+                overflowEnd += bytes.length;
+                slot.putShort(OVERFLOW);
+                slot.putLong(at);
+                slot.putInt(bytes.length);
+            }
+        }
+        while (slot.position() < start + 2 + FIELD_SIZE)
+            slot.put((byte) 0);
+    }
+
+    /**
+     * Decodes the pet in the slot starting at the given offset of a buffer
+     */
+    private Pet decode(ByteBuffer buffer, int offset) throws IOException {
+        int id = buffer.getInt(offset + ID);
+        String animaltype = getString(buffer, offset + ANIMALTYPE);
+        String name = getString(buffer, offset + NAME);
+        return new Pet(id, animaltype, name);
+    }
+
+    /**
+     * Decodes the string field starting at the given offset of a buffer
+     */
+    private String getString(ByteBuffer buffer, int offset) throws IOException {
+        short length = buffer.getShort(offset);
+        if (length == NULL_STRING)
+            return null;
+        byte[] bytes;
+        if (length == OVERFLOW) {
+            bytes = new byte[buffer.getInt(offset + 2 + 8)];
+            readFully(overflow, ByteBuffer.wrap(bytes), buffer.getLong(offset + 2));
+        }
+        else {
+            bytes = new byte[length];
+            for (int i = 0; i < length; i++)
+                bytes[i] = buffer.get(offset + 2 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException("Unexpected end of the pet record file");
+            position += read;
+        }
+    }
+}
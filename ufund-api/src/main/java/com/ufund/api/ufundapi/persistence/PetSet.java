@@ -0,0 +1,91 @@
+package com.ufund.api.ufundapi.persistence;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Immutable set of {@linkplain Pet Pets} ordered by id
+ * <br>
+ * Backs the lists of a {@link CatalogSnapshot}. Every change returns the next
+ * set and leaves this one untouched, so a published snapshot never changes.
+ *
+ * @author Group E
+ */
+interface PetSet {
+    /**
+     * Retrieves a {@linkplain Pet Pet}
+     *
+     * @param id The id of the {@link Pet Pet}
+     *
+     * @return The {@link Pet Pet}, null if it is not in the set
+     */
+    Pet get(int id);
+
+    /**
+     * Checks whether a {@linkplain Pet Pet} is in the set without reading it
+     *
+     * @param id The id of the {@link Pet Pet}
+     *
+     * @return true if the set holds the pet
+     */
+    boolean contains(int id);
+
+    /**
+     * Retrieves the number of {@linkplain Pet Pets} in the set
+     *
+     * @return The number of pets
+     */
+    int size();
+
+    /**
+     * Retrieves every {@linkplain Pet Pet} of the set
+     *
+     * @return A new array of the {@link Pet Pets} in id order
+     */
+    Pet[] toArray();
+
+    /**
+     * Retrieves the {@linkplain Pet Pets} following an id
+     *
+     * @param after The id the page starts behind
+     * @param limit The maximum number of {@link Pet Pets} on the page
+     *
+     * @return The {@link Pet Pets} with an id greater than after, in id order, may be empty
+     */
+    Pet[] page(int after, int limit);
+
+    /**
+     * Creates the next set with a {@linkplain Pet Pet} added or replaced
+     *
+     * @param pet The {@link Pet Pet} to add or replace
+     *
+     * @return The next set
+     */
+    PetSet with(Pet pet);
+
+    /**
+     * Creates the next set without a {@linkplain Pet Pet}
+     *
+     * @param id The id of the {@link Pet Pet} to leave out
+     *
+     * @return The next set, this set if the pet is not in it
+     */
+    PetSet without(int id);
+
+    /**
+     * Creates the next set with a batch of {@linkplain Pet Pets} added or replaced
+     *
+     * @param pets The {@link Pet Pets} to add or replace, in any order
+     *
+     * @return The next set
+     */
+    PetSet withAll(Pet[] pets);
+
+    /**
+     * Creates the next set without a batch of {@linkplain Pet Pets}
+     *
+     * @param ids The ids of the {@link Pet Pets} to leave out, in any order
+     *
+     * @return The next set
+     */
+    PetSet withoutAll(int[] ids);
+}
@@ -0,0 +1,175 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.Function;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Immutable index of {@linkplain Pet Pets} by a case-normalized text key
+ * <br>
+ * The normalized keys are kept in a sorted array next to their pets, so every
+ * pet whose key starts with a prefix sits in one contiguous range that is
+ * found with a binary search. Like {@link CatalogSnapshot} an index is never
+ * changed once built, the next version is derived from it.
+ *
+ * @author Group E
+ */
+final class PrefixIndex {
+    private final Function<Pet,String> field;   // Reads the indexed text from a pet
+    private final String[] keys;                // Normalized keys in ascending order
+    private final Pet[] pets;                   // The pet of each key, ties ordered by id
+
+    /**
+     * Creates an index over the given pets
+     *
+     * @param field Reads the indexed text from a {@link Pet Pet}
+     * @param pets The {@link Pet Pets} to index
+     */
+    PrefixIndex(Function<Pet,String> field, Pet[] pets) {
+        this.field = field;
+        String[] keys = new String[pets.length];
+        Integer[] order = new Integer[pets.length];
+        for (int i = 0; i < pets.length; i++) {
+            keys[i] = normalize(field.apply(pets[i]));
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int byKey = keys[a].compareTo(keys[b]);
+            return byKey != 0 ? byKey : Integer.compare(pets[a].getId(), pets[b].getId());
+        });
+        this.keys = new String[pets.length];
+        this.pets = new Pet[pets.length];
+        for (int i = 0; i < pets.length; i++) {
+            this.keys[i] = keys[order[i]];
+            this.pets[i] = pets[order[i]];
+        }
+    }
+
+    private PrefixIndex(Function<Pet,String> field, String[] keys, Pet[] pets) {
+        this.field = field;
+        this.keys = keys;
+        this.pets = pets;
+    }
+
+    /**
+     * Normalizes text so that lookups ignore case
+     *
+     * @param text The text, may be null
+     *
+     * @return The normalized text
+     */
+    static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Creates the next version with a {@linkplain Pet Pet} added
+     *
+     * @param pet The {@link Pet Pet} to add
+     *
+     * @return The next index, this index is left untouched
+     */
+    PrefixIndex with(Pet pet) {
+        String key = normalize(field.apply(pet));
+        int index = -indexOf(key, pet.getId()) - 1;
+        if (index < 0)
+            return this; // already indexed under this key
+        String[] nextKeys = new String[keys.length + 1];
+        Pet[] nextPets = new Pet[pets.length + 1];
+        System.arraycopy(keys, 0, nextKeys, 0, index);
+        System.arraycopy(pets, 0, nextPets, 0, index);
+        nextKeys[index] = key;
+        nextPets[index] = pet;
+        System.arraycopy(keys, index, nextKeys, index + 1, keys.length - index);
+        System.arraycopy(pets, index, nextPets, index + 1, pets.length - index);
+        return new PrefixIndex(field, nextKeys, nextPets);
+    }
+
+    /**
+     * Creates the next version with a {@linkplain Pet Pet} removed
+     *
+     * @param pet The {@link Pet Pet} as it was indexed
+     *
+     * @return The next index, this index is left untouched
+     */
+    PrefixIndex without(Pet pet) {
+        int index = indexOf(normalize(field.apply(pet)), pet.getId());
+        if (index < 0)
+            return this;
+        String[] nextKeys = new String[keys.length - 1];
+        Pet[] nextPets = new Pet[pets.length - 1];
+        System.arraycopy(keys, 0, nextKeys, 0, index);
+        System.arraycopy(pets, 0, nextPets, 0, index);
+        System.arraycopy(keys, index + 1, nextKeys, index, nextKeys.length - index);
+        System.arraycopy(pets, index + 1, nextPets, index, nextPets.length - index);
+        return new PrefixIndex(field, nextKeys, nextPets);
+    }
+
+    /**
+     * Finds the {@linkplain Pet Pets} whose key starts with the given text
+     *
+     * @param prefix The text to look for, case is ignored
+     *
+     * @return The matching {@link Pet Pets} in id order, may be empty
+     */
+    Pet[] startingWith(String prefix) {
+        String key = normalize(prefix);
+        int from = lowerBound(key);
+        int to = from;
+        while (to < keys.length && keys[to].startsWith(key))
+            to++;
+        Pet[] result = Arrays.copyOfRange(pets, from, to);
+        Arrays.sort(result, CatalogSnapshot.BY_ID);
+        return result;
+    }
+
+    /**
+     * Retrieves the number of indexed {@linkplain Pet Pets}
+     *
+     * @return The number of pets
+     */
+    int size() {
+        return pets.length;
+    }
+
+    /**
+     * Binary search for the first key not less than the given key
+     */
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(key) < 0)
+                low = mid + 1;
+            else
+                high = mid;
+        }
+        return low;
+    }
+
+    /**
+     * Binary search by key and id
+     *
+     * @return The index of the entry, or -(insertion point) - 1 if it is missing
+     */
+    private int indexOf(String key, int id) {
+        int low = 0;
+        int high = keys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int order = keys[mid].compareTo(key);
+            if (order == 0)
+                order = Integer.compare(pets[mid].getId(), id);
+            if (order < 0)
+                low = mid + 1;
+            else if (order > 0)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Encodes one kind of record for the {@linkplain BinaryRecordFile binary storage format}
+ *
+ * @param <T> The type of record
+ *
+ * @author Group E
+ */
+interface RecordCodec<T> {
+    /**
+     * Retrieves the tag written into the header of a file of these records
+     *
+     * @return The record kind
+     */
+    byte kind();
+
+    /**
+     * Writes the fields of a record
+     *
+     * @param record The record to write
+     * @param out Where the fields go
+     *
+     * @throws IOException when the fields cannot be written
+     */
+    void encode(T record, DataOutput out) throws IOException;
+
+    /**
+     * Reads the fields of a record
+     * <br>
+     * Fields that a newer version appended are left unread, the file skips
+     * to the next record on its own
+     *
+     * @param in Where the fields come from, limited to this record
+     * @param version The format version of the file
+     *
+     * @return The record
+     *
+     * @throws IOException when the fields cannot be read
+     */
+    T decode(DataInput in, int version) throws IOException;
+}
@@ -0,0 +1,179 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * {@link PetSet} held as an array sorted by id
+ * <br>
+ * Lookups are a binary search, a single change copies the array once.
+ *
+ * @author Group E
+ */
+final class SortedPetSet implements PetSet {
+    private final Pet[] pets;   // Sorted by id, never changed once constructed
+
+    /**
+     * Creates a set of the given pets
+     *
+     * @param pets The {@link Pet Pets}, in any order
+     */
+    SortedPetSet(Collection<Pet> pets) {
+        this(sorted(pets.toArray(new Pet[0])));
+    }
+
+    private SortedPetSet(Pet[] pets) {
+        this.pets = pets;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Pet get(int id) {
+        int index = indexOf(pets, id);
+        return index >= 0 ? pets[index] : null;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public boolean contains(int id) {
+        return indexOf(pets, id) >= 0;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return pets.length;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Pet[] toArray() {
+        return pets.clone();
+    }
+
+    /**
+    ** {@inheritDoc}
+     * <br>
+     * Costs a binary search plus the size of the page
+     */
+    @Override
+    public Pet[] page(int after, int limit) {
+        int from = indexOf(pets, after);
+        from = from >= 0 ? from + 1 : -from - 1;
+        int to = from + (int) Math.min(limit, (long) pets.length - from);
+        return Arrays.copyOfRange(pets, from, to);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public SortedPetSet with(Pet pet) {
+        int index = indexOf(pets, pet.getId());
+        if (index >= 0) {
+            Pet[] next = pets.clone();
+            next[index] = pet;
+            return new SortedPetSet(next);
+        }
+        index = -index - 1;
+        Pet[] next = new Pet[pets.length + 1];
+        System.arraycopy(pets, 0, next, 0, index);
+        next[index] = pet;
+        System.arraycopy(pets, index, next, index + 1, pets.length - index);
+        return new SortedPetSet(next);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public SortedPetSet without(int id) {
+        int index = indexOf(pets, id);
+        if (index < 0)
+            return this;
+        Pet[] next = new Pet[pets.length - 1];
+        System.arraycopy(pets, 0, next, 0, index);
+        System.arraycopy(pets, index + 1, next, index, next.length - index);
+        return new SortedPetSet(next);
+    }
+
+    /**
+    ** {@inheritDoc}
+     * <br>
+     * Merges the sorted batch into a single copy of the array
+     */
+    @Override
+    public SortedPetSet withAll(Pet[] batch) {
+        Pet[] added = sorted(batch.clone());
+        Pet[] next = new Pet[pets.length + added.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < pets.length || j < added.length) {
+            if (j == added.length || (i < pets.length && pets[i].getId() < added[j].getId())) {
+                next[n++] = pets[i++];
+            }
+            else {
+                if (i < pets.length && pets[i].getId() == added[j].getId())
+                    i++;    // replaced
+                // The last of several pets with one id wins
+                if (n > 0 && next[n - 1].getId() == added[j].getId())
+                    n--;
+                next[n++] = added[j++];
+            }
+        }
+        return new SortedPetSet(n == next.length ? next : Arrays.copyOf(next, n));
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public SortedPetSet withoutAll(int[] ids) {
+        int[] removed = ids.clone();
+        Arrays.sort(removed);
+        Pet[] next = new Pet[pets.length];
+        int n = 0;
+        for (Pet pet : pets) {
+            if (Arrays.binarySearch(removed, pet.getId()) < 0)
+                next[n++] = pet;
+        }
+        return n == pets.length ? this : new SortedPetSet(Arrays.copyOf(next, n));
+    }
+
+    private static Pet[] sorted(Pet[] pets) {
+        Arrays.sort(pets, CatalogSnapshot.BY_ID);  // stable, linear when already in id order
+        return pets;
+    }
+
+    /**
+     * Binary search by id
+     *
+     * @return The index of the pet, or -(insertion point) - 1 if it is missing
+     */
+    private static int indexOf(Pet[] pets, int id) {
+        int low = 0;
+        int high = pets.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = pets[mid].getId();
+            if (midId < id)
+                low = mid + 1;
+            else if (midId > id)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+}
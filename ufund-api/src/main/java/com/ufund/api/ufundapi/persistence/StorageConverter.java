@@ -0,0 +1,85 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.User;
+
+/**
+ * Converts the pet and user files between JSON and the binary storage format
+ * <br>
+ * Usage: {@code StorageConverter <pets|users> <to-binary|to-json> <input> <output>}
+ *
+ * @author Group E
+ */
+public final class StorageConverter {
+    private StorageConverter() {
+    }
+
+    /**
+     * Runs a conversion
+     *
+     * @param args The record kind, the direction, the input file and the output file
+     *
+     * @throws IOException when a file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            System.err.println("Usage: StorageConverter <pets|users> <to-binary|to-json> <input> <output>");
+            System.exit(2);
+        }
+        File input = new File(args[2]);
+        File output = new File(args[3]);
+        ObjectMapper objectMapper = new ObjectMapper();
+        int count;
+        switch (args[0]) {
+            case "pets":
+                count = convert(objectMapper, args[1], input, output, Pet.class, PetCodec.INSTANCE, new Pet[0]);
+                break;
+            case "users":
+                count = convert(objectMapper, args[1], input, output, User.class, UserCodec.INSTANCE, new User[0]);
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown record kind " + args[0]);
+        }
+        System.out.println("Converted " + count + " " + args[0] + " from " + input + " to " + output);
+    }
+
+    /**
+     * Converts a file of records in the given direction
+     *
+     * @param <T> The type of record
+     * @param objectMapper Reads and writes the JSON side
+     * @param direction {@code to-binary} or {@code to-json}
+     * @param input The file to read
+     * @param output The file to write
+     * @param type The class of the records
+     * @param codec Reads and writes the binary side
+     * @param empty An empty array of the records, to type the array written
+     *
+     * @return The number of records converted
+     *
+     * @throws IOException when a file cannot be read or written
+     */
+    static <T> int convert(ObjectMapper objectMapper, String direction, File input, File output,
+                           Class<T> type, RecordCodec<T> codec, T[] empty) throws IOException {
+        List<T> records = new ArrayList<>();
+        switch (direction) {
+            case "to-binary":
+                JsonArrayReader.read(objectMapper, input, type, records::add);
+                BinaryRecordFile.write(output, codec, records.toArray(empty));
+                break;
+            case "to-json":
+                BinaryRecordFile.read(input, codec, records::add);
+                objectMapper.writeValue(output, records.toArray(empty));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown direction " + direction);
+        }
+        return records.size();
+    }
+}
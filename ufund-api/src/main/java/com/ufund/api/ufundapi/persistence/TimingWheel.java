@@ -0,0 +1,186 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel for large numbers of timeouts
+ * <br>
+ * Each level has 64 slots, a slot of level 0 spans one tick and a slot of
+ * every further level spans a whole turn of the level below it. A timeout is
+ * linked into the slot of its deadline, so scheduling and cancelling are O(1)
+ * and advancing the wheel only touches the timeouts that are due, plus the
+ * occasional cascade of one higher slot into the levels below.
+ * <br>
+ * The wheel is not thread-safe, callers synchronize around it.
+ *
+ * @param <T> The type of item a timeout carries
+ *
+ * @author Group E
+ */
+final class TimingWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+
+    /**
+     * A scheduled timeout, linked into the slot of its deadline
+     */
+    static final class Timeout<T> {
+        final T item;
+        private final long deadline;    // Tick the timeout is due at
+        private Timeout<T> prev;
+        private Timeout<T> next;
+        private Timeout<T>[] slots;     // Level the timeout is linked into, null once it fired or was cancelled
+        private int slot;
+
+        private Timeout(T item, long deadline) {
+            this.item = item;
+            this.deadline = deadline;
+        }
+    }
+
+    private final long tickMillis;
+    private final Timeout<T>[][] levels;    // Head of the list in each slot of each level
+    private long tick;                      // Last tick that was processed
+    private int size;
+
+    /**
+     * Creates a wheel
+     *
+     * @param tickMillis Length of a tick, the resolution of the deadlines
+     * @param levels Number of levels, the wheel spans 64^levels ticks
+     * @param nowMillis The current time
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})   // generic arrays are created raw
+    TimingWheel(long tickMillis, int levels, long nowMillis) {
+        this.tickMillis = Math.max(1, tickMillis);
+        this.levels = new Timeout[Math.max(1, levels)][SLOTS];
+        this.tick = nowMillis / this.tickMillis;
+    }
+
+    /**
+     * Schedules an item
+     *
+     * @param item The item to hand out once the timeout is due
+     * @param deadlineMillis The time the timeout is due at
+     *
+     * @return The timeout, to cancel it
+     */
+    Timeout<T> schedule(T item, long deadlineMillis) {
+        // Round up so a timeout never fires early
+        long deadline = Math.max(tick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        Timeout<T> timeout = new Timeout<>(item, deadline);
+        link(timeout);
+        size++;
+        return timeout;
+    }
+
+    /**
+     * Cancels a timeout that has not fired yet
+     *
+     * @param timeout The timeout to cancel
+     *
+     * @return true if the timeout was cancelled, false if it already fired or was cancelled
+     */
+    boolean cancel(Timeout<T> timeout) {
+        if (timeout.slots == null)
+            return false;
+        unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /**
+     * Moves the wheel forward to the given time
+     *
+     * @param nowMillis The current time
+     * @param expired Receives the item of every timeout that became due, in deadline order per tick
+     */
+    void advance(long nowMillis, Consumer<T> expired) {
+        long target = nowMillis / tickMillis;
+        while (tick < target) {
+            if (size == 0) {
+                tick = target; // nothing scheduled, skip the empty ticks
+                break;
+            }
+            tick++;
+            cascade();
+            Timeout<T>[] slots = levels[0];
+            int slot = (int) (tick & MASK);
+            Timeout<T> timeout = slots[slot];
+            slots[slot] = null;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.slots = null;
+                timeout.prev = null;
+                timeout.next = null;
+                size--;
+                expired.accept(timeout.item);
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * Retrieves the number of pending timeouts
+     *
+     * @return The number of timeouts
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Redistributes the higher slots that the current tick has reached
+     */
+    private void cascade() {
+        for (int level = 1; level < levels.length; level++) {
+            if (((tick >>> (BITS * level - BITS)) & MASK) != 0)
+                return; // the level below has not wrapped around
+            int slot = (int) ((tick >>> (BITS * level)) & MASK);
+            Timeout<T> timeout = levels[level][slot];
+            levels[level][slot] = null;
+            while (timeout != null) {
+                Timeout<T> next = timeout.next;
+                timeout.prev = null;
+                timeout.next = null;
+                link(timeout);
+                timeout = next;
+            }
+        }
+    }
+
+    /**
+     * Links a timeout into the lowest level whose range covers its deadline
+     */
+    private void link(Timeout<T> timeout) {
+        long delta = Math.max(0, timeout.deadline - tick);
+        int level = 0;
+        while (level < levels.length - 1 && delta >= (1L << (BITS * (level + 1))))
+            level++;
+        long at = timeout.deadline;
+        if (delta >= (1L << (BITS * levels.length)))
+            at = tick + (1L << (BITS * levels.length)) - 1; // beyond the wheel, park in the farthest slot
+        int slot = (int) ((at >>> (BITS * level)) & MASK);
+        Timeout<T>[] slots = levels[level];
+        timeout.slots = slots;
+        timeout.slot = slot;
+        timeout.prev = null;
+        timeout.next = slots[slot];
+        if (slots[slot] != null)
+            slots[slot].prev = timeout;
+        slots[slot] = timeout;
+    }
+
+    private void unlink(Timeout<T> timeout) {
+        if (timeout.prev != null)
+            timeout.prev.next = timeout.next;
+        else
+            timeout.slots[timeout.slot] = timeout.next;
+        if (timeout.next != null)
+            timeout.next.prev = timeout.prev;
+        timeout.slots = null;
+        timeout.prev = null;
+        timeout.next = null;
+    }
+}
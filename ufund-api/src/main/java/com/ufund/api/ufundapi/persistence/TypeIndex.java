@@ -0,0 +1,190 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+/**
+ * Immutable inverted index from animal type to {@linkplain Pet Pets}
+ * <br>
+ * Every distinct case-normalized type owns a posting list of its pets sorted
+ * by id. The types themselves are kept sorted, so the types sharing a prefix
+ * form one range found with a binary search, and a query only touches the
+ * postings of the matching types. A mutation copies the one posting list it
+ * changes and shares every other list with the previous version.
+ *
+ * @author Group E
+ */
+final class TypeIndex {
+    private static final Pet[] NONE = {};
+
+    private final String[] types;   // Distinct normalized types in ascending order
+    private final Pet[][] postings; // The pets of each type, sorted by id
+
+    /**
+     * Creates an index over the given pets
+     *
+     * @param pets The {@link Pet Pets} to index
+     */
+    TypeIndex(Pet[] pets) {
+        Map<String,List<Pet>> byType = new TreeMap<>();
+        for (Pet pet : pets)
+            byType.computeIfAbsent(key(pet), type -> new ArrayList<>()).add(pet);
+
+        types = byType.keySet().toArray(new String[0]);
+        postings = new Pet[types.length][];
+        int i = 0;
+        for (List<Pet> posting : byType.values()) {
+            postings[i] = posting.toArray(NONE);
+            Arrays.sort(postings[i], CatalogSnapshot.BY_ID);
+            i++;
+        }
+    }
+
+    private TypeIndex(String[] types, Pet[][] postings) {
+        this.types = types;
+        this.postings = postings;
+    }
+
+    private static String key(Pet pet) {
+        return PrefixIndex.normalize(pet.getAnimaltype());
+    }
+
+    /**
+     * Creates the next version with a {@linkplain Pet Pet} added
+     *
+     * @param pet The {@link Pet Pet} to add
+     *
+     * @return The next index, this index is left untouched
+     */
+    TypeIndex with(Pet pet) {
+        String type = key(pet);
+        int t = Arrays.binarySearch(types, type);
+        if (t < 0) {
+            // First pet of this type, a new posting list is needed
+            t = -t - 1;
+            String[] nextTypes = new String[types.length + 1];
+            Pet[][] nextPostings = new Pet[postings.length + 1][];
+            System.arraycopy(types, 0, nextTypes, 0, t);
+            System.arraycopy(postings, 0, nextPostings, 0, t);
+            nextTypes[t] = type;
+            nextPostings[t] = new Pet[]{pet};
+            System.arraycopy(types, t, nextTypes, t + 1, types.length - t);
+            System.arraycopy(postings, t, nextPostings, t + 1, postings.length - t);
+            return new TypeIndex(nextTypes, nextPostings);
+        }
+
+        Pet[] posting = postings[t];
+        int index = indexOf(posting, pet.getId());
+        Pet[] next;
+        if (index >= 0) {
+            next = posting.clone();
+            next[index] = pet;
+        }
+        else {
+            index = -index - 1;
+            next = new Pet[posting.length + 1];
+            System.arraycopy(posting, 0, next, 0, index);
+            next[index] = pet;
+            System.arraycopy(posting, index, next, index + 1, posting.length - index);
+        }
+        Pet[][] nextPostings = postings.clone();
+        nextPostings[t] = next;
+        return new TypeIndex(types, nextPostings);
+    }
+
+    /**
+     * Creates the next version with a {@linkplain Pet Pet} removed
+     *
+     * @param pet The {@link Pet Pet} as it was indexed
+     *
+     * @return The next index, this index is left untouched
+     */
+    TypeIndex without(Pet pet) {
+        int t = Arrays.binarySearch(types, key(pet));
+        if (t < 0)
+            return this;
+        Pet[] posting = postings[t];
+        int index = indexOf(posting, pet.getId());
+        if (index < 0)
+            return this;
+
+        if (posting.length == 1) {
+            // Last pet of this type, drop the type
+            String[] nextTypes = new String[types.length - 1];
+            Pet[][] nextPostings = new Pet[postings.length - 1][];
+            System.arraycopy(types, 0, nextTypes, 0, t);
+            System.arraycopy(postings, 0, nextPostings, 0, t);
+            System.arraycopy(types, t + 1, nextTypes, t, nextTypes.length - t);
+            System.arraycopy(postings, t + 1, nextPostings, t, nextPostings.length - t);
+            return new TypeIndex(nextTypes, nextPostings);
+        }
+
+        Pet[] next = new Pet[posting.length - 1];
+        System.arraycopy(posting, 0, next, 0, index);
+        System.arraycopy(posting, index + 1, next, index, next.length - index);
+        Pet[][] nextPostings = postings.clone();
+        nextPostings[t] = next;
+        return new TypeIndex(types, nextPostings);
+    }
+
+    /**
+     * Finds the {@linkplain Pet Pets} whose type starts with the given text
+     *
+     * @param prefix The start of the type, case is ignored
+     *
+     * @return The matching {@link Pet Pets} in id order, may be empty
+     */
+    Pet[] startingWith(String prefix) {
+        String key = PrefixIndex.normalize(prefix);
+        int from = Arrays.binarySearch(types, key);
+        if (from < 0)
+            from = -from - 1;
+        int to = from;
+        int count = 0;
+        while (to < types.length && types[to].startsWith(key)) {
+            count += postings[to].length;
+            to++;
+        }
+
+        if (to - from == 1)
+            return postings[from].clone();  // already in id order
+        Pet[] result = new Pet[count];
+        int offset = 0;
+        for (int t = from; t < to; t++) {
+            System.arraycopy(postings[t], 0, result, offset, postings[t].length);
+            offset += postings[t].length;
+        }
+        Arrays.sort(result, CatalogSnapshot.BY_ID); // merges the sorted runs
+        return result;
+    }
+
+    /**
+     * Retrieves the number of distinct types
+     *
+     * @return The number of types
+     */
+    int types() {
+        return types.length;
+    }
+
+    private static int indexOf(Pet[] pets, int id) {
+        int low = 0;
+        int high = pets.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midId = pets[mid].getId();
+            if (midId < id)
+                low = mid + 1;
+            else if (midId > id)
+                high = mid - 1;
+            else
+                return mid;
+        }
+        return -(low + 1);
+    }
+}
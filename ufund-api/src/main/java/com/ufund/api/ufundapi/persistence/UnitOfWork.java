@@ -0,0 +1,103 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.ufund.api.ufundapi.model.User;
+
+/**
+ * Gathers the changes of one business operation and commits them together
+ * <br>
+ * Changes to {@linkplain User Users} are made in memory by the caller and
+ * registered here; {@link #commit()} then writes all of them with a single
+ * users file write. That write is the commit point: catalog removals are
+ * applied after it, and a removal that was cut off by a crash is redone on
+ * the next startup from the adopted pets recorded in the users file. When
+ * the write fails, the changes are reverted in memory, so memory keeps
+ * matching the file.
+ *
+ * @author Group E
+ */
+final class UnitOfWork {
+    private final UserFileDAO userFiledao;
+    private final PetFileDAO petFiledao;
+    private final Set<String> changedUsers = new LinkedHashSet<>();
+    private final List<Integer> removedPets = new ArrayList<>();
+    private final List<Runnable> undo = new ArrayList<>();  // Reverts the changes, in the order they were made
+    private boolean committed;
+
+    /**
+     * Starts a unit of work
+     *
+     * @param userFiledao The {@link UserFileDAO User Data Access Object} the users are written through
+     * @param petFiledao The {@link PetFileDAO Pet Data Access Object} the catalog removals go to
+     */
+    UnitOfWork(UserFileDAO userFiledao, PetFileDAO petFiledao) {
+        this.userFiledao = userFiledao;
+        this.petFiledao = petFiledao;
+    }
+
+    /**
+     * Registers a {@linkplain User User} that was changed in memory
+     *
+     * @param user The changed {@link User User}
+     */
+    void changed(User user) {
+        userFiledao.changed(user);
+        changedUsers.add(user.getUsername());
+    }
+
+    /**
+     * Registers how to revert a change made in memory, run if the commit fails
+     *
+     * @param action Reverts the change, taking the locks it needs
+     */
+    void onFailure(Runnable action) {
+        undo.add(action);
+    }
+
+    /**
+     * Registers a pet to be taken out of the catalog once the users are written
+     *
+     * @param id The id of the pet
+     */
+    void removeFromCatalog(int id) {
+        removedPets.add(id);
+    }
+
+    /**
+     * Retrieves the usernames changed in this unit
+     *
+     * @return The usernames in the order they were first changed
+     */
+    Set<String> changedUsers() {
+        return changedUsers;
+    }
+
+    /**
+     * Writes every registered change
+     *
+     * @throws IOException when file cannot be accessed or written to, the
+     * changes are reverted and nothing was removed from the catalog
+     */
+    void commit() throws IOException {
+        if (committed)
+            throw new IllegalStateException("Unit of work already committed");
+        committed = true;
+        if (!changedUsers.isEmpty()) {
+            try {
+                userFiledao.commit();   // single write covering every user of this unit
+            }
+            catch (IOException e) {
+                for (int i = undo.size() - 1; i >= 0; i--)
+                    undo.get(i).run();
+                throw e;
+            }
+        }
+        for (int id : removedPets)
+            petFiledao.deletePet(id);
+    }
+}
@@ -0,0 +1,62 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import com.ufund.api.ufundapi.model.User;
+
+/**
+ * Binary record layout of a {@linkplain User User}
+ * <br>
+ * Version 1: username, password, basket pet ids, adopted pet ids, notifications
+ *
+ * @author Group E
+ */
+final class UserCodec implements RecordCodec<User> {
+    static final UserCodec INSTANCE = new UserCodec();
+
+    private UserCodec() {
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public byte kind() {
+        return 'U';
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void encode(User user, DataOutput out) throws IOException {
+        BinaryRecordFile.writeString(out, user.getUsername());
+        BinaryRecordFile.writeString(out, user.getPassword());
+        BinaryRecordFile.writeInts(out, user.getBasket_pets());
+        BinaryRecordFile.writeInts(out, user.getAdopted_pets());
+        String[] notifications;
+        synchronized(user) {
+            notifications = user.getNotifications().clone();
+        }
+        BinaryRecordFile.writeVarInt(out, notifications.length);
+        for (String notification : notifications)
+            BinaryRecordFile.writeString(out, notification);
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public User decode(DataInput in, int version) throws IOException {
+        String username = BinaryRecordFile.readString(in);
+        String password = BinaryRecordFile.readString(in);
+        int[] basket = BinaryRecordFile.readInts(in);
+        int[] adopted = BinaryRecordFile.readInts(in);
+        String[] notifications = new String[BinaryRecordFile.readVarInt(in)];
+        for (int i = 0; i < notifications.length; i++)
+            notifications[i] = BinaryRecordFile.readString(in);
+        return new User(username, password, basket, adopted, notifications);
+    }
+}
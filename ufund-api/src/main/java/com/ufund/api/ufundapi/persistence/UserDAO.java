@@ -9,6 +9,57 @@ import com.ufund.api.ufundapi.model.User;
  * @author Group E
  */
 public interface UserDAO {
+    /**
+     * Gets told about every notification a {@linkplain User User} receives
+     */
+    interface NotificationListener {
+        /**
+         * Called after the notification was written to storage
+         * 
+         * @param username The username of the notified {@link User User}
+         * @param message The notification
+         * @param sequence The number the notification was appended with, see {@link Inbox#getSequence()}
+         */
+        void notified(String username, String message, long sequence);
+    }
+
+    /**
+     * The notifications of a {@linkplain User User} and how far they reach
+     */
+    final class Inbox {
+        private final String[] notifications;
+        private final long sequence;
+
+        /**
+         * Creates an inbox
+         * 
+         * @param notifications The notifications of the {@link User User}
+         * @param sequence The number of the last notification appended to any inbox when these were read
+         */
+        public Inbox(String[] notifications, long sequence) {
+            this.notifications = notifications;
+            this.sequence = sequence;
+        }
+
+        /**
+         * Retrieves the notifications
+         * 
+         * @return The notifications, oldest first
+         */
+        public String[] getNotifications() {return notifications;}
+
+        /**
+         * Retrieves the number that tells which notifications the inbox already holds
+         * <br>
+         * Every notification is numbered as it is appended, counting up across
+         * all users. A notification of this user numbered up to the sequence
+         * is in the inbox, a later one is not
+         * 
+         * @return The sequence number
+         */
+        public long getSequence() {return sequence;}
+    }
+
     /**
      * Retrieves all {@linkplain User Users}
      * 
@@ -18,6 +69,20 @@ public interface UserDAO {
      */
     User[] getUsers() throws IOException;
 
+    /**
+     * Retrieves a page of the {@linkplain User Users} in username order
+     * <br>
+     * The next page starts after the username of the last {@link User User} of this one
+     * 
+     * @param after The username the page starts behind, null for the first page
+     * @param limit The maximum number of {@link User Users} on the page
+     * 
+     * @return An array of {@link User User} objects, shorter than limit on the last page, may be empty
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    User[] getUsers(String after, int limit) throws IOException;
+
 
 
     /**
@@ -46,6 +111,22 @@ public interface UserDAO {
      */
     String[] getNotifications(String username) throws IOException;
 
+    /**
+     * Retrieves the notifications of the given username together with their sequence number
+     * <br>
+     * A {@link NotificationListener listener} told about a notification numbered
+     * up to the sequence can skip it, it is already in the inbox
+     * 
+     * @param username The username of the {@link User User} to get the notifications from
+     * 
+     * @return The {@link Inbox inbox} of the matching username
+     * <br>
+     * null if no {@link User User} with a matching username is found
+     * 
+     * @throws IOException if an issue with underlying storage
+     */
+    Inbox getInbox(String username) throws IOException;
+
     /**
      * Retrieves a {@linkplain User User} with the given username and password
      * 
@@ -95,4 +176,11 @@ public interface UserDAO {
      * @throws IOException if an issue with underlying storage
      */
     boolean deleteNotification(String message) throws IOException;
+
+    /**
+     * Registers a listener for the notifications of every {@linkplain User User}
+     * 
+     * @param listener The listener to call after each notification is written
+     */
+    void addNotificationListener(NotificationListener listener);
 }
@@ -2,12 +2,38 @@ package com.ufund.api.ufundapi.persistence;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import javax.annotation.PreDestroy;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -15,6 +41,10 @@ import com.ufund.api.ufundapi.model.User;
 
 /**
  * Implements the functionality for JSON file-based peristance for User
+ * <br>
+ * Optionally, the users live in an indexed {@linkplain UserRecordStore store
+ * file} instead of memory and only the recently used ones are cached, so the
+ * heap holds a bounded working set however many users there are
  * 
  * {@literal @}Component Spring annotation instantiates a single instance of this
  * class and injects the instance into other classes as needed
@@ -23,14 +53,73 @@ import com.ufund.api.ufundapi.model.User;
  */
 @Component
 public class UserFileDAO implements UserDAO {
-    Map<String,User> users;   // Provides a local cache of the User objects
+    NavigableMap<String,User> users;   // Provides a local cache of the User objects
                                 // so that we don't need to read from the file
-                                // each time
+                                // each time, refreshed only when the file changes,
+                                // null when the users live in the store
     private ObjectMapper objectMapper;  // Provides conversion between User
                                         // objects and JSON text format written
                                         // to the file
     private String filename;    // Filename to read from and write to
     private User current_user;
+    private GroupCommitWriter writer;   // Coalesces the file writes of concurrent mutations
+    private final Object fileLock = new Object();   // Keeps refreshes from reading a half written file
+    private FileTime fileModified;      // Modification time and size of the file when it
+    private long fileSize = -1;         // was last read or written, to detect outside edits
+    private boolean streaming;          // Load the file record by record instead of as a whole array
+    private int loadThreads;            // Threads parsing the file at startup, 0 for one per core
+    private boolean binary;             // The file holds binary records instead of JSON
+    private UserRecordStore store;      // Indexed file the users are read from on demand, null to keep all in memory
+    private LruCache<String,User> cache;            // Recently used users of the store
+    private Map<String,UserRef> live;               // Every user of the store handed out and still referenced,
+                                                    // so a user is never loaded twice while in use
+    private final ReferenceQueue<User> collected = new ReferenceQueue<>();
+    private Map<String,User> dirty;                 // Users of the store changed since the last write
+    private static final int MIGRATE_BATCH = 4096;  // Users written to a new store at a time
+    private final List<NotificationListener> listeners = new CopyOnWriteArrayList<>();
+    private final Queue<Notification> unsent = new ConcurrentLinkedQueue<>();
+                                                    // Notifications not yet passed to the listeners
+    private final AtomicLong notificationSequence = new AtomicLong();
+                                                    // Number of the last notification appended
+    private volatile RefreshListener refreshListener = DIRECT;  // Applies the users changed outside of this DAO
+
+    /**
+     * Applies the changes a {@linkplain #refresh() refresh} reads from the file
+     * <br>
+     * Lets the DAO owning the lock of a {@linkplain User User}'s basket apply
+     * the change under that lock and bring its own indexes up to date
+     */
+    interface RefreshListener {
+        /**
+         * Called for every user the file changed or added, with the file lock held
+         * 
+         * @param user The {@link User User} as cached, before the change
+         * @param update Copies the data read from the file into the user, to be run once
+         */
+        void refreshed(User user, Runnable update);
+
+        /**
+         * Called for every user no longer in the file, after it left the cache
+         * 
+         * @param user The {@link User User} that was removed
+         */
+        void removed(User user);
+    }
+
+    /**
+     * Applies the changes right away, when no other DAO guards the users
+     */
+    private static final RefreshListener DIRECT = new RefreshListener() {
+        @Override
+        public void refreshed(User user, Runnable update) {
+            update.run();
+        }
+
+        @Override
+        public void removed(User user) {
+            // nothing indexes the user
+        }
+    };
 
     /**
      * Creates a User File Data Access Object
@@ -40,9 +129,64 @@ public class UserFileDAO implements UserDAO {
      * 
      * @throws IOException when file cannot be accessed or read from
      */
-    public UserFileDAO(@Value("${users.file}") String filename,ObjectMapper objectMapper) throws IOException {
+    public UserFileDAO(String filename,ObjectMapper objectMapper) throws IOException {
+        this(filename, 0, 256, false, 1, "json", objectMapper);
+    }
+
+    /**
+     * Creates a User File Data Access Object keeping every user in memory
+     * 
+     * @param filename Filename to read from and write to
+     * @param commitWindow Milliseconds a write waits for more mutations to join it
+     * @param commitBatch Number of mutations after which a write stops waiting
+     * @param streaming true to parse the file record by record while loading
+     * @param loadThreads Number of threads parsing the file while loading, 0 for one per core
+     * @param format Format of the file, {@code json} or {@code binary}
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    public UserFileDAO(String filename, long commitWindow, int commitBatch, boolean streaming, int loadThreads,
+                       String format, ObjectMapper objectMapper) throws IOException {
+        this(filename, commitWindow, commitBatch, streaming, loadThreads, format, "", 0, objectMapper);
+    }
+
+    /**
+     * Creates a User File Data Access Object
+     * <br>
+     * When a store file is given, it replaces the file as the place the users
+     * are written to, and a new store is filled from the file
+     * 
+     * @param filename Filename to read from and write to
+     * @param commitWindow Milliseconds a write waits for more mutations to join it
+     * @param commitBatch Number of mutations after which a write stops waiting
+     * @param streaming true to parse the file record by record while loading
+     * @param loadThreads Number of threads parsing the file while loading, 0 for one per core
+     * @param format Format of the file, {@code json} or {@code binary}
+     * @param storeFile Filename of the indexed user store, empty to keep every user in memory
+     * @param cacheSize Number of users of the store cached in memory
+     * @param objectMapper Provides JSON Object to/from Java Object serialization and deserialization
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    @Autowired
+    public UserFileDAO(@Value("${users.file}") String filename, @Value("${users.commit.window:0}") long commitWindow,
+                       @Value("${users.commit.batch:256}") int commitBatch, @Value("${storage.streaming:false}") boolean streaming,
+                       @Value("${storage.load.threads:1}") int loadThreads, @Value("${storage.format:json}") String format,
+                       @Value("${users.store.file:}") String storeFile, @Value("${users.cache.size:10000}") int cacheSize,
+                       ObjectMapper objectMapper) throws IOException {
         this.filename = filename;
+        this.streaming = streaming;
+        this.loadThreads = loadThreads;
+        this.binary = BinaryRecordFile.isBinary(format);
         this.objectMapper = objectMapper;
+        if (storeFile != null && !storeFile.isEmpty()) {
+            this.store = new UserRecordStore(storeFile);
+            this.cache = new LruCache<>(Math.max(1, cacheSize));
+            this.live = new ConcurrentHashMap<>();
+            this.dirty = new ConcurrentHashMap<>();
+        }
+        this.writer = new GroupCommitWriter(this::save, commitWindow, commitBatch);
         load();  // load the User from the file
     }
    
@@ -59,7 +203,7 @@ public class UserFileDAO implements UserDAO {
     public User[] getUsersArray() { // if containsText == null, no filter
         ArrayList<User> userArrayList = new ArrayList<>();
 
-        for (User user : users.values()) {
+        for (User user : allUsers()) {
             userArrayList.add(user);
         }
 
@@ -70,44 +214,373 @@ public class UserFileDAO implements UserDAO {
 
 
     /**
-     * Saves the {@linkplain User User} from the map into the file as an array of JSON objects
+     * Saves the {@linkplain User User} from the map into the file as an array of JSON objects,
+     * or as binary records
      * 
      * @return true if the {@link User User} were written successfully
      * 
      * @throws IOException when file cannot be accessed or written to
      */
     private boolean save() throws IOException {
-        User[] userArray = getUsersArray();
+        if (store != null) {
+            store.write(takeDirty());
+            return true;
+        }
+        User[] userArray;
+        synchronized(users) {
+            userArray = getUsersArray();
+        }
 
         // Serializes the Java Objects to JSON objects into the file
         // writeValue will thrown an IOException if there is an issue
-        // with the file or reading from the file
-        objectMapper.writeValue(new File(filename),userArray);
+        // with the file or reading from the file. The file is replaced
+        // as a whole, so a crash leaves either the old or the new users
+        synchronized(fileLock) {
+            if (binary)
+                BinaryRecordFile.write(new File(filename), UserCodec.INSTANCE, userArray);
+            else
+                AtomicFile.write(new File(filename), out -> objectMapper.writeValue(out, userArray));
+            recordFileState();
+        }
         return true;
     }
 
     /**
-     * Loads {@linkplain User User} from the JSON file into the map
+     * Waits until the mutations made so far are written to the file
      * <br>
-     * Also sets next id to one more than the greatest id found in the file
+     * Must be called after the mutation is applied and outside of the lock on
+     * users so that concurrent mutations can share a single write. The
+     * notifications appended before the call are passed to the listeners once
+     * the write covering them has finished
+     * 
+     * @return true if the {@link User User} were written successfully
+     * 
+     * @throws IOException when file cannot be accessed or written to
+     */
+    boolean commit() throws IOException {
+        // Taken before the write starts, so the write covers every one of them
+        List<Notification> notifications = new ArrayList<>();
+        for (Notification notification; (notification = unsent.poll()) != null; )
+            notifications.add(notification);
+        try {
+            writer.commit();
+        }
+        catch (IOException e) {
+            unsent.addAll(notifications);   // passed on by the next commit that succeeds
+            throw e;
+        }
+        for (Notification notification : notifications) {
+            for (NotificationListener listener : listeners)
+                listener.notified(notification.username, notification.message, notification.sequence);
+        }
+        return true;
+    }
+
+    /**
+     * Loads {@linkplain User User} from the JSON file into the map
      * 
      * @return true if the file was read successfully
      * 
      * @throws IOException when file cannot be accessed or read from
      */
     private boolean load() throws IOException {
-        users = new TreeMap<>();
+        if (store != null) {
+            if (store.isEmpty() && new File(filename).exists())
+                migrate();
+            return true;
+        }
+        users = new ConcurrentSkipListMap<>();
+
+        // Add each User to the tree map
+        readUsers(user -> users.put(user.getUsername(),user));
+        recordFileState();
+        return true;
+    }
 
+    /**
+     * Fills a new store from the file, a batch of {@linkplain User Users} at a time
+     * 
+     * @throws IOException when file cannot be read or the store cannot be written
+     */
+    private void migrate() throws IOException {
+        List<User> batch = new ArrayList<>(MIGRATE_BATCH);
+        try {
+            readUsers(user -> {
+                batch.add(user);
+                if (batch.size() == MIGRATE_BATCH) {
+                    write(batch);
+                    batch.clear();
+                }
+            });
+        }
+        catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        store.write(batch);
+    }
+
+    private void write(List<User> batch) {
+        try {
+            store.write(batch);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Retrieves a {@linkplain User User} from memory or, when they live in the store, from the cache or the store
+     * <br>
+     * A user that is still referenced is handed out as the same object, even
+     * when it dropped out of the cache, so changes made to it are never lost
+     * 
+     * @param username The username of the {@link User User}
+     * 
+     * @return The {@link User User}, null if there is none with that username
+     * 
+     * @throws UncheckedIOException when the store cannot be read
+     */
+    private User find(String username) {
+        if (store == null)
+            return users.get(username);
+        User user = cache.get(username);
+        if (user != null)
+            return user;
+
+        expunge();
+        User[] found = new User[1];
+        live.compute(username, (key, ref) -> {
+            found[0] = ref == null ? null : ref.get();
+            if (found[0] != null)
+                return ref;
+            try {
+                found[0] = store.read(key);
+            }
+            catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return found[0] == null ? null : new UserRef(found[0], collected);
+        });
+        if (found[0] != null)
+            cache.put(username, found[0]);
+        return found[0];
+    }
+
+    /**
+     * Forgets the users of the store that are no longer referenced anywhere
+     */
+    private void expunge() {
+        UserRef ref;
+        while ((ref = (UserRef) collected.poll()) != null)
+            live.remove(ref.username, ref);
+    }
+
+    /**
+     * Registers a {@linkplain User User} that was changed in memory so the next
+     * {@link #commit()} writes it
+     * <br>
+     * Only needed when the users live in the store, the file is always written as a whole
+     * 
+     * @param user The changed {@link User User}
+     */
+    void changed(User user) {
+        if (dirty != null)
+            dirty.put(user.getUsername(), user);
+    }
+
+    /**
+     * Takes the users changed since the last write
+     * <br>
+     * A user changed again while being written is registered anew and written by the next commit
+     */
+    private List<User> takeDirty() {
+        List<User> changed = new ArrayList<>(dirty.size());
+        for (Map.Entry<String,User> entry : dirty.entrySet()) {
+            if (dirty.remove(entry.getKey(), entry.getValue()))
+                changed.add(entry.getValue());
+        }
+        return changed;
+    }
+
+    /**
+     * Iterates over every {@linkplain User User} in username order
+     * <br>
+     * Users of the store are read one at a time while iterating, so they do not
+     * all have to fit in memory at once
+     * 
+     * @return The {@link User Users}
+     */
+    Iterable<User> allUsers() {
+        if (store == null)
+            return users.values();
+        return () -> new Iterator<User>() {
+            private final Iterator<String> usernames = store.usernames().iterator();
+            private User next = advance();
+
+            private User advance() {
+                while (usernames.hasNext()) {
+                    User user = find(usernames.next());
+                    if (user != null)
+                        return user;
+                }
+                return null;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public User next() {
+                if (next == null)
+                    throw new NoSuchElementException();
+                User user = next;
+                next = advance();
+                return user;
+            }
+        };
+    }
+
+    /**
+     * Reads the {@linkplain User Users} of the JSON file in file order
+     * <br>
+     * Binary files are always read record by record. When streaming, each user
+     * is handed over as soon as it is parsed instead
+     * of after the whole array was built. Unless loading on a single thread,
+     * chunks of a large file are parsed in parallel
+     * 
+     * @param sink Receives each {@link User User}
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    private void readUsers(Consumer<User> sink) throws IOException {
+        if (binary) {
+            BinaryRecordFile.read(new File(filename), UserCodec.INSTANCE, sink);
+            return;
+        }
+        if (loadThreads != 1) {
+            ForkJoinPool pool = new ForkJoinPool(loadThreads > 0 ? loadThreads : Runtime.getRuntime().availableProcessors());
+            try {
+                JsonArrayReader.read(objectMapper, new File(filename), User.class, sink, pool);
+            }
+            finally {
+                pool.shutdown();
+            }
+            return;
+        }
+        if (streaming) {
+            JsonArrayReader.read(objectMapper, new File(filename), User.class, sink);
+            return;
+        }
         // Deserializes the JSON objects from the file into an array of User
         // readValue will throw an IOException if there's an issue with the file
         // or reading from the file
-        User[] usersArray = objectMapper.readValue(new File(filename),User[].class);
-        // Add each User to the tree map and keep track of the greatest id
-        for (User user : usersArray) {
-            users.put(user.getUsername(),user);
+        for (User user : objectMapper.readValue(new File(filename),User[].class))
+            sink.accept(user);
+    }
+
+    /**
+     * Brings the map up to date with the JSON file if it was changed outside of
+     * this DAO since it was last read or written
+     * <br>
+     * Only the {@linkplain User Users} that differ from the file are touched, and
+     * they are updated in place so references handed out earlier stay valid.
+     * Each change goes through the {@link RefreshListener refresh listener}, which
+     * applies it under the lock guarding the user's basket
+     * 
+     * @throws IOException when file cannot be accessed or read from
+     */
+    private void refresh() throws IOException {
+        if (store != null || !fileChanged())
+            return; // the store is only ever written by this DAO
+
+        synchronized(fileLock) {
+            if (!fileChanged())
+                return;
+            User[] usersArray;
+            if (binary) {
+                List<User> read = new ArrayList<>();
+                BinaryRecordFile.read(new File(filename), UserCodec.INSTANCE, read::add);
+                usersArray = read.toArray(new User[0]);
+            }
+            else {
+                usersArray = objectMapper.readValue(new File(filename),User[].class);
+            }
+            RefreshListener listener = refreshListener;
+            Set<String> present = new HashSet<>();
+            for (User user : usersArray) {
+                present.add(user.getUsername());
+                User cached = users.get(user.getUsername());
+                if (cached == null) {
+                    listener.refreshed(user, () -> users.put(user.getUsername(), user));
+                }
+                else if (!sameContent(cached, user)) {
+                    listener.refreshed(cached, () -> {
+                        synchronized(cached) {
+                            cached.setPassword(user.getPassword());
+                            cached.setBasket(user.getBasket_pets());
+                            cached.setAdopted(user.getAdopted_pets());
+                            cached.setNotifications(user.getNotifications());
+                        }
+                    });
+                }
+            }
+            List<User> removed = new ArrayList<>();
+            synchronized(users) {
+                for (Iterator<User> it = users.values().iterator(); it.hasNext(); ) {
+                    User user = it.next();
+                    if (!present.contains(user.getUsername())) {
+                        it.remove();
+                        removed.add(user);
+                    }
+                }
+            }
+            for (User user : removed)
+                listener.removed(user);
+            recordFileState();
+        }
+    }
+
+    /**
+     * Checks whether two {@linkplain User Users} hold the same data
+     */
+    private static boolean sameContent(User a, User b) {
+        return Objects.equals(a.getPassword(), b.getPassword())
+            && Arrays.equals(a.getBasket_pets(), b.getBasket_pets())
+            && Arrays.equals(a.getAdopted_pets(), b.getAdopted_pets())
+            && Arrays.equals(a.getNotifications(), b.getNotifications());
+    }
+
+    /**
+     * Checks whether the modification time or size of the file changed since it
+     * was last read or written
+     */
+    private boolean fileChanged() throws IOException {
+        BasicFileAttributes attributes = fileAttributes();
+        if (attributes == null)
+            return false; // nothing on disk to pick up
+        return !attributes.lastModifiedTime().equals(fileModified) || attributes.size() != fileSize;
+    }
+
+    /**
+     * Remembers the modification time and size of the file as this DAO left it
+     */
+    private void recordFileState() throws IOException {
+        BasicFileAttributes attributes = fileAttributes();
+        if (attributes != null) {
+            fileModified = attributes.lastModifiedTime();
+            fileSize = attributes.size();
+        }
+    }
+
+    private BasicFileAttributes fileAttributes() throws IOException {
+        try {
+            return Files.readAttributes(new File(filename).toPath(), BasicFileAttributes.class);
+        }
+        catch (NoSuchFileException e) {
+            return null;
         }
-        // Make the next id one greater than the maximum from the file
-        return true;
     }
 
     /**
@@ -115,24 +588,48 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User[] getUsers() {
+        if (store != null)
+            return getUsersArray();
         synchronized(users) {
             return getUsersArray();
         }
     }
 
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public User[] getUsers(String after, int limit) {
+        List<User> page = new ArrayList<>(Math.min(limit, 1024));
+        if (store == null) {
+            Map<String,User> tail = after == null ? users : users.tailMap(after, false);
+            for (User user : tail.values()) {
+                if (page.size() >= limit)
+                    break;
+                page.add(user);
+            }
+        }
+        else {
+            NavigableSet<String> tail = after == null ? store.usernames() : store.usernames().tailSet(after, false);
+            for (String username : tail) {
+                if (page.size() >= limit)
+                    break;
+                User user = find(username);
+                if (user != null)
+                    page.add(user);
+            }
+        }
+        return page.toArray(new User[0]);
+    }
+
     /**
     ** {@inheritDoc}
      * @throws IOException
      */
     @Override
     public User getUser(String username) throws IOException {
-        load();
-        synchronized(users) {
-            if (users.containsKey(username))
-                return users.get(username);
-            else
-                return null;
-        }
+        refresh();
+        return find(username);
     }
 
     /**
@@ -141,12 +638,26 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public String[] getNotifications(String username) throws IOException {
-        load();
-        synchronized(users) {
-            if (users.containsKey(username))
-                return users.get(username).getNotifications();
-            else
-                return null;
+        refresh();
+        User user = find(username);
+        if (user != null)
+            return user.getNotifications();
+        else
+            return null;
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public Inbox getInbox(String username) throws IOException {
+        refresh();
+        User user = find(username);
+        if (user == null)
+            return null;
+        // Read under the lock notifications are numbered and appended under, so the two agree
+        synchronized(user) {
+            return new Inbox(user.getNotifications(), notificationSequence.get());
         }
     }
     /**
@@ -154,14 +665,13 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User checkUser(String username, String password) {
-        current_user = users.get(username);
-        synchronized(users) {
-            if ((users.containsKey(username)) && (users.get(username).getPassword().equals(password))){
-                return users.get(username);
-            }
-            else{
-                return null;
-            }
+        User user = find(username);
+        current_user = user;
+        if ((user != null) && (user.getPassword().equals(password))){
+            return user;
+        }
+        else{
+            return null;
         }
     }
 
@@ -170,11 +680,19 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public User createUser(User user) throws IOException {
-        synchronized(users) {
-            users.put(user.getUsername(),user);
-            save(); // may throw an IOException
-            return user;
+        if (store != null) {
+            expunge();
+            live.put(user.getUsername(), new UserRef(user, collected));
+            cache.put(user.getUsername(), user);
+            changed(user);
         }
+        else {
+            synchronized(users) {
+                users.put(user.getUsername(),user);
+            }
+        }
+        commit(); // may throw an IOException
+        return user;
     }
 
      /**
@@ -182,28 +700,44 @@ public class UserFileDAO implements UserDAO {
      */
     @Override
     public String addNotification(String message) throws IOException{
-        load();
-        synchronized(users) {
-            User admin = this.getUser("admin");
-            String[] currentNotifs = admin.getNotifications();
-            String[] newNotifs = new String[currentNotifs.length+1];
-            for(int i = 0; i < currentNotifs.length; i++){
-                newNotifs[i] = currentNotifs[i];
-            }
+        refresh();
+        appendNotification(find("admin"), message);
+        commit();
+        return message;
+    }
+
+    /**
+     * Appends a notification to the inbox of a {@linkplain User User}
+     * <br>
+     * Notifications are guarded by the lock of their {@link User User} so that
+     * other DAOs can notify users concurrently, and numbered under that lock
+     * as well. The change stays in memory until the next {@link #commit()}
+     * 
+     * @param user The {@link User User} to notify
+     * @param message The notification to be added
+     */
+    void appendNotification(User user, String message) {
+        long sequence;
+        synchronized(user) {
+            String[] currentNotifs = user.getNotifications();
+            String[] newNotifs = Arrays.copyOf(currentNotifs, currentNotifs.length+1);
             newNotifs[currentNotifs.length] = message;
-            admin.setNotifications(newNotifs);
-            save();
-            return message;
+            user.setNotifications(newNotifs);
+            sequence = notificationSequence.incrementAndGet();
         }
+        changed(user);
+        if (!listeners.isEmpty())
+            unsent.add(new Notification(user.getUsername(), message, sequence));
     }
     /**
     ** {@inheritDoc}
      */
     @Override
     public boolean deleteNotification(String message) throws IOException{
-        load();
-        synchronized(users) {
-            String[] currentNotifs = users.get(current_user.getUsername()).getNotifications();
+        refresh();
+        User user = find(current_user.getUsername());
+        synchronized(user) {
+            String[] currentNotifs = user.getNotifications();
             String[] newNotifs = new String[currentNotifs.length-1];
             boolean deleted = false;
             for(int i = 0, j = 0; i < currentNotifs.length; i++){
@@ -215,8 +749,64 @@ public class UserFileDAO implements UserDAO {
                     j++;
                 }
             }
-            users.get(current_user.getUsername()).setNotifications(newNotifs);
-            return save(); // may throw an IOException
+            user.setNotifications(newNotifs);
+        }
+        changed(user);
+        return commit(); // may throw an IOException
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void addNotificationListener(NotificationListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Sets the listener that applies the changes read from a file edited outside of this DAO
+     * 
+     * @param listener The listener, replaces the one set before
+     */
+    void setRefreshListener(RefreshListener listener) {
+        refreshListener = listener;
+    }
+
+    /**
+     * Closes the store on shutdown
+     * 
+     * @throws IOException when the store cannot be closed
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        if (store != null)
+            store.close();
+    }
+
+    /**
+     * Weak reference to a {@linkplain User User} of the store that remembers its username
+     */
+    private static final class UserRef extends WeakReference<User> {
+        final String username;
+
+        UserRef(User user, ReferenceQueue<User> queue) {
+            super(user, queue);
+            this.username = user.getUsername();
+        }
+    }
+
+    /**
+     * A notification appended to an inbox and not yet passed to the listeners
+     */
+    private static final class Notification {
+        final String username;
+        final String message;
+        final long sequence;    // Number it was appended with
+
+        Notification(String username, String message, long sequence) {
+            this.username = username;
+            this.message = message;
+            this.sequence = sequence;
         }
     }
 
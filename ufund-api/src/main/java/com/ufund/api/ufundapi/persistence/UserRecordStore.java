@@ -0,0 +1,328 @@
+package com.ufund.api.ufundapi.persistence;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.ufund.api.ufundapi.model.User;
+
+/**
+ * Append-only file of {@linkplain User User} records with an index by username
+ * <br>
+ * Each write appends the changed users as {@link UserCodec} records and
+ * points the index at the new copies, so a user is read back with a single
+ * positional read no matter how many users the file holds. Only the index of
+ * usernames to file positions stays in memory, the users themselves are read
+ * on demand. Once the outdated copies take more room than the current ones,
+ * the current ones are copied to a fresh file that replaces the old one.
+ * <br>
+ * Record layout: an int length followed by the fields of the user. A record
+ * cut short by a crash is dropped when the file is opened.
+ *
+ * @author Group E
+ */
+final class UserRecordStore implements Closeable {
+    static final int MAGIC = 0x55465553;    // "UFUS"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 16;
+    static final int MAX_RECORD = (1 << 24) - 1;        // Longest record the index can point at
+    static final long COMPACT_MIN_BYTES = 1L << 20;     // Outdated bytes tolerated before compacting
+
+    private final Path path;
+    private FileChannel channel;
+    private final ConcurrentSkipListMap<String,Long> index = new ConcurrentSkipListMap<>();
+                                        // Position and length of the current record of each username
+    private long end;                   // Where the next record is appended
+    private long liveBytes;             // Bytes of the records the index points at
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();  // Reads share the channel,
+                                                                               // writes and compaction own it
+
+    /**
+     * Opens a user store, creating it if missing
+     *
+     * @param filename The file holding the records
+     *
+     * @throws IOException when the file cannot be opened or holds something else
+     */
+    UserRecordStore(String filename) throws IOException {
+        path = Paths.get(filename);
+        channel = open(path);
+        if (channel.size() == 0) {
+            writeFully(channel, header(), 0);
+            end = HEADER_SIZE;
+        }
+        else {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            readFully(channel, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC)
+                throw new IOException(filename + " is not a user store");
+            int version = header.getShort();
+            if (version > VERSION || header.get() != UserCodec.INSTANCE.kind())
+                throw new IOException(filename + " has an unsupported record layout");
+            scan();
+        }
+    }
+
+    private static FileChannel open(Path path) throws IOException {
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static ByteBuffer header() {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putShort((short) VERSION).put(UserCodec.INSTANCE.kind()).rewind();
+        return header;
+    }
+
+    /**
+     * Builds the index from the records in file order, the last copy of a user wins
+     */
+    private void scan() throws IOException {
+        long size = channel.size();
+        long position = HEADER_SIZE;
+        channel.position(position);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel), 1 << 16));
+        byte[] record = new byte[256];
+        while (position + 4 <= size) {
+            int length = in.readInt();
+            if (length < 0 || length > MAX_RECORD || position + 4 + length > size)
+                break;  // torn last record
+            if (record.length < length)
+                record = new byte[Math.max(length, record.length * 2)];
+            in.readFully(record, 0, length);
+            String username = BinaryRecordFile.readString(new DataInputStream(new ByteArrayInputStream(record, 0, length)));
+            index(username, position, length);
+            position += 4 + length;
+        }
+        if (position < size)
+            channel.truncate(position);
+        end = position;
+    }
+
+    /**
+     * Reads the current record of a user
+     *
+     * @param username The username of the {@link User User}
+     *
+     * @return The {@link User User}, null if the store does not hold it
+     *
+     * @throws IOException when the record cannot be read
+     */
+    User read(String username) throws IOException {
+        lock.readLock().lock();
+        try {
+            Long entry = index.get(username);
+            if (entry == null)
+                return null;
+            ByteBuffer record = ByteBuffer.allocate(lengthOf(entry));
+            readFully(channel, record, offsetOf(entry) + 4);
+            return UserCodec.INSTANCE.decode(new DataInputStream(new ByteArrayInputStream(record.array())), VERSION);
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Appends the given users and flushes them to the device
+     * <br>
+     * The index only points at the new records once they are on disk
+     *
+     * @param users The changed {@link User Users}, each username at most once
+     *
+     * @throws IOException when the records cannot be written
+     */
+    void write(Collection<User> users) throws IOException {
+        if (users.isEmpty())
+            return;
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(users.size() * 128);
+        DataOutputStream out = new DataOutputStream(bytes);
+        ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+        DataOutputStream fields = new DataOutputStream(record);
+        List<String> usernames = new ArrayList<>(users.size());
+        int[] lengths = new int[users.size()];
+        for (User user : users) {
+            record.reset();
+            UserCodec.INSTANCE.encode(user, fields);
+            if (record.size() > MAX_RECORD)
+                throw new IOException("Record of user " + user.getUsername() + " exceeds " + MAX_RECORD + " bytes");
+            out.writeInt(record.size());
+            record.writeTo(out);
+            lengths[usernames.size()] = record.size();
+            usernames.add(user.getUsername());
+        }
+
+        lock.writeLock().lock();
+        try {
+            long position = end;
+            writeFully(channel, ByteBuffer.wrap(bytes.toByteArray()), position);
+            channel.force(false);
+            for (int i = 0; i < lengths.length; i++) {
+                index(usernames.get(i), position, lengths[i]);
+                position += 4 + lengths[i];
+            }
+            end = position;
+            long outdated = end - HEADER_SIZE - liveBytes;
+            if (outdated > Math.max(liveBytes, COMPACT_MIN_BYTES))
+                compact();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Copies the current records to a fresh file that then replaces this one
+     * <br>
+     * Must be called with the write lock held
+     */
+    private void compact() throws IOException {
+        // Keys are only added under the write lock, so the copy keeps this order
+        long[] entries = new long[index.size()];
+        long position = HEADER_SIZE;
+        int i = 0;
+        for (Long entry : index.values()) {
+            entries[i++] = entry(position, lengthOf(entry));
+            position += 4 + lengthOf(entry);
+        }
+        AtomicFile.writeChannel(path.toFile(), out -> {
+            writeFully(out, header(), 0);
+            out.position(HEADER_SIZE);
+            for (Long entry : index.values()) {
+                long from = offsetOf(entry);
+                for (long left = 4 + lengthOf(entry); left > 0; ) {
+                    long moved = channel.transferTo(from, left, out);
+                    from += moved;
+                    left -= moved;
+                }
+            }
+        });
+        channel.close();
+        channel = open(path);
+
+        i = 0;
+        for (String username : index.keySet())
+            index.put(username, entries[i++]);
+        end = position;
+    }
+
+    private void index(String username, long position, int length) {
+        Long previous = index.put(username, entry(position, length));
+        if (previous != null)
+            liveBytes -= 4 + lengthOf(previous);
+        liveBytes += 4 + length;
+    }
+
+    /**
+     * Checks whether the store holds no users
+     *
+     * @return true for a store without any user
+     */
+    boolean isEmpty() {
+        return index.isEmpty();
+    }
+
+    /**
+     * Retrieves the number of users
+     *
+     * @return The number of usernames in the index
+     */
+    int size() {
+        return index.size();
+    }
+
+    /**
+     * Checks whether the store holds a user
+     *
+     * @param username The username of the {@link User User}
+     *
+     * @return true if a record of the user exists
+     */
+    boolean contains(String username) {
+        return index.containsKey(username);
+    }
+
+    /**
+     * Retrieves the usernames of the store
+     *
+     * @return A live view of the usernames in ascending order
+     */
+    NavigableSet<String> usernames() {
+        return index.keySet();
+    }
+
+    /**
+     * Retrieves the size of the file, outdated records included
+     *
+     * @return The size in bytes
+     */
+    long fileSize() {
+        lock.readLock().lock();
+        try {
+            return end;
+        }
+        finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+    ** {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            channel.close();
+        }
+        finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Packs the position and the length of a record into one index entry
+     */
+    private static long entry(long position, int length) {
+        return position << 24 | length;
+    }
+
+    private static long offsetOf(long entry) {
+        return entry >>> 24;
+    }
+
+    private static int lengthOf(long entry) {
+        return (int) (entry & MAX_RECORD);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining())
+            position += channel.write(buffer, position);
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0)
+                throw new EOFException("Unexpected end of the user store");
+            position += read;
+        }
+    }
+}
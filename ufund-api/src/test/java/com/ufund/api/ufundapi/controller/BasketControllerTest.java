@@ -40,10 +40,10 @@ public class BasketControllerTest {
         // Setup
         Pet pet = new Pet(99,"Greater sage-grouse", "Galactic Agent");
         // When the same id is passed in, our mock Pet DAO will return the Pet object
-        when(mockBasketDAO.getPet(pet.getId())).thenReturn(pet);
+        when(mockBasketDAO.getPet("test", pet.getId())).thenReturn(pet);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.getPet(pet.getId());
+        ResponseEntity<Pet> response = basketController.getPet("test", pet.getId());
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
@@ -76,13 +76,31 @@ public class BasketControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
     }
 
+    @Test
+    public void testGetPetPage() throws IOException{
+        Pet[] pets = new Pet[]{new Pet(101,"Greater sage-grouse", "Galactic Agent")};
+        when(mockBasketDAO.getPet("test", 99, 1)).thenReturn(pets);
+        ResponseEntity<Pet[]> response = basketController.getPet("test", 1, 99);
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(pets,response.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST,basketController.getPet("test", 0, 99).getStatusCode());
+    }
+
+    @Test
+    public void testGetAdoptedPetPage() throws IOException{
+        doThrow(new IOException()).when(mockBasketDAO).getAdoptedPet("test", Integer.MIN_VALUE, 20);
+        ResponseEntity<Pet[]> response = basketController.getAdoptedPet("test", 20, null);
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,basketController.getAdoptedPet("test", 0, null).getStatusCode());
+    }
+
     @Test
     public void testAdoptPet() throws IOException{
         int petId = 99;
-        when(mockBasketDAO.adoptPet(petId)).thenReturn(true);
-        ResponseEntity<Pet> response = basketController.adoptPet(petId);
-        when(mockBasketDAO.adoptPet(petId)).thenReturn(false);
-        ResponseEntity<Pet> response2 = basketController.adoptPet(petId);
+        when(mockBasketDAO.adoptPet("test", petId)).thenReturn(true);
+        ResponseEntity<Pet> response = basketController.adoptPet("test", petId);
+        when(mockBasketDAO.adoptPet("test", petId)).thenReturn(false);
+        ResponseEntity<Pet> response2 = basketController.adoptPet("test", petId);
         assertEquals(HttpStatus.OK,response.getStatusCode());
         assertEquals(HttpStatus.CONFLICT,response2.getStatusCode());
     }
@@ -90,8 +108,8 @@ public class BasketControllerTest {
     @Test
     public void testAdoptPetException() throws IOException{
         int petId = 99;
-        doThrow(new IOException()).when(mockBasketDAO).adoptPet(petId);
-        ResponseEntity<Pet> response = basketController.adoptPet(petId);
+        doThrow(new IOException()).when(mockBasketDAO).adoptPet("test", petId);
+        ResponseEntity<Pet> response = basketController.adoptPet("test", petId);
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
     }
 
@@ -102,10 +120,10 @@ public class BasketControllerTest {
         int petId = 99;
         // When the same id is passed in, our mock Pet DAO will return null, simulating
         // no pet found
-        when(mockBasketDAO.getPet(petId)).thenReturn(null);
+        when(mockBasketDAO.getPet("test", petId)).thenReturn(null);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.getPet(petId);
+        ResponseEntity<Pet> response = basketController.getPet("test", petId);
 
         // Analyze
         assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
@@ -116,10 +134,10 @@ public class BasketControllerTest {
         // Setup
         int petId = 99;
         // When getPet is called on the Mock Pet DAO, throw an IOException
-        doThrow(new IOException()).when(mockBasketDAO).getPet(petId);
+        doThrow(new IOException()).when(mockBasketDAO).getPet("test", petId);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.getPet(petId);
+        ResponseEntity<Pet> response = basketController.getPet("test", petId);
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
@@ -136,10 +154,10 @@ public class BasketControllerTest {
         Pet pet = new Pet(99,"Greater sage-grouse", "Wi-Fire");
         // when createPet is called, return true simulating successful
         // creation and save
-       when(mockBasketDAO.createPet(pet)).thenReturn(pet);
+       when(mockBasketDAO.createPet("test", pet)).thenReturn(pet);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.createPet(pet);
+        ResponseEntity<Pet> response = basketController.createPet("test", pet);
 
         // Analyze
         assertEquals(HttpStatus.CREATED,response.getStatusCode());
@@ -152,10 +170,10 @@ public class BasketControllerTest {
         Pet pet = new Pet(99,"Greater sage-grouse", "Bolt");
         // when createPet is called, return false simulating failed
         // creation and save
-        when(mockBasketDAO.createPet(pet)).thenReturn(null);
+        when(mockBasketDAO.createPet("test", pet)).thenReturn(null);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.createPet(pet);
+        ResponseEntity<Pet> response = basketController.createPet("test", pet);
 
         // Analyze
         assertEquals(HttpStatus.CONFLICT,response.getStatusCode());
@@ -167,40 +185,10 @@ public class BasketControllerTest {
         Pet pet = new Pet(99,"Greater sage-grouse", "Ice Gladiator");
 
         // When createPet is called on the Mock Pet DAO, throw an IOException
-        doThrow(new IOException()).when(mockBasketDAO).createPet(pet);
-
-        // Invoke
-        ResponseEntity<Pet> response = basketController.createPet(pet);
-
-        // Analyze
-        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
-    }
-
-    @Test
-    public void testGetPets() throws IOException { // getPets may throw IOException
-        // Setup
-        Pet[] pets = new Pet[2];
-        pets[0] = new Pet(99,"Greater sage-grouse", "Bolt");
-        pets[1] = new Pet(99,"Greater sage-grouse", "The Great Iguana");
-        // When getPets is called return the pets created above
-        when(mockBasketDAO.getPets()).thenReturn(pets);
-
-        // Invoke
-        ResponseEntity<Pet[]> response = basketController.getPets();
-
-        // Analyze
-        assertEquals(HttpStatus.OK,response.getStatusCode());
-        assertEquals(pets,response.getBody());
-    }
-
-    @Test
-    public void testGetPetsHandleException() throws IOException { // getPets may throw IOException
-        // Setup
-        // When getPets is called on the Mock Pet DAO, throw an IOException
-        doThrow(new IOException()).when(mockBasketDAO).getPets();
+        doThrow(new IOException()).when(mockBasketDAO).createPet("test", pet);
 
         // Invoke
-        ResponseEntity<Pet[]> response = basketController.getPets();
+        ResponseEntity<Pet> response = basketController.createPet("test", pet);
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
@@ -211,10 +199,10 @@ public class BasketControllerTest {
         // Setup
         int petId = 99;
         // when deletePet is called return true, simulating successful deletion
-        when(mockBasketDAO.deletePet(petId)).thenReturn(true);
+        when(mockBasketDAO.deletePet("test", petId)).thenReturn(true);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.deletePet(petId);
+        ResponseEntity<Pet> response = basketController.deletePet("test", petId);
 
         // Analyze
         assertEquals(HttpStatus.OK,response.getStatusCode());
@@ -225,10 +213,10 @@ public class BasketControllerTest {
         // Setup
         int petId = 99;
         // when deletePet is called return false, simulating failed deletion
-        when(mockBasketDAO.deletePet(petId)).thenReturn(false);
+        when(mockBasketDAO.deletePet("test", petId)).thenReturn(false);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.deletePet(petId);
+        ResponseEntity<Pet> response = basketController.deletePet("test", petId);
 
         // Analyze
         assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
@@ -239,10 +227,10 @@ public class BasketControllerTest {
         // Setup
         int petId = 99;
         // When deletePet is called on the Mock Pet DAO, throw an IOException
-        doThrow(new IOException()).when(mockBasketDAO).deletePet(petId);
+        doThrow(new IOException()).when(mockBasketDAO).deletePet("test", petId);
 
         // Invoke
-        ResponseEntity<Pet> response = basketController.deletePet(petId);
+        ResponseEntity<Pet> response = basketController.deletePet("test", petId);
 
         // Analyze
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
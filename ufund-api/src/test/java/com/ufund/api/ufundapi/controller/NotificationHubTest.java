@@ -0,0 +1,151 @@
+package com.ufund.api.ufundapi.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.ufund.api.ufundapi.persistence.UserDAO;
+
+/**
+ * Test the Notification Hub class
+ * 
+ * @author Group 5E
+ */
+@Tag("Controller-tier")
+public class NotificationHubTest {
+    private NotificationHub hub;
+
+    /**
+     * Emitter that keeps the events sent to it, or fails like a client that went away
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        final List<SseEventBuilder> events = new ArrayList<>();
+        boolean gone;
+
+        @Override
+        public void send(SseEventBuilder event) throws IOException {
+            if (gone)
+                throw new IOException("Broken pipe");
+            events.add(event);
+        }
+
+        /**
+         * Retrieves the text of an event sent
+         */
+        String text(int index) {
+            StringBuilder text = new StringBuilder();
+            for (ResponseBodyEmitter.DataWithMediaType part : events.get(index).build())
+                text.append(part.getData());
+            return text.toString();
+        }
+    }
+
+    @BeforeEach
+    public void setupHub() {
+        hub = new NotificationHub(0, 0);
+    }
+
+    @AfterEach
+    public void closeHub() {
+        hub.close();
+    }
+
+    @Test
+    public void testNotifiedFansOutPerUser() {
+        // Setup
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        RecordingEmitter other = new RecordingEmitter();
+        hub.add("Hyper", first);
+        hub.add("Hyper", second);
+        hub.add("Tenshi", other);
+        hub.sendInbox("Hyper", first, new UserDAO.Inbox(new String[0], 0));
+        hub.sendInbox("Hyper", second, new UserDAO.Inbox(new String[0], 0));
+        hub.sendInbox("Tenshi", other, new UserDAO.Inbox(new String[0], 0));
+
+        // Invoke
+        hub.notified("Hyper", "Wi-Fire has been adopted", 1);
+        hub.notified("Beep", "Bolt has been adopted", 2);
+
+        // Analyze
+        assertEquals(3, hub.connections());
+        assertEquals(2, first.events.size());
+        assertEquals(2, second.events.size());
+        assertEquals(1, other.events.size());
+    }
+
+    @Test
+    public void testNotifiedOnceAroundInbox() {
+        // Setup
+        RecordingEmitter emitter = new RecordingEmitter();
+        hub.add("Hyper", emitter);
+
+        // Invoke
+        // 1 and 2 were appended before the inbox was read, 3 after it
+        hub.notified("Hyper", "Wi-Fire has been adopted", 1);
+        hub.notified("Hyper", "Bolt has been adopted", 3);
+        int heldBack = emitter.events.size();
+        hub.sendInbox("Hyper", emitter, new UserDAO.Inbox(new String[]{"Wi-Fire has been adopted", "Kagu has been adopted"}, 2));
+        hub.notified("Hyper", "Kagu has been adopted", 2);
+        hub.notified("Hyper", "Ice Gladiator has been adopted", 4);
+
+        // Analyze
+        assertEquals(0, heldBack);
+        // The inbox, then 3 and 4 alone
+        assertEquals(3, emitter.events.size());
+        assertTrue(emitter.text(0).startsWith("event:inbox"));
+        assertTrue(emitter.text(1).contains("Bolt has been adopted"));
+        assertTrue(emitter.text(2).contains("Ice Gladiator has been adopted"));
+    }
+
+    @Test
+    public void testDropsBrokenStreams() {
+        // Setup
+        RecordingEmitter alive = new RecordingEmitter();
+        RecordingEmitter broken = new RecordingEmitter();
+        broken.gone = true;
+        hub.add("Hyper", alive);
+        hub.add("Hyper", broken);
+
+        // Invoke
+        hub.heartbeat();
+
+        // Analyze
+        assertEquals(1, hub.connections());
+        assertEquals(1, alive.events.size());
+        assertFalse(hub.sendInbox("Hyper", broken, new UserDAO.Inbox(new String[0], 0)));
+        assertTrue(hub.sendInbox("Hyper", alive, new UserDAO.Inbox(new String[]{"Test1"}, 0)));
+    }
+
+    @Test
+    public void testRemove() {
+        // Setup
+        RecordingEmitter first = new RecordingEmitter();
+        RecordingEmitter second = new RecordingEmitter();
+        hub.add("Hyper", first);
+        hub.add("Hyper", second);
+        hub.sendInbox("Hyper", second, new UserDAO.Inbox(new String[0], 0));
+
+        // Invoke
+        hub.remove("Hyper", first);
+        hub.remove("Hyper", first);
+        hub.notified("Hyper", "Wi-Fire has been adopted", 1);
+        hub.remove("Hyper", second);
+
+        // Analyze
+        assertEquals(0, first.events.size());
+        assertEquals(2, second.events.size());
+        assertEquals(0, hub.connections());
+    }
+}
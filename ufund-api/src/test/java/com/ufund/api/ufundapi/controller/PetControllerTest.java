@@ -1,18 +1,30 @@
 package com.ufund.api.ufundapi.controller;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import com.ufund.api.ufundapi.persistence.PetDAO;
 import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.PetChanges;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
@@ -131,6 +143,36 @@ public class PetControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
     }
 
+    @Test
+    public void testCreatePets() throws IOException {
+        // Setup
+        Pet[] pets = new Pet[2];
+        pets[0] = new Pet(99,"Greater sage-grouse", "Wi-Fire");
+        pets[1] = new Pet(100,"Greater sage-grouse", "Bolt");
+        when(mockPetDAO.createPets(pets)).thenReturn(pets);
+
+        // Invoke
+        ResponseEntity<Pet[]> response = petController.createPets(pets);
+
+        // Analyze
+        assertEquals(HttpStatus.CREATED,response.getStatusCode());
+        assertEquals(pets,response.getBody());
+    }
+
+    @Test
+    public void testCreatePetsHandleException() throws IOException {
+        // Setup
+        Pet[] pets = new Pet[1];
+        pets[0] = new Pet(99,"Greater sage-grouse", "Wi-Fire");
+        doThrow(new IOException()).when(mockPetDAO).createPets(pets);
+
+        // Invoke
+        ResponseEntity<Pet[]> response = petController.createPets(pets);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
     @Test
     public void testUpdatePet() throws IOException { // updatePet may throw IOException
         // Setup
@@ -208,6 +250,151 @@ public class PetControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
     }
 
+    @Test
+    public void testGetCatalog() throws IOException { // getCatalog may throw IOException
+        // Setup
+        Pet[] pets = new Pet[2];
+        pets[0] = new Pet(99,"Greater sage-grouse", "Bolt");
+        pets[1] = new Pet(100,"Greater sage-grouse", "The Great Iguana");
+        when(mockPetDAO.getVersion()).thenReturn(3L);
+        when(mockPetDAO.getCatalog()).thenReturn(new PetChanges(3, true, pets, new int[0]));
+        ObjectMapper objectMapper = new ObjectMapper();
+
+        // Invoke
+        ResponseEntity<byte[]> response = petController.getCatalog(null, null);
+        String etag = response.getHeaders().getETag();
+        ResponseEntity<byte[]> gzipped = petController.getCatalog(etag, "deflate, gzip;q=0.8");
+        String gzipEtag = gzipped.getHeaders().getETag();
+        ResponseEntity<byte[]> notModified = petController.getCatalog("W/" + gzipEtag, "gzip");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        Pet[] body = objectMapper.readValue(response.getBody(), Pet[].class);
+        assertEquals(2,body.length);
+        assertEquals("The Great Iguana",body[1].getName());
+        assertEquals(HttpStatus.OK,gzipped.getStatusCode());    // the plain body's tag does not name the gzip body
+        assertEquals("gzip",gzipped.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertNotEquals(etag,gzipEtag);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getBody()))) {
+            assertArrayEquals(response.getBody(), in.readAllBytes());
+        }
+        assertEquals(HttpStatus.NOT_MODIFIED,notModified.getStatusCode());
+        assertNull(notModified.getBody());
+        assertEquals(gzipEtag,notModified.getHeaders().getETag());
+        // Serialized once for the version
+        verify(mockPetDAO, times(1)).getCatalog();
+    }
+
+    @Test
+    public void testGetChanges() throws IOException { // getChanges may throw IOException
+        // Setup
+        PetChanges changes = new PetChanges(8, false, new Pet[]{new Pet(99,"Greater sage-grouse", "Bolt")}, new int[]{100});
+        PetChanges full = new PetChanges(8, true, new Pet[0], new int[0]);
+        when(mockPetDAO.getChanges(5)).thenReturn(changes);
+        when(mockPetDAO.getChanges(-1)).thenReturn(full);
+
+        // Invoke
+        ResponseEntity<PetChanges> response = petController.getChanges(5L);
+        ResponseEntity<PetChanges> initial = petController.getChanges(null);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(changes,response.getBody());
+        assertEquals(HttpStatus.OK,initial.getStatusCode());
+        assertEquals(full,initial.getBody());
+    }
+
+    @Test
+    public void testGetChangesHandleException() throws IOException { // getChanges may throw IOException
+        // Setup
+        doThrow(new IOException()).when(mockPetDAO).getChanges(5);
+
+        // Invoke
+        ResponseEntity<PetChanges> response = petController.getChanges(5L);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testGetCatalogNewVersion() throws IOException { // getCatalog may throw IOException
+        // Setup
+        when(mockPetDAO.getVersion()).thenReturn(3L);
+        when(mockPetDAO.getCatalog()).thenReturn(new PetChanges(3, true, new Pet[0], new int[0]));
+        String etag = petController.getCatalog(null, null).getHeaders().getETag();
+        when(mockPetDAO.getVersion()).thenReturn(4L);
+        when(mockPetDAO.getCatalog()).thenReturn(new PetChanges(4, true, new Pet[]{new Pet(99,"Greater sage-grouse", "Bolt")}, new int[0]));
+
+        // Invoke
+        ResponseEntity<byte[]> response = petController.getCatalog(etag, "gzip;q=0");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertNotEquals(etag,response.getHeaders().getETag());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(1,new ObjectMapper().readValue(response.getBody(), Pet[].class).length);
+    }
+
+    @Test
+    public void testGetCatalogVersionOfContent() throws IOException { // getCatalog may throw IOException
+        // Setup
+        // The catalog changes between reading the version and the pets
+        when(mockPetDAO.getVersion()).thenReturn(3L);
+        when(mockPetDAO.getCatalog()).thenReturn(new PetChanges(4, true, new Pet[]{new Pet(99,"Greater sage-grouse", "Bolt")}, new int[0]));
+
+        // Invoke
+        ResponseEntity<byte[]> response = petController.getCatalog(null, null);
+        when(mockPetDAO.getVersion()).thenReturn(4L);
+        ResponseEntity<byte[]> cached = petController.getCatalog(null, null);
+
+        // Analyze
+        assertTrue(response.getHeaders().getETag().endsWith("-4\""));
+        assertEquals(response.getHeaders().getETag(),cached.getHeaders().getETag());
+        verify(mockPetDAO, times(1)).getCatalog();
+    }
+
+    @Test
+    public void testGetCatalogHandleException() throws IOException { // getCatalog may throw IOException
+        // Setup
+        doThrow(new IOException()).when(mockPetDAO).getCatalog();
+
+        // Invoke
+        ResponseEntity<byte[]> response = petController.getCatalog(null, null);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
+    @Test
+    public void testGetPetsPage() throws IOException { // getPets may throw IOException
+        // Setup
+        Pet[] pets = new Pet[]{new Pet(100,"Greater sage-grouse", "Bolt")};
+        when(mockPetDAO.getPets(Integer.MIN_VALUE, 1000)).thenReturn(pets);
+        when(mockPetDAO.getPets(100, 5)).thenReturn(new Pet[0]);
+
+        // Invoke
+        ResponseEntity<Pet[]> response = petController.getPets(5000, null);
+        ResponseEntity<Pet[]> next = petController.getPets(5, 100);
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(pets,response.getBody());
+        assertEquals(0,next.getBody().length);
+        assertEquals(HttpStatus.BAD_REQUEST,petController.getPets(0, null).getStatusCode());
+    }
+
+    @Test
+    public void testGetPetsPageHandleException() throws IOException { // getPets may throw IOException
+        // Setup
+        doThrow(new IOException()).when(mockPetDAO).getPets(99, 10);
+
+        // Invoke
+        ResponseEntity<Pet[]> response = petController.getPets(10, 99);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
+
     @Test
     public void testSearchPets() throws IOException { // findPets may throw IOException
         // Setup
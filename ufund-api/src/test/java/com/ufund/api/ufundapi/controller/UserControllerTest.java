@@ -1,8 +1,11 @@
 package com.ufund.api.ufundapi.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
@@ -16,6 +19,7 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 /**
  * Test the User Controller class
@@ -55,6 +59,49 @@ public class UserControllerTest {
         assertEquals(user,response.getBody());
     }
 
+    @Test
+    public void testStreamUserNotifications() throws IOException {  // getInbox may throw IOException
+        // Setup
+        when(mockUserDAO.getInbox("Hyper")).thenReturn(new UserDAO.Inbox(new String[]{"Wi-Fire has been adopted"}, 1));
+
+        // Invoke
+        ResponseEntity<SseEmitter> response = userController.streamUserNotifications("Hyper");
+        ResponseEntity<SseEmitter> second = userController.streamUserNotifications("Hyper");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertNotNull(response.getBody());
+        assertEquals(HttpStatus.OK,second.getStatusCode());
+        assertEquals(2,userController.notificationStreams());
+        verify(mockUserDAO).addNotificationListener(any(NotificationHub.class));
+    }
+
+    @Test
+    public void testStreamUserNotificationsNotFound() throws IOException {  // getInbox may throw IOException
+        // Setup
+        when(mockUserDAO.getInbox("Hyper")).thenReturn(null);
+
+        // Invoke
+        ResponseEntity<SseEmitter> response = userController.streamUserNotifications("Hyper");
+
+        // Analyze
+        assertEquals(HttpStatus.NOT_FOUND,response.getStatusCode());
+        assertEquals(0,userController.notificationStreams());
+    }
+
+    @Test
+    public void testStreamUserNotificationsHandleException() throws IOException {  // getInbox may throw IOException
+        // Setup
+        doThrow(new IOException()).when(mockUserDAO).getInbox("Hyper");
+
+        // Invoke
+        ResponseEntity<SseEmitter> response = userController.streamUserNotifications("Hyper");
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+        assertEquals(0,userController.notificationStreams());
+    }
+
     @Test
     public void testGetUserWithPasswordException() throws IOException {  // getUser may throw IOException
         // Setup
@@ -306,4 +353,30 @@ public class UserControllerTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
     }
 
+    @Test
+    public void testGetUsersPage() throws IOException { // getUsers may throw IOException
+        // Setup
+        User[] users = new User[]{new User("Tenshi", "TenshiIsDum", new int[]{}, new int[]{}, new String[]{})};
+        when(mockUserDAO.getUsers("Hyper", 1)).thenReturn(users);
+
+        // Invoke
+        ResponseEntity<User[]> response = userController.getUsers(1, "Hyper");
+
+        // Analyze
+        assertEquals(HttpStatus.OK,response.getStatusCode());
+        assertEquals(users,response.getBody());
+        assertEquals(HttpStatus.BAD_REQUEST,userController.getUsers(-1, null).getStatusCode());
+    }
+
+    @Test
+    public void testGetUsersPageHandleException() throws IOException { // getUsers may throw IOException
+        // Setup
+        doThrow(new IOException()).when(mockUserDAO).getUsers(null, 1000);
+
+        // Invoke
+        ResponseEntity<User[]> response = userController.getUsers(1001, null);
+
+        // Analyze
+        assertEquals(HttpStatus.INTERNAL_SERVER_ERROR,response.getStatusCode());
+    }
 }
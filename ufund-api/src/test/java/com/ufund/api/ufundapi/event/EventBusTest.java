@@ -0,0 +1,142 @@
+package com.ufund.api.ufundapi.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Event Bus class
+ *
+ * @author Group 5E
+ */
+@Tag("Event-tier")
+public class EventBusTest {
+    private final Pet pet = new Pet(99, "Lesser sage-grouse", "Wi-Fire");
+
+    @Test
+    public void testHandledByWorkers() throws InterruptedException {
+        // Setup
+        EventBus events = new EventBus(2, 128);  // room for every event
+        CountDownLatch handled = new CountDownLatch(100);
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        events.subscribe(PetDeleted.class, deleted -> {
+            threads.add(Thread.currentThread());
+            handled.countDown();
+        });
+
+        // Invoke
+        for (int i = 0; i < 100; i++)
+            events.publish(new PetDeleted(pet));
+
+        // Analyze
+        assertTrue(handled.await(10, TimeUnit.SECONDS));
+        events.close();
+        for (Thread thread : threads)
+            assertNotSame(Thread.currentThread(), thread);
+    }
+
+    @Test
+    public void testWithoutWorkers() {
+        // Setup
+        EventBus events = new EventBus();
+        List<Object> handled = new ArrayList<>();
+        events.subscribe(PetDeleted.class, handled::add);
+        events.subscribe(PetDeleted.class, handled::add);
+        PetDeleted deleted = new PetDeleted(pet);
+
+        // Invoke
+        events.publish(deleted);
+        events.publish(new BasketChanged("Hyper", 99, BasketChanged.Change.ADDED));  // nobody subscribed
+
+        // Analyze
+        assertEquals(2, handled.size());
+        assertSame(deleted, handled.get(0));
+        assertSame(deleted, handled.get(1));
+    }
+
+    @Test
+    public void testFullRingHandledByPublisher() {
+        // Setup
+        EventBus events = new EventBus(1, 2);
+        CountDownLatch gate = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+        events.subscribe(PetAdopted.class, adopted -> {
+            started.countDown();
+            try {
+                gate.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        events.subscribe(PetDeleted.class, deleted -> threads.add(Thread.currentThread()));
+
+        // Invoke
+        events.publish(new PetAdopted("Hyper", pet, new String[0]));    // keeps the worker busy
+        try {
+            started.await(10, TimeUnit.SECONDS);
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        events.publish(new PetDeleted(pet));   // fill the ring
+        events.publish(new PetDeleted(pet));
+        events.publish(new PetDeleted(pet));   // finds it full
+        gate.countDown();
+        events.close();
+
+        // Analyze
+        assertEquals(3, threads.size());
+        assertTrue(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testFailingHandler() throws InterruptedException {
+        // Setup
+        EventBus events = new EventBus(1, 16);
+        CountDownLatch handled = new CountDownLatch(2);
+        events.subscribe(PetDeleted.class, deleted -> {
+            handled.countDown();
+            throw new IOException("Disk full");
+        });
+
+        // Invoke
+        events.publish(new PetDeleted(pet));
+        events.publish(new PetDeleted(pet));
+
+        // Analyze
+        assertTrue(handled.await(10, TimeUnit.SECONDS));
+        events.close();
+    }
+
+    @Test
+    public void testCloseDrains() {
+        // Setup
+        EventBus events = new EventBus(1, 1024);
+        List<Object> handled = Collections.synchronizedList(new ArrayList<>());
+        events.subscribe(PetDeleted.class, handled::add);
+
+        // Invoke
+        for (int i = 0; i < 500; i++)
+            events.publish(new PetDeleted(pet));
+        events.close();
+        events.publish(new PetDeleted(pet));
+
+        // Analyze
+        assertEquals(501, handled.size());
+    }
+}
@@ -0,0 +1,103 @@
+package com.ufund.api.ufundapi.event;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Event Ring class
+ *
+ * @author Group 5E
+ */
+@Tag("Event-tier")
+public class EventRingTest {
+    @Test
+    public void testFifo() {
+        // Setup
+        EventRing ring = new EventRing(3);
+
+        // Invoke
+        for (int i = 0; i < 4; i++)
+            assertTrue(ring.offer(i));
+        boolean full = ring.offer(4);
+
+        // Analyze
+        assertEquals(4, ring.capacity());
+        assertEquals(2, new EventRing(1).capacity());
+        assertFalse(full);
+        for (int i = 0; i < 4; i++)
+            assertEquals(i, ring.poll());
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void testWrapsAround() {
+        // Setup
+        EventRing ring = new EventRing(1);
+
+        // Invoke and Analyze
+        for (int i = 0; i < 10; i++) {
+            assertTrue(ring.offer(i));
+            assertEquals(i, ring.poll());
+        }
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void testConcurrentProducersAndConsumers() throws InterruptedException {
+        // Setup
+        EventRing ring = new EventRing(64);
+        int perProducer = 20000;
+        Set<Integer> taken = ConcurrentHashMap.newKeySet();
+        Thread[] producers = new Thread[4];
+        Thread[] consumers = new Thread[4];
+        for (int p = 0; p < producers.length; p++) {
+            int first = p * perProducer;
+            producers[p] = new Thread(() -> {
+                for (int i = first; i < first + perProducer; i++) {
+                    while (!ring.offer(i))
+                        Thread.yield();
+                }
+            });
+        }
+        for (int c = 0; c < consumers.length; c++) {
+            consumers[c] = new Thread(() -> {
+                while (taken.size() < producers.length * perProducer) {
+                    Object event = ring.poll();
+                    if (event != null)
+                        assertTrue(taken.add((Integer) event));
+                    else
+                        Thread.yield();
+                }
+            });
+        }
+
+        // Invoke
+        for (Thread thread : consumers)
+            thread.start();
+        for (Thread thread : producers)
+            thread.start();
+        for (Thread thread : producers)
+            thread.join();
+        for (Thread thread : consumers)
+            thread.join(10000);
+
+        // Analyze
+        assertEquals(producers.length * perProducer, taken.size());
+        assertNull(ring.poll());
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        // Invoke and Analyze
+        assertThrows(IllegalArgumentException.class, () -> new EventRing(0));
+    }
+}
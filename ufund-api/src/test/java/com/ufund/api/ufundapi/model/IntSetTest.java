@@ -0,0 +1,89 @@
+package com.ufund.api.ufundapi.model;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * The unit test suite for the IntSet class
+ *
+ * @author Group 5E
+ */
+@Tag("Model-tier")
+public class IntSetTest {
+    @Test
+    public void testOf() {
+        // Invoke
+        IntSet set = IntSet.of(5, 1, 3, 1);
+
+        // Analyze
+        assertEquals(3, set.size());
+        assertArrayEquals(new int[]{1, 3, 5}, set.toArray());
+        assertEquals(0, IntSet.of((int[]) null).size());
+    }
+
+    @Test
+    public void testAddRemove() {
+        // Setup
+        IntSet set = IntSet.of();
+
+        // Invoke
+        for (int id = 100; id > 0; id--)
+            assertTrue(set.add(id));
+        boolean addedAgain = set.add(50);
+        boolean removed = set.remove(50);
+        boolean removedAgain = set.remove(50);
+
+        // Analyze
+        assertFalse(addedAgain);
+        assertTrue(removed);
+        assertFalse(removedAgain);
+        assertEquals(99, set.size());
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(100));
+        assertFalse(set.contains(50));
+    }
+
+    @Test
+    public void testSharedArrayUnchanged() {
+        // Setup
+        int[] ids = {1, 2, 3};
+        IntSet set = IntSet.of(ids);
+
+        // Invoke
+        int[] before = set.toArray();
+        set.remove(2);
+        set.add(4);
+
+        // Analyze
+        assertArrayEquals(new int[]{1, 2, 3}, ids);
+        assertArrayEquals(new int[]{1, 2, 3}, before);
+        assertArrayEquals(new int[]{1, 3, 4}, set.toArray());
+    }
+
+    @Test
+    public void testJson() throws IOException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        User user = new User("Tenshi", "TenshiIsDum", new int[]{3, 1}, new int[]{}, new String[]{});
+
+        // Invoke
+        String json = objectMapper.writeValueAsString(user);
+        User read = objectMapper.readValue(json, User.class);
+
+        // Analyze
+        assertTrue(json.contains("\"basket_pets\":[1,3]"));
+        assertTrue(json.contains("\"adopted_pets\":[]"));
+        assertArrayEquals(new int[]{1, 3}, read.getBasket_pets());
+        assertEquals("[2,7]", objectMapper.writeValueAsString(IntSet.of(7, 2)));
+        assertArrayEquals(new int[]{2, 7}, objectMapper.readValue("[7,2]", IntSet.class).toArray());
+    }
+}
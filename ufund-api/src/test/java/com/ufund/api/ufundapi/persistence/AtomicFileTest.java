@@ -0,0 +1,77 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Atomic File class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class AtomicFileTest {
+    @TempDir
+    Path dir;
+
+    @Test
+    public void testReplaces() throws IOException {
+        // Setup
+        Path file = dir.resolve("pets.json");
+        Files.write(file, "[]".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        AtomicFile.write(file.toFile(), out -> {
+            out.write("[{\"id\":99}]".getBytes(StandardCharsets.UTF_8));
+            out.close();    // like Jackson does
+        });
+
+        // Analyze
+        assertEquals("[{\"id\":99}]", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("pets.json.tmp")));
+    }
+
+    @Test
+    public void testWriteChannel() throws IOException {
+        // Setup
+        Path file = dir.resolve("users.store");
+        Files.write(file, "old".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        AtomicFile.writeChannel(file.toFile(), out -> {
+            out.write(ByteBuffer.wrap("data".getBytes(StandardCharsets.UTF_8)), 4);
+            out.write(ByteBuffer.wrap("head".getBytes(StandardCharsets.UTF_8)), 0);
+        });
+
+        // Analyze
+        assertEquals("headdata", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("users.store.tmp")));
+    }
+
+    @Test
+    public void testFailedWriteKeepsFile() throws IOException {
+        // Setup
+        Path file = dir.resolve("pets.json");
+        Files.write(file, "[]".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        assertThrows(IOException.class, () -> AtomicFile.write(file.toFile(), out -> {
+            out.write("[{\"id\"".getBytes(StandardCharsets.UTF_8));
+            throw new IOException("Disk full");
+        }));
+
+        // Analyze
+        assertEquals("[]", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(dir.resolve("pets.json.tmp")));
+    }
+}
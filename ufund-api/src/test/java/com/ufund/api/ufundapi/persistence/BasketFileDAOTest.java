@@ -1,5 +1,6 @@
 package com.ufund.api.ufundapi.persistence;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
@@ -8,19 +9,36 @@ import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import com.ufund.api.ufundapi.event.BasketChanged;
+import com.ufund.api.ufundapi.event.EventBus;
+import com.ufund.api.ufundapi.event.PetAdopted;
+import com.ufund.api.ufundapi.event.PetDeleted;
 import com.ufund.api.ufundapi.model.Pet;
 import com.ufund.api.ufundapi.model.User;
 
@@ -37,6 +55,9 @@ public class BasketFileDAOTest {
     User[] testUsers;
     ObjectMapper mockObjectMapper;
 
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
     /**
      * Before each test, we will create and inject a Mock Object Mapper to
      * isolate the tests from the underlying file
@@ -62,18 +83,25 @@ public class BasketFileDAOTest {
     // When the object mapper is supposed to read from the file
     // the mock object mapper will return the pet array above
         when(mockObjectMapper
-        .readValue(new File("doesnt_matter.txt"),User[].class))
+        .readValue(new File(file("doesnt_matter.txt")),User[].class))
             .thenReturn(testUsers);
         when(mockObjectMapper
-        .readValue(new File("doesnt_matter2.txt"),Pet[].class))
+        .readValue(new File(file("doesnt_matter2.txt")),Pet[].class))
             .thenReturn(testPets);
         when(mockObjectMapper
-        .readValue(new File("doesnt_matter3.txt"),Pet[].class))
+        .readValue(new File(file("doesnt_matter3.txt")),Pet[].class))
             .thenReturn(testPetList);
-        basketFileDAO = new BasketFileDAO("doesnt_matter.txt","doesnt_matter2.txt","doesnt_matter3.txt",mockObjectMapper);
+        basketFileDAO = new BasketFileDAO(file("doesnt_matter.txt"),file("doesnt_matter2.txt"),file("doesnt_matter3.txt"),mockObjectMapper);
         this.basketFileDAO.getPet("test");
     }
 
+    /**
+     * Resolves a file in the temporary directory of the test
+     */
+    private String file(String name) {
+        return dir.resolve(name).toString();
+    }
+
     @Test
     public void testGetPets() throws IOException {
         // Invoke
@@ -90,13 +118,33 @@ public class BasketFileDAOTest {
 
     @Test
     public void testAdoptPet() throws IOException {
-        boolean adopted = this.basketFileDAO.adoptPet(99);
+        boolean adopted = this.basketFileDAO.adoptPet("test", 99);
         assertTrue(adopted);
     }
 
+    @Test
+    public void testAdoptPetWriteFails() throws IOException {
+        // Setup
+        basketFileDAO.createPet("admin", testPets[0]);
+        doThrow(new IOException())
+            .when(mockObjectMapper)
+                .writeValue(any(OutputStream.class),any(User[].class));
+
+        // Invoke
+        assertThrows(IOException.class, () -> basketFileDAO.adoptPet("test", 99));
+
+        // Analyze
+        // Memory still matches the file, with the pet in both baskets and the catalog
+        assertArrayEquals(new int[]{99}, testUsers[0].getBasket_pets());
+        assertArrayEquals(new int[]{100, 103}, testUsers[0].getAdopted_pets());
+        assertArrayEquals(new int[]{99}, testUsers[1].getBasket_pets());
+        assertEquals(2, basketFileDAO.holders.get(99).size());
+        assertNotNull(basketFileDAO.getPet("test", 99));
+    }
+
     @Test
     public void testAdoptPetFail() throws IOException {
-        boolean adopted = this.basketFileDAO.adoptPet(101);
+        boolean adopted = this.basketFileDAO.adoptPet("test", 101);
         assertFalse(adopted);
     }
 
@@ -107,9 +155,9 @@ public class BasketFileDAOTest {
     }
 
     @Test
-    public void testGetPet() {
+    public void testGetPet() throws IOException {
         // Invoke
-        Pet pet = basketFileDAO.getPet(99);
+        Pet pet = basketFileDAO.getPet("test", 99);
 
         // Analzye
         assertEquals(testPets[0].getName(), pet.getName());
@@ -119,7 +167,7 @@ public class BasketFileDAOTest {
     public void testDeletePet() throws IOException {
         // Invoke
 
-        boolean result = assertDoesNotThrow(() -> basketFileDAO.deletePet(99),
+        boolean result = assertDoesNotThrow(() -> basketFileDAO.deletePet("test", 99),
                             "Unexpected exception thrown");
         // Analzye
         assertEquals(true,result);
@@ -127,42 +175,61 @@ public class BasketFileDAOTest {
         // of the test pets array - 1 (because of the delete)
         // Because pets attribute of basketFileDAO is package private
         // we can access it directly
-        assertEquals(0,basketFileDAO.getPets().length);
+        assertEquals(0,basketFileDAO.getPet("test").length);
     }
 
     @Test
-    public void testCreatePet() {
+    public void testCreatePet() throws IOException {
         // Setup
-        Pet pet = new Pet(110,"Greater sage-grouse", "Wonder-Person");
+        Pet pet = new Pet(101,"Greater sage-grouse", "Ice Gladiator");
         
         // Invoke
-        Pet result = assertDoesNotThrow(() -> basketFileDAO.createPet(pet),
+        Pet result = assertDoesNotThrow(() -> basketFileDAO.createPet("test", pet),
                                 "Unexpected exception thrown");
 
         // Analyze
         assertNotNull(result);
-        Pet actual = basketFileDAO.getPet(pet.getId());
+        Pet actual = basketFileDAO.getPet("test", pet.getId());
         assertEquals(pet.getId(),actual.getId());
         assertEquals(pet.getName(), actual.getName());
     }
 
+    @Test
+    public void testCreatePetNotAvailable() throws IOException {
+        // Setup
+        Pet pet = new Pet(110,"Greater sage-grouse", "Wonder-Person");
+        Pet listed = new Pet(102,"Greater sage-grouse", "T1");    // adopted, still in the complete list
+
+        // Invoke
+        Pet result = assertDoesNotThrow(() -> basketFileDAO.createPet("test", pet),
+                                "Unexpected exception thrown");
+        Pet resultListed = basketFileDAO.createPet("admin", listed);
+
+        // Analyze
+        assertNull(result);
+        assertNull(resultListed);
+        // Nothing was written to the baskets either
+        assertArrayEquals(new int[]{99}, testUsers[0].getBasket_pets());
+        assertArrayEquals(new int[]{}, testUsers[1].getBasket_pets());
+    }
+
     @Test
     public void testSaveException() throws IOException{
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .writeValue(any(File.class),any(User[].class));
+                .writeValue(any(OutputStream.class),any(User[].class));
 
-        Pet pet = new Pet(110,"Greater sage-grouse","Wi-Fire");
+        Pet pet = new Pet(101,"Greater sage-grouse","Ice Gladiator");
 
         assertThrows(IOException.class,
-                        () -> basketFileDAO.createPet(pet),
+                        () -> basketFileDAO.createPet("test", pet),
                         "IOException not thrown");
     }
 
     @Test
-    public void testGetPetNotFound() {
+    public void testGetPetNotFound() throws IOException {
         // Invoke
-        Pet pet = basketFileDAO.getPet(98);
+        Pet pet = basketFileDAO.getPet("test", 98);
 
         // Analyze
         assertEquals(null,pet);
@@ -172,7 +239,7 @@ public class BasketFileDAOTest {
     public void testDeletePetNotFound() throws IOException {
         // Invoke
         this.basketFileDAO.getPet("test");
-        boolean result = assertDoesNotThrow(() -> basketFileDAO.deletePet(98),
+        boolean result = assertDoesNotThrow(() -> basketFileDAO.deletePet("test", 98),
                                                 "Unexpected exception thrown");
         Pet[] new_pets = this.basketFileDAO.getPet("test");
         // Analyze
@@ -186,13 +253,294 @@ public class BasketFileDAOTest {
         Pet pet = new Pet(99,"Lesser sage-grouse", "Wi-Fire");
         
         // Invoke
-        Pet result = assertDoesNotThrow(() -> basketFileDAO.createPet(pet),
+        Pet result = assertDoesNotThrow(() -> basketFileDAO.createPet("test", pet),
                                 "Unexpected exception thrown");
 
         // Analyze
         assertNull(result);
     }
 
+    @Test
+    public void testBasketsPerUser() throws IOException {
+        // Setup
+        Pet pet = new Pet(101,"Greater sage-grouse", "Ice Gladiator");
+
+        // Invoke
+        Pet added = basketFileDAO.createPet("admin", pet);
+        Pet addedAgain = basketFileDAO.createPet("test", pet);
+
+        // Analyze
+        assertNotNull(added);
+        assertNotNull(addedAgain);
+        assertEquals(1, basketFileDAO.getPet("admin").length);
+        assertEquals(2, basketFileDAO.getPet("test").length);
+        assertTrue(basketFileDAO.deletePet("admin", 101));
+        assertEquals(0, basketFileDAO.getPet("admin").length);
+        assertEquals(101, basketFileDAO.getPet("test", 101).getId());
+    }
+
+    @Test
+    public void testUnknownUser() throws IOException {
+        // Invoke & Analyze
+        assertEquals(0, basketFileDAO.getPet("nobody").length);
+        assertEquals(0, basketFileDAO.getAdoptedPet("nobody").length);
+        assertNull(basketFileDAO.createPet("nobody", testPets[0]));
+        assertFalse(basketFileDAO.adoptPet("nobody", 99));
+        assertFalse(basketFileDAO.deletePet("nobody", 99));
+        assertNull(basketFileDAO.getPet("nobody", 99));
+    }
+
+    @Test
+    public void testPetRemovedCleansBaskets() throws IOException {
+        // Setup
+        UserFileDAO userFileDAO = new UserFileDAO(file("doesnt_matter.txt"), mockObjectMapper);
+        PetFileDAO petFileDAO = new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper);
+        BasketFileDAO basketFileDAO = new BasketFileDAO(userFileDAO, petFileDAO);
+        basketFileDAO.createPet("admin", testPets[0]);
+        int adminNotifications = userFileDAO.getNotifications("admin").length;
+
+        // Invoke
+        petFileDAO.deletePet(99);
+
+        // Analyze
+        assertEquals(0, basketFileDAO.getPet("test").length);
+        assertEquals(0, basketFileDAO.getPet("admin").length);
+        assertEquals(0, userFileDAO.getUser("test").getBasket_pets().length);
+        assertEquals(adminNotifications + 1, userFileDAO.getNotifications("admin").length);
+        assertEquals("Wi-Fire has been adopted", userFileDAO.getNotifications("admin")[adminNotifications]);
+    }
+
+    @Test
+    public void testStaleBasketCleanedOnStartup() throws IOException {
+        // Setup
+        // Pet 102 is in the basket of the user but no longer available
+        User user = new User("test", "test", new int[]{99, 102}, new int[]{}, new String[]{});
+        when(mockObjectMapper
+        .readValue(new File(file("doesnt_matter.txt")),User[].class))
+            .thenReturn(new User[]{user});
+
+        // Invoke
+        new BasketFileDAO(file("doesnt_matter.txt"),file("doesnt_matter2.txt"),file("doesnt_matter3.txt"),mockObjectMapper);
+
+        // Analyze
+        assertEquals(1, user.getBasket_pets().length);
+        assertEquals("T1 has been adopted", user.getNotifications()[user.getNotifications().length - 1]);
+    }
+
+    @Test
+    public void testAdoptPetSingleWrite() throws IOException {
+        // Setup
+        // The worker waits at the gate, so nothing a handler writes counts before the adoption returns
+        CountDownLatch gate = new CountDownLatch(1);
+        EventBus events = new EventBus(1, 16);
+        events.subscribe(PetAdopted.class, adopted -> {
+            try {
+                gate.await();
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        UserFileDAO userFileDAO = new UserFileDAO(file("doesnt_matter.txt"), mockObjectMapper);
+        PetFileDAO petFileDAO = new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper);
+        BasketFileDAO basketFileDAO = new BasketFileDAO(userFileDAO, petFileDAO, null, events);
+        basketFileDAO.createPet("admin", testPets[0]);
+        int adminNotifications = userFileDAO.getNotifications("admin").length;
+        clearInvocations(mockObjectMapper);
+
+        // Invoke
+        boolean adopted = basketFileDAO.adoptPet("test", 99);
+        // The notifications are part of the single write of the adoption
+        verify(mockObjectMapper, times(1)).writeValue(any(OutputStream.class), any(User[].class));
+        assertEquals(adminNotifications + 2, userFileDAO.getNotifications("admin").length);
+        gate.countDown();
+        basketFileDAO.close();
+
+        // Analyze
+        assertTrue(adopted);
+        verify(mockObjectMapper, times(1)).writeValue(any(OutputStream.class), any(User[].class));
+        assertNull(petFileDAO.getCurrentPet(99));
+        assertEquals(0, basketFileDAO.getPet("admin").length);
+        String[] notifications = userFileDAO.getNotifications("admin");
+        assertEquals(adminNotifications + 2, notifications.length);
+        assertEquals("Wi-Fire has been adopted", notifications[adminNotifications]);
+        assertEquals("test has adopted Wi-Fire", notifications[adminNotifications + 1]);
+        assertFalse(basketFileDAO.adoptPet("test", 99));
+    }
+
+    @Test
+    public void testBasketEvents() throws IOException {
+        // Setup
+        EventBus events = new EventBus();
+        List<BasketChanged> changes = new ArrayList<>();
+        List<PetDeleted> deleted = new ArrayList<>();
+        events.subscribe(BasketChanged.class, changes::add);
+        events.subscribe(PetDeleted.class, deleted::add);
+        UserFileDAO userFileDAO = new UserFileDAO(file("doesnt_matter.txt"), mockObjectMapper);
+        PetFileDAO petFileDAO = new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper);
+        BasketFileDAO basketFileDAO = new BasketFileDAO(userFileDAO, petFileDAO, null, events);
+        // Leave out the cleanup on startup
+        changes.clear();
+        deleted.clear();
+
+        // Invoke
+        basketFileDAO.createPet("admin", testPets[0]);
+        basketFileDAO.createPet("admin", testPets[2]);
+        basketFileDAO.deletePet("admin", 101);
+        basketFileDAO.adoptPet("test", 99);
+
+        // Analyze
+        assertEquals(5, changes.size());
+        assertEquals(BasketChanged.Change.ADDED, changes.get(0).getChange());
+        assertEquals(BasketChanged.Change.REMOVED, changes.get(2).getChange());
+        assertEquals(101, changes.get(2).getPetId());
+        assertEquals("test", changes.get(3).getUsername());
+        assertEquals(BasketChanged.Change.ADOPTED, changes.get(3).getChange());
+        assertEquals("admin", changes.get(4).getUsername());
+        assertEquals(BasketChanged.Change.DROPPED, changes.get(4).getChange());
+        assertEquals(1, deleted.size());
+        assertEquals(99, deleted.get(0).getPet().getId());
+    }
+
+    @Test
+    public void testRecoverAdoptions() throws IOException {
+        // Setup
+        // Pets 100 and 103 are adopted by test but were never taken out of the catalog
+        testUsers[1].addBasketPet(100);
+        PetFileDAO petFileDAO = new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper);
+        UserFileDAO userFileDAO = new UserFileDAO(file("doesnt_matter.txt"), mockObjectMapper);
+        clearInvocations(mockObjectMapper);
+
+        // Invoke
+        new BasketFileDAO(userFileDAO, petFileDAO);
+
+        // Analyze
+        assertNull(petFileDAO.getCurrentPet(100));
+        assertNull(petFileDAO.getCurrentPet(103));
+        assertNotNull(petFileDAO.getCurrentPet(101));
+        assertEquals(0, testUsers[1].getBasket_pets().length);
+        String[] notifications = userFileDAO.getNotifications("admin");
+        assertEquals("Galactic Agent has been adopted", notifications[notifications.length - 1]);
+        // One bulk removal and one save of the baskets
+        verify(mockObjectMapper, times(2)).writeValue(any(OutputStream.class), any(Pet[].class));
+        verify(mockObjectMapper, times(1)).writeValue(any(OutputStream.class), any(User[].class));
+    }
+
+    @Test
+    public void testGetPetPage() throws IOException {
+        // Setup
+        basketFileDAO.createPet("test", testPets[2]);
+
+        // Invoke
+        Pet[] first = basketFileDAO.getPet("test", Integer.MIN_VALUE, 1);
+        Pet[] second = basketFileDAO.getPet("test", first[0].getId(), 1);
+        Pet[] adopted = basketFileDAO.getAdoptedPet("test", 100, 10);
+
+        // Analyze
+        assertEquals(1, first.length);
+        assertEquals(99, first[0].getId());
+        assertEquals(1, second.length);
+        assertEquals(101, second[0].getId());
+        assertEquals(0, basketFileDAO.getPet("test", 101, 1).length);
+        assertEquals(1, adopted.length);
+        assertEquals(103, adopted[0].getId());
+    }
+
+    @Test
+    public void testUserStore() throws IOException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        File usersFile = dir.resolve("users.json").toFile();
+        String storeFile = file("users.store");
+        objectMapper.writeValue(usersFile, testUsers);
+        PetFileDAO petFileDAO = new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper);
+        // A cache of one user keeps evicting the users the baskets work on
+        UserFileDAO userFileDAO = new UserFileDAO(usersFile.getPath(), 0, 256, false, 1, "json", storeFile, 1, objectMapper);
+        BasketFileDAO basketFileDAO = new BasketFileDAO(userFileDAO, petFileDAO);
+
+        // Invoke
+        basketFileDAO.createPet("admin", testPets[2]);
+        boolean adopted = basketFileDAO.adoptPet("test", 99);
+        userFileDAO.close();
+        UserFileDAO reopened = new UserFileDAO(usersFile.getPath(), 0, 256, false, 1, "json", storeFile, 1, objectMapper);
+
+        // Analyze
+        assertTrue(adopted);
+        assertArrayEquals(new int[]{101}, reopened.getUser("admin").getBasket_pets());
+        assertArrayEquals(new int[]{}, reopened.getUser("test").getBasket_pets());
+        assertArrayEquals(new int[]{99, 100, 103}, reopened.getUser("test").getAdopted_pets());
+        String[] notifications = reopened.getNotifications("admin");
+        assertEquals("test has adopted Wi-Fire", notifications[notifications.length - 1]);
+        reopened.close();
+    }
+
+    @Test
+    public void testRefreshReindexesBaskets() throws IOException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        File usersFile = dir.resolve("users.json").toFile();
+        objectMapper.writeValue(usersFile, testUsers);
+        PetFileDAO petFileDAO = new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper);
+        UserFileDAO userFileDAO = new UserFileDAO(usersFile.getPath(), objectMapper);
+        BasketFileDAO basketFileDAO = new BasketFileDAO(userFileDAO, petFileDAO);
+        // The baskets are edited outside of the DAOs
+        objectMapper.writeValue(usersFile, new User[]{
+            new User("test", "test", new int[]{101}, new int[]{}, new String[]{}),
+            new User("admin", "admin", new int[]{99}, new int[]{}, new String[]{"Test Message", "Edited"})
+        });
+
+        // Invoke
+        Pet[] basket = basketFileDAO.getPet("admin");
+        petFileDAO.deletePet(101);
+
+        // Analyze
+        assertEquals(1, basket.length);
+        assertEquals(Set.of("admin"), basketFileDAO.holders.get(99));
+        // The removal found the pet through the index of the refreshed basket
+        assertEquals(0, userFileDAO.getUser("test").getBasket_pets().length);
+        assertArrayEquals(new int[]{99}, userFileDAO.getUser("admin").getBasket_pets());
+    }
+
+    @Test
+    public void testHolds() throws IOException {
+        // Setup
+        AtomicLong clock = new AtomicLong(0);
+        BasketFileDAO basketFileDAO = new BasketFileDAO(new UserFileDAO(file("doesnt_matter.txt"), mockObjectMapper),
+                                                        new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper),
+                                                        new PetHolds(60000, clock::get));
+        basketFileDAO.createPet("test", testPets[2]);
+
+        // Invoke & Analyze
+        assertNull(basketFileDAO.createPet("admin", testPets[2]));
+        clock.set(61000);
+        assertNotNull(basketFileDAO.createPet("admin", testPets[2]));
+        assertFalse(basketFileDAO.adoptPet("test", 101));
+        assertTrue(basketFileDAO.adoptPet("admin", 101));
+    }
+
+    @Test
+    public void testCreatePetRacingRemoval() throws IOException {
+        // Setup
+        PetFileDAO petFileDAO = spy(new PetFileDAO(file("doesnt_matter2.txt"), file("doesnt_matter3.txt"), mockObjectMapper));
+        UserFileDAO userFileDAO = new UserFileDAO(file("doesnt_matter.txt"), mockObjectMapper);
+        AtomicLong clock = new AtomicLong(0);
+        PetHolds holds = new PetHolds(60000, clock::get);
+        BasketFileDAO basketFileDAO = new BasketFileDAO(userFileDAO, petFileDAO, holds);
+        CatalogSnapshot before = petFileDAO.snapshot();
+        petFileDAO.deletePet(101);
+        // The removal lands between the availability check and the hold
+        doReturn(before, petFileDAO.snapshot()).when(petFileDAO).snapshot();
+
+        // Invoke
+        Pet result = basketFileDAO.createPet("admin", testPets[2]);
+
+        // Analyze
+        assertNull(result);
+        assertArrayEquals(new int[]{}, userFileDAO.getUser("admin").getBasket_pets());
+        assertFalse(basketFileDAO.holders.containsKey(101));
+        assertFalse(holds.heldByOther(101, "test"));
+    }
+
     @Test
     public void testConstructorException() throws IOException {
         // Setup
@@ -205,17 +553,17 @@ public class BasketFileDAOTest {
         // raised
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .readValue(new File("doesnt_matter.txt"),User[].class);
+                .readValue(new File(file("doesnt_matter.txt")),User[].class);
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .readValue(new File("doesnt_matter2.txt"),Pet[].class);
+                .readValue(new File(file("doesnt_matter2.txt")),Pet[].class);
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .readValue(new File("doesnt_matter3.txt"),Pet[].class);
+                .readValue(new File(file("doesnt_matter3.txt")),Pet[].class);
 
         // Invoke & Analyze
         assertThrows(IOException.class,
-                        () -> new BasketFileDAO("doesnt_matter.txt", "doesnt_matter2.txt", "doesnt_matter3.txt",mockObjectMapper),
+                        () -> new BasketFileDAO(file("doesnt_matter.txt"), file("doesnt_matter2.txt"), file("doesnt_matter3.txt"),mockObjectMapper),
                         "IOException not thrown");
     }
 }
@@ -0,0 +1,148 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.User;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Binary Record File class
+ * 
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class BinaryRecordFileTest {
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+    File file;
+
+    @BeforeEach
+    public void setupBinaryRecordFile() throws IOException {
+        file = dir.resolve("pets.bin").toFile();
+    }
+
+    @Test
+    public void testPets() throws IOException {
+        // Setup
+        Pet[] pets = new Pet[3];
+        pets[0] = new Pet(99,"Lesser sage-grouse", "Wi-Fire");
+        pets[1] = new Pet(-1,"Greater sage-grouse", null);
+        pets[2] = new Pet(Integer.MAX_VALUE,"Kagu", "Bolt \u00e9\u4e2d");
+        List<Pet> read = new ArrayList<>();
+
+        // Invoke
+        BinaryRecordFile.write(file, PetCodec.INSTANCE, pets);
+        int count = BinaryRecordFile.read(file, PetCodec.INSTANCE, read::add);
+
+        // Analyze
+        assertEquals(3, count);
+        for (int i = 0; i < pets.length; i++) {
+            assertEquals(pets[i].getId(), read.get(i).getId());
+            assertEquals(pets[i].getAnimaltype(), read.get(i).getAnimaltype());
+            assertEquals(pets[i].getName(), read.get(i).getName());
+        }
+        assertNull(read.get(1).getName());
+        assertFalse(Files.exists(dir.resolve("pets.bin.tmp")));
+    }
+
+    @Test
+    public void testUsers() throws IOException {
+        // Setup
+        User[] users = new User[2];
+        users[0] = new User("Hyper", "HyperIsDum", new int[]{5, 1000, 70000}, new int[]{}, new String[]{"Hello", ""});
+        users[1] = new User("admin", "admin", new int[]{}, new int[]{3}, null);
+        List<User> read = new ArrayList<>();
+
+        // Invoke
+        BinaryRecordFile.write(file, UserCodec.INSTANCE, users);
+        BinaryRecordFile.read(file, UserCodec.INSTANCE, read::add);
+
+        // Analyze
+        assertEquals(2, read.size());
+        assertEquals("Hyper", read.get(0).getUsername());
+        assertEquals("HyperIsDum", read.get(0).getPassword());
+        assertArrayEquals(new int[]{5, 1000, 70000}, read.get(0).getBasket_pets());
+        assertArrayEquals(new String[]{"Hello", ""}, read.get(0).getNotifications());
+        assertArrayEquals(new int[]{3}, read.get(1).getAdopted_pets());
+        assertEquals(0, read.get(1).getNotifications().length);
+    }
+
+    @Test
+    public void testNewerVersion() throws IOException {
+        // Setup
+        // A record of a future version with one more field appended
+        ByteArrayOutputStream record = new ByteArrayOutputStream();
+        DataOutputStream fields = new DataOutputStream(record);
+        PetCodec.INSTANCE.encode(new Pet(99, "Kagu", "Bolt"), fields);
+        BinaryRecordFile.writeString(fields, "appended");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(BinaryRecordFile.MAGIC);
+        out.writeShort(BinaryRecordFile.VERSION + 1);
+        out.writeByte(PetCodec.INSTANCE.kind());
+        out.writeInt(2);
+        for (int i = 0; i < 2; i++) {
+            BinaryRecordFile.writeVarInt(out, record.size());
+            record.writeTo(out);
+        }
+        Files.write(file.toPath(), bytes.toByteArray());
+        List<Pet> read = new ArrayList<>();
+
+        // Invoke
+        int count = BinaryRecordFile.read(file, PetCodec.INSTANCE, read::add);
+
+        // Analyze
+        assertEquals(2, count);
+        assertEquals(99, read.get(1).getId());
+        assertEquals("Bolt", read.get(1).getName());
+    }
+
+    @Test
+    public void testWrongKind() throws IOException {
+        // Setup
+        BinaryRecordFile.write(file, PetCodec.INSTANCE, new Pet[]{new Pet(1, "Kagu", "Bolt")});
+
+        // Invoke
+        // Analyze
+        assertThrows(IOException.class, () -> BinaryRecordFile.read(file, UserCodec.INSTANCE, user -> {}));
+    }
+
+    @Test
+    public void testNotBinary() throws IOException {
+        // Setup
+        Files.write(file.toPath(), "[{\"id\":1}]".getBytes());
+
+        // Invoke
+        // Analyze
+        assertThrows(IOException.class, () -> BinaryRecordFile.read(file, PetCodec.INSTANCE, pet -> {}));
+    }
+
+    @Test
+    public void testIsBinary() {
+        // Invoke
+        // Analyze
+        assertTrue(BinaryRecordFile.isBinary("binary"));
+        assertFalse(BinaryRecordFile.isBinary("json"));
+        assertFalse(BinaryRecordFile.isBinary(""));
+        assertThrows(IllegalArgumentException.class, () -> BinaryRecordFile.isBinary("xml"));
+    }
+}
@@ -0,0 +1,151 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Catalog Snapshot class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class CatalogSnapshotTest {
+    Pet[] testPets;
+    CatalogSnapshot snapshot;
+
+    @BeforeEach
+    public void setupSnapshot() {
+        testPets = new Pet[3];
+        testPets[0] = new Pet(101, "Greater sage-grouse", "Ice Gladiator");
+        testPets[1] = new Pet(99, "Lesser sage-grouse", "Wi-Fire");
+        testPets[2] = new Pet(100, "Greater sage-grouse", "Galactic Agent");
+        List<Pet> pets = Arrays.asList(testPets);
+        snapshot = new CatalogSnapshot(7, pets, pets);
+    }
+
+    @Test
+    public void testSortedById() {
+        // Invoke
+        Pet[] pets = snapshot.available();
+
+        // Analyze
+        assertEquals(7, snapshot.version());
+        assertEquals(99, pets[0].getId());
+        assertEquals(100, pets[1].getId());
+        assertEquals(101, pets[2].getId());
+        assertSame(testPets[2], snapshot.getAvailable(100));
+    }
+
+    @Test
+    public void testWithPut() {
+        // Setup
+        Pet inserted = new Pet(50, "Kagu", "Bolt");
+        Pet replaced = new Pet(100, "Kagu", "Wonder-Person");
+
+        // Invoke
+        CatalogSnapshot next = snapshot.withPut(inserted).withPut(replaced);
+
+        // Analyze
+        assertEquals(9, next.version());
+        assertEquals(4, next.available().length);
+        assertSame(inserted, next.available()[0]);
+        assertSame(replaced, next.get(100));
+        assertSame(testPets[2], snapshot.get(100));
+        assertNull(snapshot.get(50));
+    }
+
+    @Test
+    public void testWithRemoved() {
+        // Invoke
+        CatalogSnapshot next = snapshot.withRemoved(100);
+
+        // Analyze
+        assertNull(next.getAvailable(100));
+        assertSame(testPets[2], next.get(100));
+        assertEquals(2, next.available().length);
+        assertEquals(3, snapshot.available().length);
+    }
+
+    @Test
+    public void testFindByName() {
+        // Setup
+        Pet renamed = new Pet(101, "Greater sage-grouse", "Wonder-Person");
+
+        // Invoke
+        CatalogSnapshot next = snapshot.withPut(renamed).withRemoved(99).withPut(new Pet(102, "Kagu", "wi-fire 2"));
+
+        // Analyze
+        assertEquals(1, snapshot.findByName("ICE").length);
+        assertEquals(1, snapshot.findByName("wi").length);
+        assertEquals(3, snapshot.findByName("").length);
+        assertEquals(0, next.findByName("Ice").length);
+        assertSame(renamed, next.findByName("wonder")[0]);
+        Pet[] wiFire = next.findByName("Wi-Fire");
+        assertEquals(1, wiFire.length);
+        assertEquals(102, wiFire[0].getId());
+    }
+
+    @Test
+    public void testFindByType() {
+        // Setup
+        Pet retyped = new Pet(99, "Kagu", "Wi-Fire");
+
+        // Invoke
+        CatalogSnapshot next = snapshot.withPut(retyped).withRemoved(100);
+
+        // Analyze
+        assertEquals(2, snapshot.findByType("greater").length);
+        assertEquals(3, snapshot.findByType("").length);
+        assertEquals(1, next.findByType("greater").length);
+        assertEquals(0, next.findByType("lesser").length);
+        assertSame(retyped, next.findByType("KAGU")[0]);
+    }
+
+    @Test
+    public void testLazyIndex() {
+        // Setup
+        List<Pet> pets = Arrays.asList(testPets);
+        CatalogSnapshot lazy = new CatalogSnapshot(7, pets, pets, false);
+
+        // Invoke
+        CatalogSnapshot next = lazy.withPut(new Pet(102, "Kagu", "Wi-Fire 2")).withRemoved(100);
+
+        // Analyze
+        assertFalse(next.indexed());
+        assertEquals(2, next.findByName("wi").length);
+        assertTrue(next.indexed());
+        assertFalse(lazy.indexed());
+        assertEquals(1, next.findByType("greater").length);
+        assertTrue(snapshot.indexed());
+    }
+
+    @Test
+    public void testAvailablePage() {
+        // Invoke
+        Pet[] first = snapshot.availablePage(Integer.MIN_VALUE, 2);
+        Pet[] second = snapshot.availablePage(first[first.length - 1].getId(), 2);
+
+        // Analyze
+        assertEquals(2, first.length);
+        assertEquals(99, first[0].getId());
+        assertEquals(100, first[1].getId());
+        assertEquals(1, second.length);
+        assertSame(testPets[0], second[0]);
+        assertEquals(100, snapshot.availablePage(99, 1)[0].getId());
+        assertEquals(99, snapshot.availablePage(50, 1)[0].getId());
+        assertEquals(0, snapshot.availablePage(101, 2).length);
+        assertEquals(3, snapshot.availablePage(0, Integer.MAX_VALUE).length);
+    }
+}
@@ -0,0 +1,94 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Group Commit Writer class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class GroupCommitWriterTest {
+
+    @Test
+    public void testCommitWrites() throws IOException {
+        // Setup
+        AtomicInteger writes = new AtomicInteger();
+        GroupCommitWriter writer = new GroupCommitWriter(writes::incrementAndGet, 0, 1);
+
+        // Invoke
+        writer.commit();
+        writer.commit();
+
+        // Analyze
+        assertEquals(2, writes.get());
+    }
+
+    @Test
+    public void testConcurrentCommitsShareWrites() throws Exception {
+        // Setup
+        AtomicInteger writes = new AtomicInteger();
+        GroupCommitWriter writer = new GroupCommitWriter(() -> {
+            writes.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            }
+            catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, 0, 256);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Future<?>> commits = new ArrayList<>();
+
+        // Invoke
+        for (int i = 0; i < 64; i++)
+            commits.add(pool.submit(() -> { writer.commit(); return null; }));
+        for (Future<?> commit : commits)
+            commit.get();
+        pool.shutdown();
+
+        // Analyze
+        assertTrue(writes.get() < 64, "writes were not coalesced: " + writes.get());
+    }
+
+    @Test
+    public void testWindowFillsBatch() throws Exception {
+        // Setup
+        AtomicInteger writes = new AtomicInteger();
+        GroupCommitWriter writer = new GroupCommitWriter(writes::incrementAndGet, 10000, 4);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<?>> commits = new ArrayList<>();
+
+        // Invoke
+        for (int i = 0; i < 4; i++)
+            commits.add(pool.submit(() -> { writer.commit(); return null; }));
+        for (Future<?> commit : commits)
+            commit.get();
+        pool.shutdown();
+
+        // Analyze
+        assertEquals(1, writes.get());
+    }
+
+    @Test
+    public void testCommitFailure() {
+        // Setup
+        GroupCommitWriter writer = new GroupCommitWriter(() -> { throw new IOException(); }, 0, 1);
+
+        // Invoke & Analyze
+        assertThrows(IOException.class, () -> writer.commit(), "IOException not thrown");
+    }
+}
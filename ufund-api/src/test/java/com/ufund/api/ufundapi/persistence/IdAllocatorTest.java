@@ -0,0 +1,84 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Id Allocator class
+ * 
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class IdAllocatorTest {
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
+    @Test
+    public void testInMemory() throws IOException {
+        // Setup
+        IdAllocator ids = new IdAllocator("", 10, 102);
+
+        // Invoke
+        int first = ids.next();
+        int second = ids.next();
+
+        // Analyze
+        assertEquals(102, first);
+        assertEquals(103, second);
+        assertEquals(104, ids.peek());
+    }
+
+    @Test
+    public void testAllocateRange() throws IOException {
+        // Setup
+        IdAllocator ids = new IdAllocator("", 10, 1);
+
+        // Invoke
+        int first = ids.allocate(5000);
+
+        // Analyze
+        assertEquals(1, first);
+        assertEquals(5001, ids.next());
+    }
+
+    @Test
+    public void testReservationSurvivesRestart() throws IOException {
+        // Setup
+        Path file = dir.resolve("pets.ids");
+        IdAllocator ids = new IdAllocator(file.toString(), 10, 1);
+
+        // Invoke
+        for (int i = 0; i < 5; i++)
+            ids.next();
+        IdAllocator restarted = new IdAllocator(file.toString(), 10, 1);
+
+        // Analyze
+        // The first id reserved a whole block, the restart skips the unused rest of it
+        assertEquals("12", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        assertEquals(12, restarted.next());
+        assertFalse(Files.exists(dir.resolve("pets.ids.tmp")));
+    }
+
+    @Test
+    public void testFloorWinsOverReservation() throws IOException {
+        // Setup
+        Path file = dir.resolve("pets.ids");
+        Files.write(file, "12".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        IdAllocator ids = new IdAllocator(file.toString(), 10, 500);
+
+        // Analyze
+        assertEquals(500, ids.next());
+        assertEquals("511", new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+    }
+}
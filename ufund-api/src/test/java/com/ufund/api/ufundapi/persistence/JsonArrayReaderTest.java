@@ -0,0 +1,194 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufund.api.ufundapi.model.Pet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Json Array Reader class
+ * 
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class JsonArrayReaderTest {
+    ObjectMapper objectMapper;
+    File file;
+
+    /**
+     * Counts how many records have been parsed so far
+     */
+    static class Counted {
+        static final AtomicInteger parsed = new AtomicInteger();
+
+        @JsonCreator
+        Counted(@JsonProperty("id") int id) {
+            parsed.incrementAndGet();
+        }
+    }
+
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
+    @BeforeEach
+    public void setupJsonArrayReader() throws IOException {
+        objectMapper = new ObjectMapper();
+        file = dir.resolve("pets.json").toFile();
+    }
+
+    @Test
+    public void testRead() throws IOException {
+        // Setup
+        Pet[] pets = new Pet[3];
+        pets[0] = new Pet(99,"Lesser sage-grouse", "Wi-Fire");
+        pets[1] = new Pet(100,"Greater sage-grouse", "Galactic Agent");
+        pets[2] = new Pet(101,"Greater sage-grouse", "Ice Gladiator");
+        objectMapper.writeValue(file, pets);
+        List<Pet> read = new ArrayList<>();
+
+        // Invoke
+        int count = JsonArrayReader.read(objectMapper, file, Pet.class, read::add);
+
+        // Analyze
+        assertEquals(3, count);
+        assertEquals(100, read.get(1).getId());
+        assertEquals("Ice Gladiator", read.get(2).getName());
+    }
+
+    @Test
+    public void testReadEmpty() throws IOException {
+        // Setup
+        Files.write(file.toPath(), "[]".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        int count = JsonArrayReader.read(objectMapper, file, Pet.class, pet -> {});
+
+        // Analyze
+        assertEquals(0, count);
+    }
+
+    @Test
+    public void testReadNotAnArray() throws IOException {
+        // Setup
+        Files.write(file.toPath(), "{\"id\":99}".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        // Analyze
+        assertThrows(IOException.class,
+                     () -> JsonArrayReader.read(objectMapper, file, Pet.class, pet -> {}));
+    }
+
+    @Test
+    public void testReadTruncated() throws IOException {
+        // Setup
+        Files.write(file.toPath(), "[{\"id\":99,\"animaltype\":\"Kagu\",\"name\":\"Bolt\"},"
+                                   .getBytes(StandardCharsets.UTF_8));
+        List<Pet> read = new ArrayList<>();
+
+        // Invoke
+        // Analyze
+        assertThrows(IOException.class,
+                     () -> JsonArrayReader.read(objectMapper, file, Pet.class, read::add));
+        assertEquals(1, read.size());
+    }
+
+    @Test
+    public void testSplit() throws IOException {
+        // Setup
+        // The separators inside the string must not be taken for record boundaries
+        String json = "[{\"id\":1,\"name\":\"a},{\\\"b\"},{\"id\":2,\"tags\":[1,2]},{\"id\":3}]";
+        Files.write(file.toPath(), json.getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        long[] bounds = JsonArrayReader.split(file, 1);
+
+        // Analyze
+        long[] expected = {0, json.indexOf(",{\"id\":2"), json.indexOf(",{\"id\":3"), json.length() - 1};
+        assertArrayEquals(expected, bounds);
+    }
+
+    @Test
+    public void testReadParallel() throws IOException {
+        // Setup
+        Pet[] pets = new Pet[1000];
+        for (int i = 0; i < pets.length; i++)
+            pets[i] = new Pet(i, "Kagu", "Bolt \"" + i + "\", [x]");
+        objectMapper.writeValue(file, pets);
+        List<Pet> read = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        // Invoke
+        int count;
+        try {
+            count = JsonArrayReader.read(objectMapper, file, Pet.class, read::add, pool, 1024);
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        // Analyze
+        assertEquals(pets.length, count);
+        for (int i = 0; i < pets.length; i++) {
+            assertEquals(i, read.get(i).getId());
+            assertEquals(pets[i].getName(), read.get(i).getName());
+        }
+    }
+
+    @Test
+    public void testReadParallelBounded() throws Exception {
+        // Setup
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 10000; i++)
+            json.append(i == 0 ? "" : ",").append("{\"id\":").append(100000 + i).append('}');
+        Files.write(file.toPath(), json.append(']').toString().getBytes(StandardCharsets.UTF_8));
+        int perChunk = 1024 / "{\"id\":100000},".length() + 2;
+        Counted.parsed.set(0);
+        int[] parsedAhead = new int[1];
+        ForkJoinPool pool = new ForkJoinPool(2);
+
+        // Invoke
+        int count;
+        try {
+            count = JsonArrayReader.read(objectMapper, file, Counted.class, counted -> {
+                if (parsedAhead[0] == 0) {
+                    // Give the pool time to run ahead as far as it may
+                    try {
+                        Thread.sleep(200);
+                    }
+                    catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    parsedAhead[0] = Counted.parsed.get();
+                }
+            }, pool, 1024);
+        }
+        finally {
+            pool.shutdown();
+        }
+
+        // Analyze
+        assertEquals(10000, count);
+        assertTrue(parsedAhead[0] <= (pool.getParallelism() + 1) * perChunk,
+                   "parsed " + parsedAhead[0] + " records ahead of the merge");
+    }
+}
@@ -0,0 +1,72 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the LRU Cache class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class LruCacheTest {
+    @Test
+    public void testEvictsLeastRecentlyUsed() {
+        // Setup
+        LruCache<String,Integer> cache = new LruCache<>(2);
+        cache.put("Beep", 1);
+        cache.put("Hyper", 2);
+
+        // Invoke
+        cache.get("Beep");
+        cache.put("Tenshi", 3);
+
+        // Analyze
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.get("Beep"));
+        assertNull(cache.get("Hyper"));
+        assertEquals(3, cache.get("Tenshi"));
+    }
+
+    @Test
+    public void testReplaceAndRemove() {
+        // Setup
+        LruCache<String,Integer> cache = new LruCache<>(2);
+        cache.put("Beep", 1);
+
+        // Invoke
+        cache.put("Beep", 4);
+        cache.put("Hyper", 2);
+        cache.remove("Hyper");
+
+        // Analyze
+        assertEquals(4, cache.get("Beep"));
+        assertNull(cache.get("Hyper"));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testBoundedWithSegments() {
+        // Setup
+        LruCache<Integer,Integer> cache = new LruCache<>(1024);
+
+        // Invoke
+        for (int i = 0; i < 100_000; i++)
+            cache.put(i, i);
+
+        // Analyze
+        assertTrue(cache.size() <= cache.capacity());
+        assertEquals(99_999, cache.get(99_999));
+    }
+
+    @Test
+    public void testCapacityMustBePositive() {
+        // Invoke & Analyze
+        assertThrows(IllegalArgumentException.class, () -> new LruCache<String,Integer>(0));
+    }
+}
@@ -0,0 +1,77 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Pet Change Log class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class PetChangeLogTest {
+    @Test
+    public void testChangedSince() {
+        // Setup
+        PetChangeLog log = new PetChangeLog(8, 10);
+        log.record(11, 101);
+        log.record(12, 99, 100);
+        log.record(13, 101);
+
+        // Invoke
+        int[] all = log.changedSince(10, 13);
+        int[] latest = log.changedSince(12, 13);
+        int[] unpublished = log.changedSince(10, 11);
+        int[] none = log.changedSince(13, 13);
+
+        // Analyze
+        assertArrayEquals(new int[]{99, 100, 101}, all);
+        assertArrayEquals(new int[]{101}, latest);
+        assertArrayEquals(new int[]{101}, unpublished);
+        assertEquals(0, none.length);
+        assertNull(log.changedSince(9, 13));
+        assertNull(log.changedSince(14, 13));
+    }
+
+    @Test
+    public void testOverwritesOldest() {
+        // Setup
+        PetChangeLog log = new PetChangeLog(2, 10);
+
+        // Invoke
+        log.record(11, 99);
+        log.record(12, 100);
+        log.record(13, 101);
+
+        // Analyze
+        assertEquals(11, log.floor());
+        assertNull(log.changedSince(10, 13));
+        assertArrayEquals(new int[]{100, 101}, log.changedSince(11, 13));
+    }
+
+    @Test
+    public void testReset() {
+        // Setup
+        PetChangeLog log = new PetChangeLog(4, 10);
+        log.record(11, 99);
+
+        // Invoke
+        log.reset(12);
+
+        // Analyze
+        assertEquals(12, log.floor());
+        assertNull(log.changedSince(11, 12));
+        assertEquals(0, log.changedSince(12, 12).length);
+    }
+
+    @Test
+    public void testInvalidCapacity() {
+        // Invoke and Analyze
+        assertThrows(IllegalArgumentException.class, () -> new PetChangeLog(0, 0));
+    }
+}
@@ -1,10 +1,15 @@
 package com.ufund.api.ufundapi.persistence;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
@@ -12,15 +17,20 @@ import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ufund.api.ufundapi.model.Pet;
+import com.ufund.api.ufundapi.model.PetChanges;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 /**
  * Test the Pet File DAO class
@@ -33,6 +43,12 @@ public class PetFileDAOTest {
     Pet[] testPets;
     Pet[] testPetList;
     ObjectMapper mockObjectMapper;
+    ObjectMapper objectMapper = new ObjectMapper();
+    File petsFile;
+    File petListFile;
+
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
 
     /**
      * Before each test, we will create and inject a Mock Object Mapper to
@@ -54,12 +70,12 @@ public class PetFileDAOTest {
         // When the object mapper is supposed to read from the file
         // the mock object mapper will return the pet array above
         when(mockObjectMapper
-            .readValue(new File("doesnt_matter.txt"),Pet[].class))
+            .readValue(new File(file("doesnt_matter.txt")),Pet[].class))
                 .thenReturn(testPets);
         when(mockObjectMapper
-            .readValue(new File("doesnt_matter2.txt"),Pet[].class))
+            .readValue(new File(file("doesnt_matter2.txt")),Pet[].class))
                 .thenReturn(testPetList);
-        petFileDAO = new PetFileDAO("doesnt_matter.txt","doesnt_matter2.txt",mockObjectMapper);
+        petFileDAO = new PetFileDAO(file("doesnt_matter.txt"),file("doesnt_matter2.txt"),mockObjectMapper);
          Map<Integer,Pet> pets = new HashMap<Integer,Pet>();
         pets.put(99, testPets[0]);
         pets.put(100,testPets[1]);
@@ -67,6 +83,32 @@ public class PetFileDAOTest {
         petFileDAO.setPets(pets);
     }
 
+    /**
+     * Resolves a file in the temporary directory of the test
+     */
+    private String file(String name) {
+        return dir.resolve(name).toString();
+    }
+
+    /**
+     * Writes the JSON files of a catalog with the given pets available and every test pet listed
+     */
+    private void writePets(Pet... available) throws IOException {
+        petsFile = dir.resolve("pets.json").toFile();
+        petListFile = dir.resolve("petList.json").toFile();
+        objectMapper.writeValue(petsFile, available);
+        objectMapper.writeValue(petListFile, testPetList);
+    }
+
+    /**
+     * Opens the catalog written by {@link #writePets}
+     */
+    private PetFileDAO openPets(boolean streaming, int loadThreads, String format, String recordsFile,
+                                boolean mapped) throws IOException {
+        return new PetFileDAO(petsFile.getPath(), petListFile.getPath(), "", 0, "", 0,
+                              streaming, loadThreads, format, recordsFile, mapped, objectMapper);
+    }
+
     @Test
     public void testGetPets() {
         // Invoke
@@ -78,6 +120,20 @@ public class PetFileDAOTest {
             assertEquals(pets[i],testPets[i]);
     }
 
+    @Test
+    public void testGetPetsPage() {
+        // Invoke
+        Pet[] first = petFileDAO.getPets(Integer.MIN_VALUE, 2);
+        Pet[] second = petFileDAO.getPets(first[1].getId(), 2);
+
+        // Analyze
+        assertEquals(2, first.length);
+        assertEquals(testPets[0], first[0]);
+        assertEquals(testPets[1], first[1]);
+        assertEquals(1, second.length);
+        assertEquals(testPets[2], second[0]);
+    }
+
     @Test
     public void testFindPets() {
         // Invoke
@@ -137,6 +193,107 @@ public class PetFileDAOTest {
         assertEquals(result.getName(),pet.getName());
     }
 
+    @Test
+    public void testCreatePets() throws IOException {
+        // Setup
+        Pet[] batch = new Pet[100];
+        for (int i = 0; i < batch.length; i++)
+            batch[i] = new Pet(0, "Kagu", "Bolt " + i);
+
+        // Invoke
+        Pet[] created = petFileDAO.createPets(batch);
+
+        // Analyze
+        assertEquals(batch.length, created.length);
+        for (int i = 0; i < created.length; i++) {
+            assertEquals(102 + i, created[i].getId());
+            assertEquals("Bolt " + i, created[i].getName());
+            assertSame(created[i], petFileDAO.getCurrentPet(102 + i));
+        }
+        assertEquals(202, petFileDAO.createPet(new Pet(0, "Kagu", "Wi-Fire")).getId());
+        assertEquals(0, petFileDAO.createPets(new Pet[0]).length);
+    }
+
+    @Test
+    public void testGetVersion() throws IOException {
+        // Setup
+        long version = petFileDAO.getVersion();
+
+        // Invoke
+        petFileDAO.createPet(new Pet(0,"Kagu","Bolt"));
+        petFileDAO.updatePet(new Pet(99,"Greater sage-grouse","Galactic Agent"));
+        petFileDAO.deletePet(100);
+
+        // Analyze
+        assertEquals(version + 3, petFileDAO.getVersion());
+    }
+
+    @Test
+    public void testGetChanges() throws IOException {
+        // Setup
+        long version = petFileDAO.getVersion();
+
+        // Invoke
+        Pet created = petFileDAO.createPet(new Pet(0,"Kagu","Bolt"));
+        petFileDAO.updatePet(new Pet(99,"Greater sage-grouse","Galactic Agent"));
+        petFileDAO.deletePet(100);
+        PetChanges delta = petFileDAO.getChanges(version);
+        PetChanges none = petFileDAO.getChanges(delta.getVersion());
+        PetChanges initial = petFileDAO.getChanges(-1);
+        PetChanges tooOld = petFileDAO.getChanges(version - 1);
+
+        // Analyze
+        assertEquals(version + 3, delta.getVersion());
+        assertFalse(delta.isFull());
+        assertEquals(2, delta.getPets().length);
+        assertEquals("Galactic Agent", delta.getPets()[0].getName());
+        assertSame(created, delta.getPets()[1]);
+        assertArrayEquals(new int[]{100}, delta.getRemoved());
+        assertFalse(none.isFull());
+        assertEquals(0, none.getPets().length);
+        assertEquals(0, none.getRemoved().length);
+        assertTrue(initial.isFull());
+        assertEquals(3, initial.getPets().length);
+        assertTrue(tooOld.isFull());
+        assertEquals(version + 3, tooOld.getVersion());
+    }
+
+    @Test
+    public void testGetCatalog() throws IOException {
+        // Setup
+        petFileDAO.deletePet(100);
+
+        // Invoke
+        PetChanges catalog = petFileDAO.getCatalog();
+
+        // Analyze
+        assertEquals(petFileDAO.getVersion(), catalog.getVersion());
+        assertTrue(catalog.isFull());
+        assertArrayEquals(petFileDAO.getPets(), catalog.getPets());
+        assertEquals(0, catalog.getRemoved().length);
+    }
+
+    @Test
+    public void testGetChangesBulk() throws IOException {
+        // Setup
+        long version = petFileDAO.getVersion();
+        Pet[] batch = new Pet[100];
+        for (int i = 0; i < batch.length; i++)
+            batch[i] = new Pet(0, "Kagu", "Bolt " + i);
+
+        // Invoke
+        petFileDAO.createPets(batch);
+        PetChanges delta = petFileDAO.getChanges(version);
+        petFileDAO.setPets(new HashMap<Integer,Pet>());
+        PetChanges replaced = petFileDAO.getChanges(delta.getVersion());
+
+        // Analyze
+        assertFalse(delta.isFull());
+        assertEquals(batch.length, delta.getPets().length);
+        assertTrue(replaced.isFull());
+        assertEquals(0, replaced.getPets().length);
+    }
+
     @Test
     public void testUpdatePet() {
         // Setup
@@ -156,7 +313,7 @@ public class PetFileDAOTest {
     public void testSaveException() throws IOException{
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .writeValue(any(File.class),any(Pet[].class));
+                .writeValue(any(OutputStream.class),any(Pet[].class));
 
         Pet pet = new Pet(102,"Greater sage-grouse","Wi-Fire");
 
@@ -210,13 +367,191 @@ public class PetFileDAOTest {
         // raised
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .readValue(new File("doesnt_matter.txt"),Pet[].class);
+                .readValue(new File(file("doesnt_matter.txt")),Pet[].class);
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .readValue(new File("doesnt_matter.txt2"),Pet[].class);
+                .readValue(new File(file("doesnt_matter.txt2")),Pet[].class);
         // Invoke & Analyze
         assertThrows(IOException.class,
-                        () -> new PetFileDAO("doesnt_matter.txt", "doesnt_matter2.txt",mockObjectMapper),
+                        () -> new PetFileDAO(file("doesnt_matter.txt"), file("doesnt_matter2.txt"),mockObjectMapper),
                         "IOException not thrown");
     }
+
+    @Test
+    public void testDeletePets() throws IOException {
+        // Setup
+        writePets(testPets);
+        String journalFile = file("pets.journal");
+        PetFileDAO journaled = new PetFileDAO(petsFile.getPath(), petListFile.getPath(), journalFile, 10, objectMapper);
+
+        // Invoke
+        List<Pet> removed = journaled.deletePets(new int[]{99, 100, 99, 98});
+        PetFileDAO reloaded = new PetFileDAO(petsFile.getPath(), petListFile.getPath(), journalFile, 10, objectMapper);
+
+        // Analyze
+        assertEquals(2, removed.size());
+        assertNull(journaled.getCurrentPet(99));
+        assertNull(reloaded.getCurrentPet(100));
+        assertNotNull(reloaded.getPet(100));
+        // Checkpointed at once instead of journaled pet by pet
+        assertEquals(testPets.length - 2, objectMapper.readValue(petsFile, Pet[].class).length);
+        assertEquals(0, new File(journalFile).length());
+    }
+
+    @Test
+    public void testJournalReplay() throws IOException {
+        // Setup
+        writePets(testPets);
+        String journalFile = file("pets.journal");
+        PetFileDAO journaled = new PetFileDAO(petsFile.getPath(), petListFile.getPath(), journalFile, 10, objectMapper);
+
+        // Invoke
+        Pet created = journaled.createPet(new Pet(0, "Kagu", "Bolt"));
+        journaled.updatePet(new Pet(99, "Lesser sage-grouse", "Wi-Fi"));
+        journaled.deletePet(100);
+        PetFileDAO reloaded = new PetFileDAO(petsFile.getPath(), petListFile.getPath(), journalFile, 10, objectMapper);
+
+        // Analyze
+        // The files are untouched until a checkpoint, the journal carries the changes
+        assertEquals(testPets.length, objectMapper.readValue(petsFile, Pet[].class).length);
+        assertEquals("Bolt", reloaded.getCurrentPet(created.getId()).getName());
+        assertEquals("Wi-Fi", reloaded.getCurrentPet(99).getName());
+        assertNull(reloaded.getCurrentPet(100));
+        assertNotNull(reloaded.getPet(100));
+
+        // Invoke
+        journaled.close();
+
+        // Analyze
+        assertEquals(testPets.length, objectMapper.readValue(petsFile, Pet[].class).length);
+        assertEquals(0, new File(journalFile).length());
+    }
+
+    @Test
+    public void testStreamingLoad() throws IOException {
+        // Setup
+        writePets(testPets[0], testPets[1]);
+
+        // Invoke
+        PetFileDAO streamed = openPets(true, 1, "json", "", false);
+
+        // Analyze
+        assertEquals(2, streamed.getPets().length);
+        assertEquals("Ice Gladiator", streamed.getPet(101).getName());
+        assertNull(streamed.getCurrentPet(101));
+        // A pet listed in both files is held once
+        assertSame(streamed.pets.get(99), streamed.petList.get(99));
+        assertEquals(102, streamed.createPet(new Pet(0, "Kagu", "Bolt")).getId());
+    }
+
+    @Test
+    public void testBinaryFormat() throws IOException {
+        // Setup
+        petsFile = dir.resolve("pets.bin").toFile();
+        petListFile = dir.resolve("petList.bin").toFile();
+        BinaryRecordFile.write(petsFile, PetCodec.INSTANCE, testPets);
+        BinaryRecordFile.write(petListFile, PetCodec.INSTANCE, testPetList);
+        PetFileDAO binary = openPets(false, 1, "binary", "", false);
+
+        // Invoke
+        Pet created = binary.createPet(new Pet(0, "Kagu", "Bolt"));
+        binary.deletePet(99);
+        PetFileDAO reloaded = openPets(false, 1, "binary", "", false);
+
+        // Analyze
+        assertEquals("Bolt", reloaded.getCurrentPet(created.getId()).getName());
+        assertNull(reloaded.getCurrentPet(99));
+        assertEquals("Wi-Fire", reloaded.getPet(99).getName());
+        assertEquals(testPets.length, reloaded.getPets().length);
+    }
+
+    @Test
+    public void testRecordFile() throws IOException {
+        // Setup
+        writePets(testPets[0], testPets[1]);
+        String recordsFile = file("pets.records");
+        long petsLength = petsFile.length();
+        PetFileDAO recorded = openPets(false, 1, "json", recordsFile, false);
+
+        // Invoke
+        recorded.updatePet(new Pet(99, "Lesser sage-grouse", "Wi-Fi"));
+        recorded.deletePet(100);
+        Pet created = recorded.createPet(new Pet(0, "Kagu", "Bolt"));
+        recorded.close();
+        PetFileDAO reloaded = openPets(false, 1, "json", recordsFile, false);
+
+        // Analyze
+        // The files were only read to fill the record file
+        assertEquals(petsLength, petsFile.length());
+        assertEquals("Wi-Fi", reloaded.getCurrentPet(99).getName());
+        assertNull(reloaded.getCurrentPet(100));
+        assertEquals("Galactic Agent", reloaded.getPet(100).getName());
+        assertNull(reloaded.getCurrentPet(101));
+        assertEquals("Ice Gladiator", reloaded.getPet(101).getName());
+        assertEquals("Bolt", reloaded.getCurrentPet(created.getId()).getName());
+        reloaded.close();
+    }
+
+    @Test
+    public void testMappedRecordFile() throws IOException {
+        // Setup
+        writePets(testPets[0], testPets[1]);
+        String recordsFile = file("pets.records");
+        openPets(false, 1, "json", recordsFile, false).close();
+
+        // Invoke
+        PetFileDAO mapped = openPets(false, 1, "json", recordsFile, true);
+
+        // Analyze
+        // Nothing decoded up front, every pet is read from the mapping
+        assertTrue(mapped.pets.isEmpty());
+        assertFalse(mapped.snapshot().indexed());
+        assertEquals("Wi-Fire", mapped.getCurrentPet(99).getName());
+        assertEquals("Ice Gladiator", mapped.getPet(101).getName());
+        assertEquals(1, mapped.findPets("gal").length);
+        assertTrue(mapped.snapshot().indexed());
+
+        // Invoke
+        CatalogSnapshot before = mapped.snapshot();
+        mapped.updatePet(new Pet(99, "Lesser sage-grouse", "Wi-Fi"));
+        mapped.deletePet(100);
+        mapped.createPets(new Pet[]{new Pet(0, "Kagu", "Bolt"), new Pet(0, "Kagu", "Wonder-Person")});
+
+        // Analyze
+        assertEquals("Wi-Fi", mapped.getCurrentPet(99).getName());
+        assertEquals(1, mapped.findPets("wi").length);
+        assertEquals(0, mapped.findPets("gal").length);
+        assertEquals(2, mapped.findPetsByType("kagu").length);
+        // An older snapshot still shows the pets as they were
+        assertEquals("Wi-Fire", before.get(99).getName());
+        assertEquals("Galactic Agent", before.getAvailable(100).getName());
+        mapped.close();
+
+        // Invoke
+        PetFileDAO reopened = openPets(false, 1, "json", recordsFile, true);
+
+        // Analyze
+        assertEquals("Wi-Fi", reopened.getCurrentPet(99).getName());
+        assertNull(reopened.getCurrentPet(100));
+        assertEquals("Galactic Agent", reopened.getPet(100).getName());
+        assertEquals(3, reopened.getPets().length);
+        reopened.close();
+    }
+
+    @Test
+    public void testSnapshot() throws IOException {
+        // Invoke
+        CatalogSnapshot first = petFileDAO.snapshot();
+        CatalogSnapshot second = petFileDAO.snapshot();
+        petFileDAO.deletePet(100);
+        CatalogSnapshot third = petFileDAO.snapshot();
+
+        // Analyze
+        assertSame(first, second);
+        assertNotSame(first, third);
+        assertNotNull(first.getAvailable(100));
+        assertNull(third.getAvailable(100));
+        assertNotNull(third.get(100));
+        assertEquals(testPets.length - 1, third.available().length);
+    }
 }
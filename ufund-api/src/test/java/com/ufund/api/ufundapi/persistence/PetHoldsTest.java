@@ -0,0 +1,62 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Pet Holds class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class PetHoldsTest {
+    AtomicLong clock;
+    PetHolds holds;
+
+    @BeforeEach
+    public void setupHolds() {
+        clock = new AtomicLong(50000);
+        holds = new PetHolds(60000, clock::get);
+    }
+
+    @Test
+    public void testAcquire() {
+        // Invoke & Analyze
+        assertTrue(holds.acquire(99, "test"));
+        assertTrue(holds.acquire(99, "test"));
+        assertFalse(holds.acquire(99, "admin"));
+        assertTrue(holds.heldByOther(99, "admin"));
+        assertFalse(holds.heldByOther(99, "test"));
+        holds.release(99, "admin");
+        assertEquals(1, holds.size());
+        holds.release(99, "test");
+        assertTrue(holds.acquire(99, "admin"));
+    }
+
+    @Test
+    public void testExpiry() {
+        // Setup
+        holds.acquire(99, "test");
+        clock.addAndGet(30000);
+        holds.acquire(99, "test"); // renews the lease
+        holds.acquire(100, "test");
+
+        // Invoke
+        clock.addAndGet(59000);
+        boolean stillHeld = holds.heldByOther(99, "admin");
+        clock.addAndGet(1100);
+        holds.expire();
+
+        // Analyze
+        assertTrue(stillHeld);
+        assertEquals(0, holds.size());
+        assertTrue(holds.acquire(99, "admin"));
+    }
+}
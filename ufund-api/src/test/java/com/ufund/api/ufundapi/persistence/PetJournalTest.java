@@ -0,0 +1,161 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufund.api.ufundapi.model.Pet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Pet Journal class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class PetJournalTest {
+    ObjectMapper objectMapper;
+    File journalFile;
+
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
+    @BeforeEach
+    public void setupJournal() throws IOException {
+        objectMapper = new ObjectMapper();
+        journalFile = dir.resolve("pets.journal").toFile();
+    }
+
+    @Test
+    public void testReplay() throws IOException {
+        // Setup
+        PetJournal journal = new PetJournal(journalFile.getPath(), objectMapper);
+        journal.append(PetJournal.Entry.put(new Pet(1, "Kagu", "Wi-Fire")));
+        journal.append(PetJournal.Entry.put(new Pet(2, "Shoebill", "Bolt")));
+        journal.append(PetJournal.Entry.put(new Pet(1, "Kagu", "Galactic Agent")));
+        journal.append(PetJournal.Entry.delete(2));
+        journal.close();
+        Map<Integer,Pet> pets = new TreeMap<>();
+        Map<Integer,Pet> petList = new TreeMap<>();
+
+        // Invoke
+        int records = new PetJournal(journalFile.getPath(), objectMapper).replay(pets, petList);
+
+        // Analyze
+        assertEquals(4, records);
+        assertEquals(1, pets.size());
+        assertEquals("Galactic Agent", pets.get(1).getName());
+        assertEquals(2, petList.size());
+    }
+
+    @Test
+    public void testAppendBatch() throws IOException {
+        // Setup
+        PetJournal journal = new PetJournal(journalFile.getPath(), objectMapper);
+        journal.append(PetJournal.Entry.put(new Pet(1, "Kagu", "Wi-Fire")));
+
+        // Invoke
+        journal.append(new PetJournal.Entry[]{
+            PetJournal.Entry.put(new Pet(2, "Shoebill", "Bolt")),
+            PetJournal.Entry.put(new Pet(3, "Shoebill", "Galactic Agent")),
+            PetJournal.Entry.delete(1)
+        });
+        journal.close();
+        Map<Integer,Pet> pets = new TreeMap<>();
+        Map<Integer,Pet> petList = new TreeMap<>();
+        int records = new PetJournal(journalFile.getPath(), objectMapper).replay(pets, petList);
+
+        // Analyze
+        assertEquals(4, journal.size());
+        assertEquals(4, records);
+        assertEquals(new TreeSet<>(Arrays.asList(2, 3)), pets.keySet());
+        assertEquals(3, petList.size());
+    }
+
+    @Test
+    public void testReplayTornTail() throws IOException {
+        // Setup
+        PetJournal journal = new PetJournal(journalFile.getPath(), objectMapper);
+        journal.append(PetJournal.Entry.put(new Pet(1, "Kagu", "Wi-Fire")));
+        journal.close();
+        try (FileWriter writer = new FileWriter(journalFile, true)) {
+            writer.write("{\"op\":\"put\",\"id\":2,\"pet\":{\"id\":2,\"anim");
+        }
+        Map<Integer,Pet> pets = new TreeMap<>();
+        Map<Integer,Pet> petList = new TreeMap<>();
+
+        // Invoke
+        PetJournal reopened = new PetJournal(journalFile.getPath(), objectMapper);
+        int records = reopened.replay(pets, petList);
+        reopened.append(PetJournal.Entry.delete(1));
+        reopened.close();
+
+        // Analyze
+        assertEquals(1, records);
+        assertTrue(petList.containsKey(1));
+        assertFalse(petList.containsKey(2));
+        assertEquals(2, new PetJournal(journalFile.getPath(), objectMapper).replay(pets, petList));
+        assertFalse(pets.containsKey(1));
+    }
+
+    @Test
+    public void testReplayTornNewline() throws IOException {
+        // Setup
+        // The second record is complete JSON, only its newline never made it to the disk
+        PetJournal journal = new PetJournal(journalFile.getPath(), objectMapper);
+        journal.append(PetJournal.Entry.put(new Pet(1, "Kagu", "Wi-Fire")));
+        journal.close();
+        long complete = journalFile.length();
+        try (FileWriter writer = new FileWriter(journalFile, true)) {
+            writer.write(objectMapper.writeValueAsString(PetJournal.Entry.put(new Pet(2, "Shoebill", "Bolt"))));
+        }
+        Map<Integer,Pet> pets = new TreeMap<>();
+        Map<Integer,Pet> petList = new TreeMap<>();
+
+        // Invoke
+        PetJournal reopened = new PetJournal(journalFile.getPath(), objectMapper);
+        int records = reopened.replay(pets, petList);
+        long afterReplay = journalFile.length();
+        reopened.append(PetJournal.Entry.put(new Pet(3, "Kagu", "Galactic Agent")));
+        reopened.append(PetJournal.Entry.put(new Pet(4, "Kagu", "Ice Gladiator")));
+        reopened.close();
+        Map<Integer,Pet> replayed = new TreeMap<>();
+        int replayedRecords = new PetJournal(journalFile.getPath(), objectMapper).replay(replayed, new TreeMap<>());
+
+        // Analyze
+        assertEquals(1, records);
+        assertFalse(petList.containsKey(2));
+        assertEquals(complete, afterReplay);
+        assertEquals(3, replayedRecords);
+        assertEquals(new TreeSet<>(Arrays.asList(1, 3, 4)), replayed.keySet());
+    }
+
+    @Test
+    public void testTruncate() throws IOException {
+        // Setup
+        PetJournal journal = new PetJournal(journalFile.getPath(), objectMapper);
+        journal.append(PetJournal.Entry.put(new Pet(1, "Kagu", "Wi-Fire")));
+
+        // Invoke
+        journal.truncate();
+        journal.close();
+
+        // Analyze
+        assertEquals(0, journal.size());
+        assertEquals(0, journalFile.length());
+    }
+}
@@ -0,0 +1,221 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Pet Record File class
+ * 
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class PetRecordFileTest {
+    Path file;
+    PetRecordFile records;
+
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
+    @BeforeEach
+    public void setupPetRecordFile() throws IOException {
+        file = dir.resolve("pets.records");
+        records = new PetRecordFile(file.toString());
+    }
+
+    @AfterEach
+    public void closePetRecordFile() throws IOException {
+        records.close();
+    }
+
+    @Test
+    public void testPutAndScan() throws IOException {
+        // Setup
+        records.put(new Pet(99,"Lesser sage-grouse", "Wi-Fire"));
+        records.put(new Pet(101,"Greater sage-grouse", null));
+        records.close();
+        records = new PetRecordFile(file.toString());
+        Map<Integer,Pet> pets = new TreeMap<>();
+        Map<Integer,Pet> petList = new TreeMap<>();
+
+        // Invoke
+        int count = records.scan(pets, petList);
+
+        // Analyze
+        assertEquals(2, count);
+        assertEquals("Wi-Fire", pets.get(99).getName());
+        assertSame(pets.get(99), petList.get(99));
+        assertNull(pets.get(101).getName());
+        assertEquals(PetRecordFile.position(101) + PetRecordFile.SLOT_SIZE, records.size());
+    }
+
+    @Test
+    public void testUpdateInPlace() throws IOException {
+        // Setup
+        records.put(new Pet(99,"Lesser sage-grouse", "Wi-Fire"));
+        records.put(new Pet(100,"Greater sage-grouse", "Galactic Agent"));
+        long size = records.size();
+
+        // Invoke
+        records.put(new Pet(99,"Lesser sage-grouse", "Bolt"));
+        Map<Integer,Pet> pets = new TreeMap<>();
+        records.scan(pets, new TreeMap<>());
+
+        // Analyze
+        assertEquals(size, records.size());
+        assertEquals("Bolt", pets.get(99).getName());
+        assertEquals("Galactic Agent", pets.get(100).getName());
+    }
+
+    @Test
+    public void testRemove() throws IOException {
+        // Setup
+        records.put(new Pet(99,"Lesser sage-grouse", "Wi-Fire"));
+        records.put(new Pet(100,"Greater sage-grouse", "Galactic Agent"));
+
+        // Invoke
+        records.remove(99);
+        records.remove(5000);  // never had a slot
+        records.close();
+        records = new PetRecordFile(file.toString());
+        Map<Integer,Pet> pets = new TreeMap<>();
+        Map<Integer,Pet> petList = new TreeMap<>();
+        records.scan(pets, petList);
+
+        // Analyze
+        assertFalse(pets.containsKey(99));
+        assertEquals("Wi-Fire", petList.get(99).getName());
+        assertTrue(records.isRemoved(99));
+        assertFalse(records.isRemoved(100));
+        assertEquals(1, pets.size());
+    }
+
+    @Test
+    public void testOverflow() throws IOException {
+        // Setup
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 20; i++)
+            name.append("Wonder-Person ");
+
+        // Invoke
+        records.put(new Pet(99,"Lesser sage-grouse", name.toString()));
+        Map<Integer,Pet> pets = new TreeMap<>();
+        records.scan(pets, new TreeMap<>());
+
+        // Analyze
+        assertEquals(name.toString(), pets.get(99).getName());
+        assertEquals(name.length(), Files.size(PetRecordFile.overflowPath(file)));
+        assertEquals(PetRecordFile.position(99) + PetRecordFile.SLOT_SIZE, records.size());
+    }
+
+    @Test
+    public void testMap() throws IOException {
+        // Setup
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 20; i++)
+            name.append("Wonder-Person ");
+        records.put(new Pet(99,"Lesser sage-grouse", "Wi-Fire"));
+        records.put(new Pet(100,"Greater sage-grouse", name.toString()));
+        records.remove(99);
+
+        // Invoke
+        int count = records.map();
+
+        // Analyze
+        assertEquals(2, count);
+        assertEquals("Wi-Fire", records.read(99).getName());
+        assertEquals(name.toString(), records.read(100).getName());
+        assertEquals("Greater sage-grouse", records.read(100).getAnimaltype());
+        assertNull(records.read(101));
+        assertFalse(records.available().get(99));
+        assertTrue(records.available().get(100));
+        assertTrue(records.listed().get(99));
+        assertEquals(100, records.maxId());
+    }
+
+    @Test
+    public void testMapRewrittenSlot() throws IOException {
+        // Setup
+        records.put(new Pet(99,"Lesser sage-grouse", "Wi-Fire"));
+        records.map();
+
+        // Invoke
+        records.put(new Pet(99,"Lesser sage-grouse", "Bolt"));
+        records.put(new Pet(99,"Lesser sage-grouse", "Wi-Fi"));
+        records.put(new Pet(100,"Greater sage-grouse", "Galactic Agent"));
+        Map<Integer,Pet> pets = new TreeMap<>();
+        records.scan(pets, new TreeMap<>());
+
+        // Analyze
+        // The mapping keeps showing the pet as it was mapped, the slot holds the latest one
+        assertEquals("Wi-Fire", records.read(99).getName());
+        assertNull(records.read(100));
+        assertEquals("Wi-Fi", pets.get(99).getName());
+        assertEquals("Galactic Agent", pets.get(100).getName());
+    }
+
+    @Test
+    public void testStatusFile() throws IOException {
+        // Setup
+        Path statuses = PetRecordFile.statusPath(file);
+        records.put(new Pet(99,"Lesser sage-grouse", "Wi-Fire"));
+        records.put(new Pet(100,"Greater sage-grouse", "Galactic Agent"));
+        records.remove(99);
+        records.close();
+
+        // Invoke
+        // Closed cleanly, the status file is read instead of the slots
+        byte[] bytes = Files.readAllBytes(statuses);
+        bytes[100] = PetRecordFile.REMOVED;
+        Files.write(statuses, bytes);
+        records = new PetRecordFile(file.toString());
+
+        // Analyze
+        assertEquals(101, bytes.length);
+        assertTrue(records.isRemoved(99));
+        assertTrue(records.isRemoved(100));
+
+        // Invoke
+        // Not closed, the status file is rebuilt from the slots
+        records.put(new Pet(150,"Kagu", "Bolt"));
+        PetRecordFile reopened = new PetRecordFile(file.toString());
+
+        // Analyze
+        assertTrue(reopened.isRemoved(99));
+        assertFalse(reopened.isRemoved(100));
+        assertEquals(150, reopened.maxId());
+        assertEquals(151, Files.size(statuses));
+        reopened.close();
+    }
+
+    @Test
+    public void testNotARecordFile() throws IOException {
+        // Setup
+        Path other = dir.resolve("pets.json");
+        Files.write(other, "[{\"id\":99}]                                                          "
+                           .getBytes(StandardCharsets.UTF_8));
+
+        // Invoke
+        // Analyze
+        assertThrows(IOException.class, () -> new PetRecordFile(other.toString()));
+        assertThrows(IllegalArgumentException.class, () -> records.put(new Pet(-1, "Kagu", "Bolt")));
+    }
+}
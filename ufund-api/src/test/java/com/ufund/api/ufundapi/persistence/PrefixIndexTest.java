@@ -0,0 +1,60 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Prefix Index class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class PrefixIndexTest {
+    PrefixIndex index;
+
+    @BeforeEach
+    public void setupIndex() {
+        Pet[] testPets = new Pet[4];
+        testPets[0] = new Pet(103, "Greater sage-grouse", "Bolt");
+        testPets[1] = new Pet(99, "Lesser sage-grouse", "bolt");
+        testPets[2] = new Pet(100, "Greater sage-grouse", "Bolton");
+        testPets[3] = new Pet(101, "Greater sage-grouse", "Ice Gladiator");
+        index = new PrefixIndex(Pet::getName, testPets);
+    }
+
+    @Test
+    public void testStartingWith() {
+        // Invoke
+        Pet[] pets = index.startingWith("BOL");
+
+        // Analyze
+        assertEquals(3, pets.length);
+        assertEquals(99, pets[0].getId());
+        assertEquals(100, pets[1].getId());
+        assertEquals(103, pets[2].getId());
+        assertEquals(0, index.startingWith("boltz").length);
+        assertEquals(4, index.startingWith("").length);
+    }
+
+    @Test
+    public void testWithAndWithout() {
+        // Setup
+        Pet pet = new Pet(100, "Greater sage-grouse", "Bolton");
+
+        // Invoke
+        PrefixIndex next = index.without(pet).with(new Pet(104, "Kagu", "Boltzmann"));
+
+        // Analyze
+        assertEquals(4, next.size());
+        assertEquals(104, next.startingWith("boltz")[0].getId());
+        assertEquals(3, next.startingWith("bolt").length);
+        assertEquals(4, index.size());
+        assertSame(next, next.without(pet));
+    }
+}
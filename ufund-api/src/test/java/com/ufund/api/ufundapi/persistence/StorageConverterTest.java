@@ -0,0 +1,66 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ufund.api.ufundapi.model.User;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the Storage Converter class
+ * 
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class StorageConverterTest {
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        File json = dir.resolve("users.json").toFile();
+        File binary = dir.resolve("users.bin").toFile();
+        File back = dir.resolve("users2.json").toFile();
+        User[] users = new User[100];
+        for (int i = 0; i < users.length; i++)
+            users[i] = new User("user" + i, "password" + i, new int[]{i, i + 1}, new int[]{}, new String[]{});
+        objectMapper.writeValue(json, users);
+
+        // Invoke
+        int toBinary = StorageConverter.convert(objectMapper, "to-binary", json, binary, User.class,
+                                                UserCodec.INSTANCE, new User[0]);
+        int toJson = StorageConverter.convert(objectMapper, "to-json", binary, back, User.class,
+                                              UserCodec.INSTANCE, new User[0]);
+
+        // Analyze
+        assertEquals(100, toBinary);
+        assertEquals(100, toJson);
+        assertTrue(binary.length() * 3 < json.length());
+        User[] converted = objectMapper.readValue(back, User[].class);
+        assertEquals("user42", converted[42].getUsername());
+        assertEquals(43, converted[42].getBasket_pets()[1]);
+    }
+
+    @Test
+    public void testUnknownDirection() throws IOException {
+        // Setup
+        File file = dir.resolve("users.json").toFile();
+
+        // Invoke
+        // Analyze
+        assertThrows(IllegalArgumentException.class,
+                     () -> StorageConverter.convert(new ObjectMapper(), "to-xml", file, file, User.class,
+                                                    UserCodec.INSTANCE, new User[0]));
+    }
+}
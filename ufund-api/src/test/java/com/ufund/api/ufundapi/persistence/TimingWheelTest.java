@@ -0,0 +1,84 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Timing Wheel class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class TimingWheelTest {
+    TimingWheel<Integer> wheel;
+    List<Integer> expired;
+
+    @BeforeEach
+    public void setupWheel() {
+        wheel = new TimingWheel<>(10, 3, 1000);
+        expired = new ArrayList<>();
+    }
+
+    @Test
+    public void testExpiresInOrder() {
+        // Setup
+        // Deadlines on every level of the wheel and one beyond its range
+        int[] delays = {5000000, 10, 650, 40000, 640, 9};
+        for (int delay : delays)
+            wheel.schedule(delay, 1000 + delay);
+
+        // Invoke & Analyze
+        wheel.advance(1000 + 9, expired::add);
+        assertEquals(0, expired.size());
+        wheel.advance(1000 + 10, expired::add);
+        assertEquals(List.of(9, 10), expired);
+        wheel.advance(1000 + 649, expired::add);
+        assertEquals(List.of(9, 10, 640), expired);
+        wheel.advance(1000 + 40000, expired::add);
+        assertEquals(List.of(9, 10, 640, 650, 40000), expired);
+        assertEquals(1, wheel.size());
+        wheel.advance(1000 + 5000000, expired::add);
+        assertEquals(6, expired.size());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    public void testCancel() {
+        // Setup
+        TimingWheel.Timeout<Integer> cancelled = wheel.schedule(1, 2000);
+        wheel.schedule(2, 2000);
+
+        // Invoke
+        boolean first = wheel.cancel(cancelled);
+        boolean second = wheel.cancel(cancelled);
+        wheel.advance(3000, expired::add);
+
+        // Analyze
+        assertTrue(first);
+        assertFalse(second);
+        assertEquals(List.of(2), expired);
+    }
+
+    @Test
+    public void testManyTimeouts() {
+        // Setup
+        for (int i = 0; i < 100000; i++)
+            wheel.schedule(i, 1000 + 10L * (i % 5000));
+
+        // Invoke
+        wheel.advance(1000 + 10L * 2500, expired::add);
+
+        // Analyze
+        assertEquals(100000 / 5000 * 2501, expired.size());
+        wheel.advance(1000 + 10L * 5000, expired::add);
+        assertEquals(100000, expired.size());
+    }
+}
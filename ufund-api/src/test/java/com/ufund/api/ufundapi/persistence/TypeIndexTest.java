@@ -0,0 +1,65 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import com.ufund.api.ufundapi.model.Pet;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test the Type Index class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class TypeIndexTest {
+    Pet[] testPets;
+    TypeIndex index;
+
+    @BeforeEach
+    public void setupIndex() {
+        testPets = new Pet[4];
+        testPets[0] = new Pet(103, "Greater sage-grouse", "Bolt");
+        testPets[1] = new Pet(99, "Lesser sage-grouse", "Wi-Fire");
+        testPets[2] = new Pet(100, "greater SAGE-grouse", "Galactic Agent");
+        testPets[3] = new Pet(101, "Kagu", "Ice Gladiator");
+        index = new TypeIndex(testPets);
+    }
+
+    @Test
+    public void testStartingWith() {
+        // Invoke
+        Pet[] greater = index.startingWith("GREATER");
+        Pet[] all = index.startingWith("");
+
+        // Analyze
+        assertEquals(3, index.types());
+        assertEquals(2, greater.length);
+        assertEquals(100, greater[0].getId());
+        assertEquals(103, greater[1].getId());
+        assertEquals(4, all.length);
+        assertEquals(99, all[0].getId());
+        assertEquals(103, all[3].getId());
+        assertEquals(0, index.startingWith("shoebill").length);
+    }
+
+    @Test
+    public void testWithAndWithout() {
+        // Setup
+        Pet retyped = new Pet(101, "Shoebill", "Ice Gladiator");
+
+        // Invoke
+        TypeIndex next = index.without(testPets[3]).with(retyped).without(testPets[1]);
+
+        // Analyze
+        assertEquals(2, next.types());
+        assertEquals(0, next.startingWith("kagu").length);
+        assertSame(retyped, next.startingWith("shoe")[0]);
+        assertEquals(0, next.startingWith("lesser").length);
+        assertEquals(1, index.startingWith("lesser").length);
+        assertSame(next, next.without(testPets[1]));
+    }
+}
@@ -2,15 +2,28 @@ package com.ufund.api.ufundapi.persistence;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.ufund.api.ufundapi.model.User;
@@ -18,6 +31,8 @@ import com.ufund.api.ufundapi.model.User;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
 
 /**
  * Test the User File DAO class
@@ -30,6 +45,9 @@ public class UserFileDAOTest {
     User[] testUsers;
     ObjectMapper mockObjectMapper;
 
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
     /**
      * Before each test, we will create and inject a Mock Object Mapper to
      * isolate the tests from the underlying file
@@ -50,10 +68,26 @@ public class UserFileDAOTest {
         // When the object mapper is supposed to read from the file
         // the mock object mapper will return the user array above
         when(mockObjectMapper
-            .readValue(new File("doesnt_matter.txt"),User[].class))
+            .readValue(new File(file("doesnt_matter.txt")),User[].class))
                 .thenReturn(testUsers);
-        userFileDAO = new UserFileDAO("doesnt_matter.txt",mockObjectMapper);
+        userFileDAO = new UserFileDAO(file("doesnt_matter.txt"),mockObjectMapper);
+
+    }
+
+    /**
+     * Resolves a file in the temporary directory of the test
+     */
+    private String file(String name) {
+        return dir.resolve(name).toString();
+    }
 
+    /**
+     * Writes the given users to users.json in the temporary directory of the test
+     */
+    private File writeUsers(ObjectMapper objectMapper, User[] users) throws IOException {
+        File usersFile = dir.resolve("users.json").toFile();
+        objectMapper.writeValue(usersFile, users);
+        return usersFile;
     }
 
     @Test
@@ -67,6 +101,23 @@ public class UserFileDAOTest {
             assertEquals(users[i],testUsers[i]);
     }
 
+    @Test
+    public void testGetUsersPage() {
+        // Invoke
+        User[] first = userFileDAO.getUsers(null, 2);
+        User[] second = userFileDAO.getUsers(first[1].getUsername(), 2);
+        User[] last = userFileDAO.getUsers("Tenshi", 2);
+
+        // Analyze
+        assertEquals(2, first.length);
+        assertSame(testUsers[0], first[0]);
+        assertSame(testUsers[1], first[1]);
+        assertEquals(2, second.length);
+        assertSame(testUsers[2], second[0]);
+        assertSame(testUsers[3], second[1]);
+        assertEquals(1, last.length);
+    }
+
     @Test
     public void testGetUser() throws IOException {
         // Invoke
@@ -129,11 +180,52 @@ public class UserFileDAOTest {
         assertEquals(deleted, true);
     }
 
+    @Test
+    public void testNotificationListener() throws IOException {
+        // Setup
+        UserDAO.NotificationListener listener = mock(UserDAO.NotificationListener.class);
+        userFileDAO.addNotificationListener(listener);
+        doThrow(new IOException())
+            .when(mockObjectMapper)
+                .writeValue(any(OutputStream.class),any(User[].class));
+
+        // Invoke
+        assertThrows(IOException.class, () -> userFileDAO.addNotification("Test"));
+        verify(listener, never()).notified(any(), any(), anyLong());
+        doNothing()
+            .when(mockObjectMapper)
+                .writeValue(any(OutputStream.class),any(User[].class));
+        userFileDAO.addNotification("Test3");
+
+        // Analyze
+        // Passed on once written, the failed one with the next successful write
+        InOrder inOrder = inOrder(listener);
+        inOrder.verify(listener).notified("admin", "Test", 1);
+        inOrder.verify(listener).notified("admin", "Test3", 2);
+    }
+
+    @Test
+    public void testGetInbox() throws IOException {
+        // Setup
+        userFileDAO.addNotificationListener(mock(UserDAO.NotificationListener.class));
+        UserDAO.Inbox before = userFileDAO.getInbox("admin");
+
+        // Invoke
+        userFileDAO.addNotification("Test");
+        UserDAO.Inbox after = userFileDAO.getInbox("admin");
+
+        // Analyze
+        assertEquals(before.getNotifications().length + 1, after.getNotifications().length);
+        assertEquals("Test", after.getNotifications()[after.getNotifications().length - 1]);
+        assertEquals(before.getSequence() + 1, after.getSequence());
+        assertNull(userFileDAO.getInbox("Nobody"));
+    }
+
     @Test
     public void testSaveException() throws IOException{
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .writeValue(any(File.class),any(User[].class));
+                .writeValue(any(OutputStream.class),any(User[].class));
 
         int[] basket= {};
         int[] adopt = {};
@@ -175,11 +267,123 @@ public class UserFileDAOTest {
         // raised
         doThrow(new IOException())
             .when(mockObjectMapper)
-                .readValue(new File("doesnt_matter.txt"),User[].class);
+                .readValue(new File(file("doesnt_matter.txt")),User[].class);
 
         // Invoke & Analyze
         assertThrows(IOException.class,
-                        () -> new UserFileDAO("doesnt_matter.txt",mockObjectMapper),
+                        () -> new UserFileDAO(file("doesnt_matter.txt"),mockObjectMapper),
                         "IOException not thrown");
     }
+
+    @Test
+    public void testStreamingLoad() throws IOException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        File usersFile = writeUsers(objectMapper, testUsers);
+
+        // Invoke
+        UserFileDAO dao = new UserFileDAO(usersFile.getPath(), 0, 256, true, 1, "json", objectMapper);
+
+        // Analyze
+        assertEquals(testUsers.length, dao.getUsers().length);
+        assertEquals(testUsers[0].getPassword(), dao.getUser(testUsers[0].getUsername()).getPassword());
+    }
+
+    @Test
+    public void testUserStore() throws IOException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        File usersFile = writeUsers(objectMapper, testUsers);
+        String storeFile = file("users.store");
+
+        // Invoke
+        UserFileDAO dao = new UserFileDAO(usersFile.getPath(), 0, 256, true, 1, "json", storeFile, 2, objectMapper);
+        User hyper = dao.getUser("Hyper");
+        dao.getUser("Beep");
+        dao.getUser("Tenshi");
+        dao.addNotification("Hyper has adopted Wi-Fire");
+        dao.createUser(new User("Nova", "Nova", new int[]{}, new int[]{}, new String[]{}));
+
+        // Analyze
+        assertEquals(testUsers.length + 1, dao.getUsers().length);
+        assertSame(hyper, dao.getUser("Hyper"));
+        assertEquals("Boop", dao.checkUser("Beep", "Boop").getPassword());
+        assertNull(dao.checkUser("Beep", "Derp"));
+        assertNull(dao.getUser("Hoop"));
+        User[] page = dao.getUsers("Hyper", 2);
+        assertEquals("Nova", page[0].getUsername());
+        assertEquals("Tenshi", page[1].getUsername());
+        dao.close();
+
+        // Invoke
+        // The store is the source of truth once filled, the file is not read again
+        objectMapper.writeValue(usersFile, new User[0]);
+        UserFileDAO reopened = new UserFileDAO(usersFile.getPath(), 0, 256, true, 1, "json", storeFile, 2, objectMapper);
+
+        // Analyze
+        assertEquals(4, reopened.getNotifications("admin").length);
+        assertNotNull(reopened.getUser("Nova"));
+        assertEquals(testUsers.length + 1, reopened.getUsers().length);
+        reopened.close();
+    }
+
+    @Test
+    public void testRefreshOnOutsideEdit() throws IOException {
+        // Setup
+        ObjectMapper objectMapper = new ObjectMapper();
+        File usersFile = writeUsers(objectMapper, testUsers);
+        UserFileDAO dao = new UserFileDAO(usersFile.getPath(), objectMapper);
+        User hyper = dao.getUser("Hyper");
+        User[] edited = {
+            new User("Hyper", "HyperIsSmart", new int[]{1}, new int[]{}, new String[]{"Hello"}),
+            new User("Tenshi", "TenshiIsDum", new int[]{}, new int[]{}, new String[]{}),
+            new User("Nova", "Nova", new int[]{}, new int[]{}, new String[]{})
+        };
+
+        // Invoke
+        objectMapper.writeValue(usersFile, edited);
+        User refreshed = dao.getUser("Hyper");
+
+        // Analyze
+        assertSame(hyper, refreshed);
+        assertEquals("HyperIsSmart", refreshed.getPassword());
+        assertEquals(1, dao.getNotifications("Hyper").length);
+        assertNotNull(dao.getUser("Nova"));
+        assertNull(dao.getUser("Beep"));
+    }
+
+    @Test
+    public void testFailedWriteKeepsFile() throws IOException {
+        // Setup
+        ObjectMapper spyMapper = spy(new ObjectMapper());
+        File usersFile = writeUsers(spyMapper, testUsers);
+        UserFileDAO dao = new UserFileDAO(usersFile.getPath(), spyMapper);
+        doThrow(new IOException("Disk full"))
+            .when(spyMapper)
+                .writeValue(any(OutputStream.class),any(User[].class));
+
+        // Invoke
+        assertThrows(IOException.class,
+                     () -> dao.createUser(new User("Nova", "Nova", new int[]{}, new int[]{}, new String[]{})));
+
+        // Analyze
+        assertEquals(testUsers.length, new ObjectMapper().readValue(usersFile, User[].class).length);
+        assertFalse(new File(usersFile.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void testNoRefreshAfterOwnWrite() throws IOException {
+        // Setup
+        ObjectMapper spyMapper = spy(new ObjectMapper());
+        File usersFile = writeUsers(spyMapper, testUsers);
+        UserFileDAO dao = new UserFileDAO(usersFile.getPath(), spyMapper);
+
+        // Invoke
+        dao.createUser(new User("Nova", "Nova", new int[]{}, new int[]{}, new String[]{}));
+        dao.getUser("Nova");
+        dao.getNotifications("Hyper");
+
+        // Analyze
+        verify(spyMapper, times(1)).readValue(any(File.class), eq(User[].class));
+    }
 }
@@ -0,0 +1,120 @@
+package com.ufund.api.ufundapi.persistence;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import com.ufund.api.ufundapi.model.User;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Test the User Record Store class
+ *
+ * @author Group 5E
+ */
+@Tag("Persistence-tier")
+public class UserRecordStoreTest {
+    Path file;
+    UserRecordStore store;
+
+    @TempDir
+    Path dir;   // Holds the files of each test, removed afterwards
+
+    @BeforeEach
+    public void setupUserRecordStore() throws IOException {
+        file = dir.resolve("users.store");
+        store = new UserRecordStore(file.toString());
+    }
+
+    @AfterEach
+    public void closeUserRecordStore() throws IOException {
+        store.close();
+    }
+
+    @Test
+    public void testWriteAndReopen() throws IOException {
+        // Setup
+        store.write(Arrays.asList(new User("Hyper", "HyperIsDum", new int[]{3, 1}, new int[]{7}, new String[]{"Hi"}),
+                                  new User("Beep", "Boop", new int[]{}, new int[]{}, new String[]{})));
+        store.write(Arrays.asList(new User("Hyper", "HyperIsSmart", new int[]{}, new int[]{7}, new String[]{})));
+        store.close();
+
+        // Invoke
+        store = new UserRecordStore(file.toString());
+        User hyper = store.read("Hyper");
+
+        // Analyze
+        assertEquals(2, store.size());
+        assertEquals("HyperIsSmart", hyper.getPassword());
+        assertArrayEquals(new int[]{7}, hyper.getAdopted_pets());
+        assertEquals("Boop", store.read("Beep").getPassword());
+        assertNull(store.read("Tenshi"));
+        assertEquals(Arrays.asList("Beep", "Hyper"), new ArrayList<>(store.usernames()));
+    }
+
+    @Test
+    public void testTornRecordDropped() throws IOException {
+        // Setup
+        store.write(Arrays.asList(new User("Beep", "Boop", new int[]{}, new int[]{}, new String[]{})));
+        long size = store.fileSize();
+        store.close();
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(size);
+            raw.writeInt(100);
+            raw.write("Hyp".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // Invoke
+        store = new UserRecordStore(file.toString());
+
+        // Analyze
+        assertEquals(1, store.size());
+        assertEquals(size, store.fileSize());
+        assertEquals(size, Files.size(file));
+    }
+
+    @Test
+    public void testCompaction() throws IOException {
+        // Setup
+        String[] notifications = new String[64];
+        Arrays.fill(notifications, "Wi-Fire has been adopted by someone else");
+
+        // Invoke
+        // Each round rewrites the same user, leaving the previous copy behind
+        for (int i = 0; i < 1000; i++)
+            store.write(Arrays.asList(new User("Hyper", "round " + i, new int[]{}, new int[]{}, notifications)));
+
+        // Analyze
+        assertTrue(store.fileSize() < 2 * UserRecordStore.COMPACT_MIN_BYTES);
+        assertEquals("round 999", store.read("Hyper").getPassword());
+        store.close();
+        store = new UserRecordStore(file.toString());
+        assertEquals("round 999", store.read("Hyper").getPassword());
+        assertEquals(64, store.read("Hyper").getNotifications().length);
+    }
+
+    @Test
+    public void testNotAUserStore() throws IOException {
+        // Setup
+        Path other = dir.resolve("other.store");
+        Files.write(other, "[{\"username\":\"Beep\"}]".getBytes(StandardCharsets.UTF_8));
+
+        // Invoke & Analyze
+        assertThrows(IOException.class, () -> new UserRecordStore(other.toString()));
+    }
+}
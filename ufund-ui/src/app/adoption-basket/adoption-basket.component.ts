@@ -34,7 +34,7 @@ export class AdoptionBasketComponent {
   add(name: string): void {
     name = name.trim();
     if (!name) { return; }
-    this.basketService.addPetBaskets({ name } as Pet)
+    this.basketService.addPetBaskets(this.appComponent.current_user, { name } as Pet)
       .subscribe(pet => {
         this.pets.push(pet);
       });
@@ -42,16 +42,13 @@ export class AdoptionBasketComponent {
 
   delete(pet: Pet): void {
     this.pets = this.pets.filter(h => h !== pet);
-    this.basketService.deletePetBaskets(pet.id).subscribe();
+    this.basketService.deletePetBaskets(this.appComponent.current_user, pet.id).subscribe();
     this.message = pet.name + " has been removed from your basket";
   }
 
   adopt(): void {
     for(let i = 0; i < this.pets.length; i++){
-      this.basketService.addPetToAdopt(this.pets[i].id).subscribe();
-    }
-    for(let i = 0; i < this.pets.length; i++){
-      this.petService.deletePet(this.pets[i].id).subscribe();
+      this.basketService.addPetToAdopt(this.appComponent.current_user, this.pets[i].id).subscribe();
     }
     this.pets = [];
   }
@@ -51,8 +51,8 @@ export class BasketService {
   }
 
   /** POST: add a new pet to the server */
-  addPetToAdopt(id: number): Observable<Pet> {
-    const url = `${this.basketUrl}/adopt`;
+  addPetToAdopt(user: String, id: number): Observable<Pet> {
+    const url = `${this.basketUrl}/${user}/adopt`;
     return this.http.post<Pet>(url, id, this.httpOptions).pipe(
       tap((newPet: Pet) => this.log(`added pet w/ id=${newPet.id}`)),
       catchError(this.handleError<Pet>('addPet'))
@@ -60,16 +60,17 @@ export class BasketService {
   }
 
   /** POST: add a new pet to the server */
-  addPetBaskets(pet: Pet): Observable<Pet> {
-    return this.http.post<Pet>(this.basketUrl, pet, this.httpOptions).pipe(
+  addPetBaskets(user: String, pet: Pet): Observable<Pet> {
+    const url = `${this.basketUrl}/${user}`;
+    return this.http.post<Pet>(url, pet, this.httpOptions).pipe(
       tap((newPet: Pet) => this.log(`added pet w/ id=${newPet.id}`)),
       catchError(this.handleError<Pet>('addPet'))
     );
   }
 
   /** DELETE: delete the pet from the server */
-  deletePetBaskets(id: number): Observable<Pet> {
-    const url = `${this.basketUrl}/${id}`;
+  deletePetBaskets(user: String, id: number): Observable<Pet> {
+    const url = `${this.basketUrl}/${user}/${id}`;
 
     return this.http.delete<Pet>(url, this.httpOptions).pipe(
       tap(_ => this.log(`deleted pet id=${id}`)),
@@ -1,4 +1,5 @@
-import { Component } from '@angular/core';
+import { Component, OnDestroy } from '@angular/core';
+import { Subscription } from 'rxjs';
 import { UserService } from '../user.service';
 import { AppComponent } from '../app.component';
 
@@ -7,9 +8,10 @@ import { AppComponent } from '../app.component';
   templateUrl: './notifications.component.html',
   styleUrls: ['./notifications.component.css']
 })
-export class NotificationsComponent {
+export class NotificationsComponent implements OnDestroy {
   notifications: String[] = [];
   message = "";
+  private stream?: Subscription;
 
   constructor(
     private userService: UserService,
@@ -20,8 +22,15 @@ export class NotificationsComponent {
   }
 
   getNotifs(): void {
-    this.userService.getUserNotifs(this.appComponent.current_user)
-    .subscribe(notifs => this.notifications = notifs);
+    this.stream?.unsubscribe();
+    this.stream = this.userService.streamUserNotifs(this.appComponent.current_user)
+    .subscribe(update => this.notifications = update.inbox
+      ? update.notifications
+      : [...this.notifications, ...update.notifications]);
+  }
+
+  ngOnDestroy(): void {
+    this.stream?.unsubscribe();
   }
 
   deleteNotif(notif: String): void{
@@ -0,0 +1,8 @@
+import { Pet } from './pet';
+
+export interface PetChanges {
+    version: number;
+    full: boolean;
+    pets: Pet[];
+    removed: number[];
+  }
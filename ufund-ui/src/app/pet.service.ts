@@ -5,6 +5,7 @@ import { Observable, of } from 'rxjs';
 import { catchError, map, tap } from 'rxjs/operators';
 
 import { Pet } from './pet';
+import { PetChanges } from './pet-changes';
 
 
 @Injectable({ providedIn: 'root' })
@@ -13,6 +14,10 @@ export class PetService {
   private petsUrl = 'http://localhost:8080/pets'
   private basketUrl = 'http://localhost:8080/baskets'
 
+  // Catalog as of catalogVersion, kept in step with the server through /pets/changes
+  private catalog = new Map<number, Pet>();
+  private catalogVersion?: number;
+
   httpOptions = {
     headers: new HttpHeaders({ 'Content-Type': 'application/json' })
   };
@@ -20,15 +25,32 @@ export class PetService {
   constructor(
     private http: HttpClient) { }
 
-  /** GET pets from the server */
+  /** GET the pets changed since the cached catalog version and return the whole catalog */
   getPets(): Observable<Pet[]> {
-    return this.http.get<Pet[]>(this.petsUrl)
+    const since = this.catalogVersion === undefined ? '' : `?since=${this.catalogVersion}`;
+    return this.http.get<PetChanges>(`${this.petsUrl}/changes${since}`)
       .pipe(
+        map(changes => this.applyChanges(changes)),
         tap(_ => this.log('fetched pets')),
         catchError(this.handleError<Pet[]>('getPets', []))
       );
   }
 
+  /** Merge a delta into the cached catalog, or replace it on a full resync */
+  private applyChanges(changes: PetChanges): Pet[] {
+    if (changes.full) {
+      this.catalog.clear();
+    }
+    for (const id of changes.removed) {
+      this.catalog.delete(id);
+    }
+    for (const pet of changes.pets) {
+      this.catalog.set(pet.id, pet);
+    }
+    this.catalogVersion = changes.version;
+    return Array.from(this.catalog.values()).sort((a, b) => a.id - b.id);
+  }
+
   /** GET pet by id. Return `undefined` when id not found */
   getPetNo404<Data>(id: number): Observable<Pet> {
     const url = `${this.petsUrl}/?id=${id}`;
@@ -90,8 +112,9 @@ export class PetService {
     );
   }
 
-  addPetToBasket(pet: Pet): Observable<Pet> {
-    return this.http.post<Pet>(this.basketUrl, pet, this.httpOptions).pipe(
+  addPetToBasket(pet: Pet, user: String): Observable<Pet> {
+    const url = `${this.basketUrl}/${user}`;
+    return this.http.post<Pet>(url, pet, this.httpOptions).pipe(
       tap((newPet: Pet) => this.log(`added pet w/ id=${newPet.id}`)),
       catchError(this.handleError<Pet>('addPet'))
     );
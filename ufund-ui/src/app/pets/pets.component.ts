@@ -43,7 +43,7 @@ export class PetsComponent implements OnInit {
   }
 
   addToBasket(pet: Pet): void {;
-    this.petService.addPetToBasket(pet).
+    this.petService.addPetToBasket(pet, this.appComponent.current_user).
     subscribe(pets => {
       if (pets == null){
         this.message = pet.name + " already exists in your basket!";
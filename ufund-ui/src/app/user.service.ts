@@ -47,6 +47,25 @@ export class UserService {
     );
   }
 
+  /**
+   * Follow the notifications of a user over server-sent events.
+   * Emits the whole inbox (inbox = true) when the stream opens and again
+   * after every reconnect, then each new notification on its own.
+   * Unsubscribing closes the stream.
+   */
+  streamUserNotifs(username: String): Observable<{ inbox: boolean, notifications: String[] }> {
+    const url = `${this.usersUrl}/notifications/${username}/stream`;
+    return new Observable<{ inbox: boolean, notifications: String[] }>(subscriber => {
+      const source = new EventSource(url);
+      source.addEventListener('inbox', event =>
+        subscriber.next({ inbox: true, notifications: JSON.parse((event as MessageEvent).data) }));
+      source.addEventListener('notification', event =>
+        subscriber.next({ inbox: false, notifications: [(event as MessageEvent).data] }));
+      source.onerror = _ => this.log(`notification stream of ${username} interrupted`);
+      return () => source.close();
+    });
+  }
+
   checkUser(username: String, password: String): Observable<User> {
     const url = `${this.usersUrl}/${username}/${password}`;
     return this.http.get<User>(url).pipe(